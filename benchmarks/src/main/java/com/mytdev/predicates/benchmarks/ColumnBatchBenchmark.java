@@ -0,0 +1,129 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates.benchmarks;
+
+import com.mytdev.predicates.AbstractPredicate;
+import com.mytdev.predicates.Predicate;
+import com.mytdev.predicates.Predicates;
+import com.mytdev.predicates.primitive.ColumnBatch;
+import com.mytdev.predicates.primitive.ColumnPredicate;
+import com.mytdev.predicates.primitive.DoubleRangePredicate;
+import com.mytdev.predicates.primitive.IntRangePredicate;
+import com.mytdev.predicates.primitive.LongRangePredicate;
+import com.mytdev.predicates.primitive.PrimitivePredicates;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares filtering rows stored as objects with {@link Predicates} against
+ * filtering the same rows stored as a {@link ColumnBatch} with an equivalent
+ * {@link ColumnPredicate}.
+ *
+ * @author Yann D'Isanto
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ColumnBatchBenchmark {
+
+    @Param({"1000000"})
+    public int size;
+
+    private List<Row> rows;
+
+    private Predicate<Row> rowPredicate;
+
+    private ColumnBatch batch;
+
+    private ColumnPredicate columnPredicate;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        final int[] quantities = new int[size];
+        final long[] times = new long[size];
+        final double[] prices = new double[size];
+        rows = new ArrayList<Row>(size);
+        for (int i = 0; i < size; i++) {
+            quantities[i] = random.nextInt(100);
+            times[i] = random.nextInt(1000000);
+            prices[i] = random.nextDouble() * 100;
+            rows.add(new Row(quantities[i], times[i], prices[i]));
+        }
+        batch = new ColumnBatch(size).put("quantity", quantities).put("time", times).put("price", prices);
+        rowPredicate = new AbstractPredicate<Row>() {
+
+            public boolean eval(Row candidate) {
+                return candidate.quantity >= 10 && candidate.quantity <= 59
+                    && (candidate.price <= 30 || candidate.time >= 900000);
+            }
+        };
+        columnPredicate = ColumnPredicate.intColumn("quantity", new IntRangePredicate(10, 59))
+            .and(ColumnPredicate.doubleColumn("price", new DoubleRangePredicate(Double.NEGATIVE_INFINITY, 30))
+                .or(ColumnPredicate.longColumn("time", new LongRangePredicate(900000, Long.MAX_VALUE))));
+    }
+
+    @Benchmark
+    public int rowCount() {
+        return Predicates.count(rows, rowPredicate);
+    }
+
+    @Benchmark
+    public int columnCount() {
+        return PrimitivePredicates.count(batch, columnPredicate);
+    }
+
+    @Benchmark
+    public List<Row> rowFilter() {
+        return Predicates.filter(rows, rowPredicate);
+    }
+
+    @Benchmark
+    public ColumnBatch columnFilter() {
+        return PrimitivePredicates.filter(batch, columnPredicate);
+    }
+
+    public static final class Row {
+
+        final int quantity;
+
+        final long time;
+
+        final double price;
+
+        Row(int quantity, long time, double price) {
+            this.quantity = quantity;
+            this.time = time;
+            this.price = price;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates.benchmarks;
+
+import com.mytdev.predicates.AndPredicate;
+import com.mytdev.predicates.OrPredicate;
+import com.mytdev.predicates.Predicate;
+import com.mytdev.predicates.Predicates;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the evaluation of an interpreted predicate tree with the one of
+ * the same tree compiled by {@link Predicates#compile(Predicate)}.
+ * <p>
+ * The tree alternates AND and OR levels (so that it is not flattened), each
+ * level holding {@code width - 1} leaves of several classes (which makes the
+ * composites call sites megamorphic) followed by the next level. The leaves of
+ * the AND levels always hold and the ones of the OR levels never hold, so the
+ * whole tree is walked down to its deepest leaf, which tests the candidate
+ * parity.
+ *
+ * @author Yann D'Isanto
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompiledEvalBenchmark {
+
+    @Param({"2", "8", "32"})
+    public int depth;
+
+    @Param({"2", "4"})
+    public int width;
+
+    private Integer[] candidates;
+
+    private Predicate<Integer> interpreted;
+
+    private Predicate<Integer> compiled;
+
+    @Setup
+    public void setup() {
+        candidates = CompositeEvalBenchmark.randomCandidates();
+        interpreted = buildMixedTree(depth, width);
+        compiled = Predicates.compile(interpreted);
+        if (compiled == interpreted) {
+            throw new IllegalStateException("tree not compiled");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CompositeEvalBenchmark.CANDIDATES)
+    public int interpreted() {
+        return CompositeEvalBenchmark.evalAll(interpreted, candidates);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CompositeEvalBenchmark.CANDIDATES)
+    public int compiled() {
+        return CompositeEvalBenchmark.evalAll(compiled, candidates);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Predicate<Integer> buildMixedTree(int depth, int width) {
+        Predicate<Integer> tree = Leaves.even();
+        for (int level = 0; level < depth; level++) {
+            final boolean and = level % 2 == 0;
+            final Predicate<Integer>[] operands = new Predicate[width];
+            for (int i = 0; i < width - 1; i++) {
+                if (and) {
+                    operands[i] = i % 2 == 0 ? Leaves.nonNegative() : Leaves.lowerThan(Integer.MAX_VALUE);
+                } else {
+                    operands[i] = i % 2 == 0 ? Leaves.negative() : Leaves.equalTo(-1);
+                }
+            }
+            operands[width - 1] = tree;
+            final Predicate<Integer>[] others = new Predicate[width - 2];
+            System.arraycopy(operands, 2, others, 0, others.length);
+            tree = and
+                ? new AndPredicate<Integer>(operands[0], operands[1], others)
+                : new OrPredicate<Integer>(operands[0], operands[1], others);
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates.benchmarks;
+
+import com.mytdev.predicates.AndPredicate;
+import com.mytdev.predicates.OrPredicate;
+import com.mytdev.predicates.Predicate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the evaluation cost of AND/OR trees.
+ * <p>
+ * An AND (resp. OR) tree of depth d and width w is built as d nested
+ * composites alternating AND and OR levels from an AND (resp. OR) root, since
+ * nested composites of the same kind are flattened at creation. Each level
+ * holds w - 1 leaves which never decide it (always holding for an AND level,
+ * never holding for an OR level) followed by the next level. The deepest
+ * level ends with a leaf testing the candidate parity so that the whole tree
+ * is always walked and the result is not constant.
+ *
+ * @author Yann D'Isanto
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompositeEvalBenchmark {
+
+    static final int CANDIDATES = 1024;
+
+    @Param({"1", "4", "16", "64"})
+    public int depth;
+
+    @Param({"2", "4", "16"})
+    public int width;
+
+    private Integer[] candidates;
+
+    private Predicate<Integer> andTree;
+
+    private Predicate<Integer> orTree;
+
+    @Setup
+    public void setup() {
+        candidates = randomCandidates();
+        andTree = buildAndTree(depth, width);
+        orTree = buildOrTree(depth, width);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CANDIDATES)
+    public int and() {
+        return evalAll(andTree, candidates);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CANDIDATES)
+    public int or() {
+        return evalAll(orTree, candidates);
+    }
+
+    static int evalAll(Predicate<Integer> predicate, Integer[] candidates) {
+        int result = 0;
+        for (Integer candidate : candidates) {
+            if (predicate.eval(candidate)) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    static Predicate<Integer> buildAndTree(int depth, int width) {
+        return buildTree(depth, width, true);
+    }
+
+    static Predicate<Integer> buildOrTree(int depth, int width) {
+        return buildTree(depth, width, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Predicate<Integer> buildTree(int depth, int width, boolean andRoot) {
+        Predicate<Integer> tree = Leaves.even();
+        // built from the deepest level up to the root (level 0)
+        for (int level = depth - 1; level >= 0; level--) {
+            final boolean and = (level % 2 == 0) == andRoot;
+            final Predicate<Integer>[] others = new Predicate[width - 1];
+            for (int i = 0; i < width - 2; i++) {
+                others[i] = neutralLeaf(and);
+            }
+            others[width - 2] = tree;
+            tree = and
+                ? new AndPredicate<Integer>(neutralLeaf(and), others[0], tail(others))
+                : new OrPredicate<Integer>(neutralLeaf(and), others[0], tail(others));
+        }
+        return tree;
+    }
+
+    private static Predicate<Integer> neutralLeaf(boolean and) {
+        return and ? Leaves.nonNegative() : Leaves.negative();
+    }
+
+    static Integer[] randomCandidates() {
+        final Random random = new Random(42);
+        final Integer[] result = new Integer[CANDIDATES];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = random.nextInt(1 << 20);
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Predicate<Integer>[] tail(Predicate<Integer>[] predicates) {
+        final Predicate<Integer>[] result = new Predicate[predicates.length - 1];
+        System.arraycopy(predicates, 1, result, 0, result.length);
+        return result;
+    }
+}
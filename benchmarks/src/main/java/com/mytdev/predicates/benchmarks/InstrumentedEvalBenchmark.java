@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates.benchmarks;
+
+import com.mytdev.predicates.Predicate;
+import com.mytdev.predicates.PredicateInstrumentation;
+import com.mytdev.predicates.Predicates;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the overhead of {@link Predicates#instrument(String, Predicate)}
+ * on the mixed AND/OR trees of {@link CompiledEvalBenchmark}, with the
+ * instrumentation disabled and enabled.
+ *
+ * @author Yann D'Isanto
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstrumentedEvalBenchmark {
+
+    @Param({"2", "8"})
+    public int depth;
+
+    private Integer[] candidates;
+
+    private Predicate<Integer> plain;
+
+    private Predicate<Integer> disabled;
+
+    private Predicate<Integer> enabled;
+
+    @Setup
+    public void setup() {
+        candidates = CompositeEvalBenchmark.randomCandidates();
+        plain = CompiledEvalBenchmark.buildMixedTree(depth, 4);
+        final PredicateInstrumentation<Integer> off = Predicates.instrument("disabled", plain);
+        off.setEnabled(false);
+        disabled = off.predicate();
+        enabled = Predicates.instrument("enabled", plain).predicate();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CompositeEvalBenchmark.CANDIDATES)
+    public int plain() {
+        return CompositeEvalBenchmark.evalAll(plain, candidates);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CompositeEvalBenchmark.CANDIDATES)
+    public int disabled() {
+        return CompositeEvalBenchmark.evalAll(disabled, candidates);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CompositeEvalBenchmark.CANDIDATES)
+    public int enabled() {
+        return CompositeEvalBenchmark.evalAll(enabled, candidates);
+    }
+}
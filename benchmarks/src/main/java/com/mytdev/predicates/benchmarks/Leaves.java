@@ -0,0 +1,103 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates.benchmarks;
+
+import com.mytdev.predicates.AbstractPredicate;
+import com.mytdev.predicates.Predicate;
+
+/**
+ * Cheap leaf predicates over integers used to build the benchmarked trees.
+ *
+ * @author Yann D'Isanto
+ */
+final class Leaves {
+
+    /**
+     * Creates a predicate that holds for every non negative integer.
+     *
+     * @return a new Predicate instance.
+     */
+    static Predicate<Integer> nonNegative() {
+        return new AbstractPredicate<Integer>() {
+
+            public boolean eval(Integer candidate) {
+                return candidate >= 0;
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate that holds for no non negative integer.
+     *
+     * @return a new Predicate instance.
+     */
+    static Predicate<Integer> negative() {
+        return new AbstractPredicate<Integer>() {
+
+            public boolean eval(Integer candidate) {
+                return candidate < 0;
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate that holds for even integers.
+     *
+     * @return a new Predicate instance.
+     */
+    static Predicate<Integer> even() {
+        return new AbstractPredicate<Integer>() {
+
+            public boolean eval(Integer candidate) {
+                return (candidate & 1) == 0;
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate that holds for integers lower than the specified
+     * bound.
+     *
+     * @param bound the exclusive upper bound.
+     * @return a new Predicate instance.
+     */
+    static Predicate<Integer> lowerThan(final int bound) {
+        return new AbstractPredicate<Integer>() {
+
+            public boolean eval(Integer candidate) {
+                return candidate < bound;
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate that holds for the specified integer only.
+     *
+     * @param value the expected value.
+     * @return a new Predicate instance.
+     */
+    static Predicate<Integer> equalTo(final int value) {
+        return new AbstractPredicate<Integer>() {
+
+            public boolean eval(Integer candidate) {
+                return candidate == value;
+            }
+        };
+    }
+
+    private Leaves() {
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates.benchmarks;
+
+import com.mytdev.predicates.NotPredicate;
+import com.mytdev.predicates.Predicate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the evaluation cost of NOT chains: a NOT tree of depth d is a
+ * chain of d NotPredicate decorating a leaf testing the candidate parity.
+ *
+ * @author Yann D'Isanto
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotEvalBenchmark {
+
+    @Param({"1", "2", "4", "16"})
+    public int depth;
+
+    private Integer[] candidates;
+
+    private Predicate<Integer> notTree;
+
+    @Setup
+    public void setup() {
+        candidates = CompositeEvalBenchmark.randomCandidates();
+        notTree = buildNotTree(depth);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CompositeEvalBenchmark.CANDIDATES)
+    public int not() {
+        return CompositeEvalBenchmark.evalAll(notTree, candidates);
+    }
+
+    static Predicate<Integer> buildNotTree(int depth) {
+        Predicate<Integer> tree = Leaves.even();
+        for (int level = 0; level < depth; level++) {
+            tree = new NotPredicate<Integer>(tree);
+        }
+        return tree;
+    }
+}
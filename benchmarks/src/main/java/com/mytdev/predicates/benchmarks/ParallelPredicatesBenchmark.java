@@ -0,0 +1,102 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates.benchmarks;
+
+import com.mytdev.predicates.ParallelPredicates;
+import com.mytdev.predicates.Predicate;
+import com.mytdev.predicates.Predicates;
+import com.mytdev.predicates.Predicates.Pair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the sequential and parallel filter, count and partition over
+ * ArrayList instances of several sizes, to find the size from which the
+ * parallel operations are worth it (the parallel threshold). The parallel
+ * operations are forced (threshold 0) and run on the common pool.
+ *
+ * @author Yann D'Isanto
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ParallelPredicatesBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private List<Integer> list;
+
+    private Predicate<Integer> even;
+
+    private ParallelPredicates parallel;
+
+    @Setup
+    public void setup() {
+        list = new ArrayList<Integer>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+        even = Leaves.even();
+        parallel = Predicates.parallel(ForkJoinPool.commonPool(), 0);
+    }
+
+    @Benchmark
+    public int sequentialCount() {
+        return Predicates.count(list, even);
+    }
+
+    @Benchmark
+    public int parallelCount() {
+        return parallel.count(list, even);
+    }
+
+    @Benchmark
+    public List<Integer> sequentialFilter() {
+        return Predicates.filter(list, even);
+    }
+
+    @Benchmark
+    public List<Integer> parallelFilter() {
+        return parallel.filter(list, even);
+    }
+
+    @Benchmark
+    public Pair<List<Integer>> sequentialPartition() {
+        return Predicates.partition(list, even);
+    }
+
+    @Benchmark
+    public Pair<List<Integer>> parallelPartition() {
+        return parallel.partition(list, even);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates.benchmarks;
+
+import com.mytdev.predicates.Predicate;
+import com.mytdev.predicates.Predicates;
+import com.mytdev.predicates.Predicates.Pair;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link Predicates} bulk operations over lists of consecutive
+ * integers.
+ * <ul>
+ * <li>filter, count and partition keep the even elements (half of the
+ * list).</li>
+ * <li>span, takeWhile and dropWhile split the list in its middle.</li>
+ * <li>indexWhere and lastIndexWhere look for the middle element.</li>
+ * </ul>
+ *
+ * @author Yann D'Isanto
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class PredicatesBenchmark {
+
+    @Param({"ArrayList", "LinkedList"})
+    public String listType;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private List<Integer> list;
+
+    private Predicate<Integer> even;
+
+    private Predicate<Integer> firstHalf;
+
+    private Predicate<Integer> middle;
+
+    @Setup
+    public void setup() {
+        list = createList(listType);
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+        even = Leaves.even();
+        firstHalf = Leaves.lowerThan(size / 2);
+        middle = Leaves.equalTo(size / 2);
+    }
+
+    @Benchmark
+    public List<Integer> filter() {
+        return Predicates.filter(list, even);
+    }
+
+    @Benchmark
+    public int count() {
+        return Predicates.count(list, even);
+    }
+
+    @Benchmark
+    public Pair<List<Integer>> partition() {
+        return Predicates.partition(list, even);
+    }
+
+    @Benchmark
+    public Pair<List<Integer>> span() {
+        return Predicates.span(list, firstHalf);
+    }
+
+    @Benchmark
+    public List<Integer> takeWhile() {
+        return Predicates.takeWhile(list, firstHalf);
+    }
+
+    @Benchmark
+    public List<Integer> dropWhile() {
+        return Predicates.dropWhile(list, firstHalf);
+    }
+
+    @Benchmark
+    public int indexWhere() {
+        return Predicates.indexWhere(list, middle);
+    }
+
+    @Benchmark
+    public int lastIndexWhere() {
+        return Predicates.lastIndexWhere(list, middle);
+    }
+
+    static List<Integer> createList(String listType) {
+        if ("ArrayList".equals(listType)) {
+            return new ArrayList<Integer>();
+        }
+        if ("LinkedList".equals(listType)) {
+            return new LinkedList<Integer>();
+        }
+        throw new IllegalArgumentException("unknown list type: " + listType);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates.benchmarks;
+
+import com.mytdev.predicates.primitive.IntPredicate;
+import com.mytdev.predicates.primitive.IntRangePredicate;
+import com.mytdev.predicates.primitive.PrimitiveMasks;
+import com.mytdev.predicates.primitive.PrimitivePredicates;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the element by element {@link PrimitivePredicates} loops with the
+ * mask evaluation of {@link PrimitiveMasks}, over an int array of uniformly
+ * distributed values, for a single range (half of the values match) and for
+ * an And/Or/Not combination of ranges.
+ *
+ * @author Yann D'Isanto
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class PrimitiveMasksBenchmark {
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"range", "combination"})
+    public String predicateShape;
+
+    private int[] array;
+
+    private IntPredicate predicate;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        array = new int[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = random.nextInt(1000);
+        }
+        if ("range".equals(predicateShape)) {
+            predicate = new IntRangePredicate(0, 499);
+        } else {
+            predicate = new IntRangePredicate(100, 899)
+                .and(new IntRangePredicate(400, 599).not())
+                .or(new IntRangePredicate(990, 999));
+        }
+    }
+
+    @Benchmark
+    public int scalarCount() {
+        return PrimitivePredicates.count(array, predicate);
+    }
+
+    @Benchmark
+    public int maskCount() {
+        return PrimitiveMasks.count(array, predicate);
+    }
+
+    @Benchmark
+    public int[] scalarFilter() {
+        return PrimitivePredicates.filter(array, predicate);
+    }
+
+    @Benchmark
+    public int[] maskFilter() {
+        return PrimitiveMasks.filter(array, predicate);
+    }
+}
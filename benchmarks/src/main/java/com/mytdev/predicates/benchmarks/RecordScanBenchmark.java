@@ -0,0 +1,159 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates.benchmarks;
+
+import com.mytdev.predicates.AbstractPredicate;
+import com.mytdev.predicates.Predicate;
+import com.mytdev.predicates.Predicates;
+import com.mytdev.predicates.RecordPredicates;
+import com.mytdev.predicates.RecordScanner;
+import com.mytdev.predicates.primitive.AbstractDoublePredicate;
+import com.mytdev.predicates.primitive.AbstractIntPredicate;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares deserializing every record of a file before evaluating an object
+ * predicate with the in-place evaluation of {@link RecordPredicates} field
+ * predicates by {@link RecordScanner}, sequentially and in parallel.
+ *
+ * @author Yann D'Isanto
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class RecordScanBenchmark {
+
+    /**
+     * An int id, a double amount and a 4 bytes code.
+     */
+    private static final int RECORD_SIZE = 16;
+
+    @Param({"100000", "10000000"})
+    public int records;
+
+    private File file;
+
+    private Predicate<Record> objectPredicate;
+
+    private Predicate<ByteBuffer> fieldPredicate;
+
+    private ForkJoinPool singleThreadPool;
+
+    private RecordScanner sequential;
+
+    private ForkJoinPool pool;
+
+    private RecordScanner parallel;
+
+    @Setup
+    public void setup() throws IOException {
+        final ByteBuffer content = ByteBuffer.allocate(records * RECORD_SIZE);
+        for (int i = 0; i < records; i++) {
+            content.putInt(i).putDouble(i % 1000).put((byte) 'C').put((byte) 'O').put((byte) 'D')
+                .put((byte) ('A' + i % 4));
+        }
+        file = File.createTempFile("records", ".bin");
+        Files.write(file.toPath(), content.array());
+        objectPredicate = new AbstractPredicate<Record>() {
+
+            public boolean eval(Record candidate) {
+                return candidate.id % 2 == 0 && candidate.amount > 500;
+            }
+        };
+        fieldPredicate = RecordPredicates.intField(0, new AbstractIntPredicate() {
+
+            public boolean eval(int candidate) {
+                return candidate % 2 == 0;
+            }
+        }).and(RecordPredicates.doubleField(4, new AbstractDoublePredicate() {
+
+            public boolean eval(double candidate) {
+                return candidate > 500;
+            }
+        }));
+        singleThreadPool = new ForkJoinPool(1);
+        pool = new ForkJoinPool();
+        sequential = Predicates.recordScanner(RECORD_SIZE, ByteOrder.BIG_ENDIAN, singleThreadPool);
+        parallel = Predicates.recordScanner(RECORD_SIZE, ByteOrder.BIG_ENDIAN, pool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        singleThreadPool.shutdown();
+        pool.shutdown();
+        file.delete();
+    }
+
+    @Benchmark
+    public List<Record> deserialized() throws IOException {
+        final ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        final List<Record> all = new ArrayList<Record>(records);
+        while (content.remaining() >= RECORD_SIZE) {
+            final byte[] code = new byte[4];
+            all.add(new Record(content.getInt(), content.getDouble(), code));
+            content.get(code);
+        }
+        return Predicates.filter(all, objectPredicate);
+    }
+
+    @Benchmark
+    public long[] scanned() throws IOException {
+        return sequential.scan(file.toPath(), fieldPredicate);
+    }
+
+    @Benchmark
+    public long[] scannedInParallel() throws IOException {
+        return parallel.scan(file.toPath(), fieldPredicate);
+    }
+
+    public static final class Record {
+
+        final int id;
+
+        final double amount;
+
+        final byte[] code;
+
+        Record(int id, double amount, byte[] code) {
+            this.id = id;
+            this.amount = amount;
+            this.code = code;
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package com.mytdev.predicates;
 
+import java.util.BitSet;
+
 /**
  * An Abstract Predicate implementing the and/or/not methods.
  *
@@ -44,4 +46,32 @@ public abstract class AbstractPredicate<T> implements Predicate<T> {
             throw new NullPointerException(name + " is null");
         }
     }
+
+    // util method
+    @SuppressWarnings("unchecked")
+    static <T> void evalBatch(Predicate<? super T> predicate, T[] candidates, int from, int to, BitSet selection) {
+        if (predicate instanceof BatchPredicate) {
+            ((BatchPredicate<? super T>) predicate).evalBatch(candidates, from, to, selection);
+            return;
+        }
+        for (int i = selection.nextSetBit(from); i >= 0 && i < to; i = selection.nextSetBit(i + 1)) {
+            if (!predicate.eval(candidates[i])) {
+                selection.clear(i);
+            }
+        }
+    }
+
+    // util method
+    static double costOf(Predicate<?> predicate) {
+        return predicate instanceof CostHint
+            ? ((CostHint) predicate).cost()
+            : CostHint.DEFAULT_COST;
+    }
+
+    // util method
+    static double probabilityOf(Predicate<?> predicate) {
+        return predicate instanceof CostHint
+            ? ((CostHint) predicate).probability()
+            : CostHint.DEFAULT_PROBABILITY;
+    }
 }
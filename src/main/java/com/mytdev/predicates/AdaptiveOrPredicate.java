@@ -0,0 +1,55 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+/**
+ * A logical OR of predicates whose evaluation order adapts to the
+ * observed data: the cheapest and most likely true predicates are evaluated first.
+ * Nested OrPredicate instances are flattened at creation.
+ *
+ * @author Yann D'Isanto
+ * @param <T>
+ * @see AdaptivePredicateComposite
+ */
+public final class AdaptiveOrPredicate<T> extends AdaptivePredicateComposite<T> {
+
+    /**
+     * Creates a new instance of AdaptiveOrPredicate with the default
+     * sampling and reorder periods.
+     *
+     * @param p1 predicate 1.
+     * @param p2 predicate 2.
+     * @param others more predicates.
+     */
+    public AdaptiveOrPredicate(Predicate<? super T> p1, Predicate<? super T> p2, Predicate<? super T>... others) {
+        this(DEFAULT_SAMPLING_PERIOD, DEFAULT_REORDER_PERIOD, p1, p2, others);
+    }
+
+    /**
+     * Creates a new instance of AdaptiveOrPredicate.
+     *
+     * @param samplingPeriod the number of evaluations per sampled evaluation.
+     * @param reorderPeriod the number of sampled evaluations between two
+     * reorderings.
+     * @param p1 predicate 1.
+     * @param p2 predicate 2.
+     * @param others more predicates.
+     */
+    public AdaptiveOrPredicate(int samplingPeriod, int reorderPeriod,
+        Predicate<? super T> p1, Predicate<? super T> p2, Predicate<? super T>... others) {
+        super(true, samplingPeriod, reorderPeriod, flatten(OrPredicate.class, p1, p2, others));
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A short-circuiting predicate composite which reorders its predicates
+ * according to their observed cost and outcome.
+ * <p>
+ * One evaluation out of {@code samplingPeriod} (chosen at random) is sampled:
+ * the duration and the result of each evaluated predicate are recorded in
+ * striped counters. Every {@code reorderPeriod} sampled evaluations the
+ * predicates are sorted by increasing ratio of their mean cost to their
+ * probability of being decisive (i.e. of short-circuiting the evaluation),
+ * which is the optimal order for independent predicates. Older statistics are
+ * halved at each reordering so that the order follows the data drift.
+ * <p>
+ * The initial evaluation order is given by the {@link CostHint cost hints} of
+ * the predicates, if any, or by their declaration order.
+ * <p>
+ * The evaluation order is an immutable array published through a volatile
+ * field, so concurrent evaluations always see a complete order. The
+ * {@link #predicates} collection keeps the declaration order.
+ *
+ * @author Yann D'Isanto
+ * @param <T>
+ */
+public abstract class AdaptivePredicateComposite<T> extends PredicateComposite<T> {
+
+    /**
+     * The default number of evaluations per sampled evaluation.
+     */
+    public static final int DEFAULT_SAMPLING_PERIOD = 64;
+
+    /**
+     * The default number of sampled evaluations between two reorderings.
+     */
+    public static final int DEFAULT_REORDER_PERIOD = 1024;
+
+    private final boolean decisiveResult;
+
+    private final int samplingPeriod;
+
+    private final int reorderPeriod;
+
+    private final AtomicLong sampledEvaluations = new AtomicLong();
+
+    private volatile Operand<T>[] evaluationOrder;
+
+    @SuppressWarnings("unchecked")
+    AdaptivePredicateComposite(boolean decisiveResult, int samplingPeriod, int reorderPeriod,
+        Predicate<? super T>[] predicates) {
+        super(predicates);
+        if (samplingPeriod < 1) {
+            throw new IllegalArgumentException("sampling period must be positive: " + samplingPeriod);
+        }
+        if (reorderPeriod < 1) {
+            throw new IllegalArgumentException("reorder period must be positive: " + reorderPeriod);
+        }
+        this.decisiveResult = decisiveResult;
+        this.samplingPeriod = samplingPeriod;
+        this.reorderPeriod = reorderPeriod;
+        final Predicate<? super T>[] initialOrder = sortByCost(predicates, decisiveResult);
+        final Operand<T>[] operands = new Operand[initialOrder.length];
+        for (int i = 0; i < operands.length; i++) {
+            operands[i] = new Operand<T>(initialOrder[i]);
+        }
+        evaluationOrder = operands;
+    }
+
+    public boolean eval(T candidate) {
+        final Operand<T>[] operands = evaluationOrder;
+        if (samplingPeriod > 1 && ThreadLocalRandom.current().nextInt(samplingPeriod) != 0) {
+            for (int i = 0; i < operands.length; i++) {
+                if (operands[i].predicate.eval(candidate) == decisiveResult) {
+                    return decisiveResult;
+                }
+            }
+            return !decisiveResult;
+        }
+        final boolean result = sampledEval(operands, candidate);
+        if (sampledEvaluations.incrementAndGet() % reorderPeriod == 0) {
+            reorder();
+        }
+        return result;
+    }
+
+    private boolean sampledEval(Operand<T>[] operands, T candidate) {
+        for (int i = 0; i < operands.length; i++) {
+            final Operand<T> operand = operands[i];
+            final long start = System.nanoTime();
+            final boolean result = operand.predicate.eval(candidate);
+            operand.record(System.nanoTime() - start, result == decisiveResult);
+            if (result == decisiveResult) {
+                return decisiveResult;
+            }
+        }
+        return !decisiveResult;
+    }
+
+    /**
+     * Sorts the predicates according to the statistics gathered so far. This
+     * is automatically called every {@code reorderPeriod} sampled evaluations.
+     */
+    public final synchronized void reorder() {
+        final Operand<T>[] operands = evaluationOrder.clone();
+        for (Operand<T> operand : operands) {
+            operand.updateRank();
+        }
+        Arrays.sort(operands, RANK_COMPARATOR);
+        evaluationOrder = operands;
+    }
+
+    /**
+     * Returns the predicates in their current evaluation order.
+     *
+     * @return a new list of the predicates.
+     */
+    public final List<Predicate<? super T>> evaluationOrder() {
+        final Operand<T>[] operands = evaluationOrder;
+        final List<Predicate<? super T>> result = new ArrayList<Predicate<? super T>>(operands.length);
+        for (Operand<T> operand : operands) {
+            result.add(operand.predicate);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static final Comparator<Operand<?>> RANK_COMPARATOR = new Comparator<Operand<?>>() {
+
+        public int compare(Operand<?> o1, Operand<?> o2) {
+            return Double.compare(o1.rank, o2.rank);
+        }
+    };
+
+    /**
+     * A composed predicate with its evaluation statistics.
+     */
+    private static final class Operand<T> {
+
+        private final Predicate<? super T> predicate;
+
+        private final LongAdder evaluations = new LongAdder();
+
+        private final LongAdder decisiveEvaluations = new LongAdder();
+
+        private final LongAdder nanos = new LongAdder();
+
+        // decayed statistics, only accessed by the reordering thread
+        private double decayedEvaluations;
+
+        private double decayedDecisiveEvaluations;
+
+        private double decayedNanos;
+
+        private double rank = Double.POSITIVE_INFINITY;
+
+        Operand(Predicate<? super T> predicate) {
+            this.predicate = predicate;
+        }
+
+        void record(long duration, boolean decisive) {
+            evaluations.increment();
+            nanos.add(duration);
+            if (decisive) {
+                decisiveEvaluations.increment();
+            }
+        }
+
+        void updateRank() {
+            decayedEvaluations = decayedEvaluations / 2 + evaluations.sumThenReset();
+            decayedDecisiveEvaluations = decayedDecisiveEvaluations / 2 + decisiveEvaluations.sumThenReset();
+            decayedNanos = decayedNanos / 2 + nanos.sumThenReset();
+            if (decayedEvaluations < 1) {
+                // never reached yet, keeps its relative position at the end
+                rank = Double.POSITIVE_INFINITY;
+                return;
+            }
+            final double meanCost = (decayedNanos + 1) / decayedEvaluations;
+            final double decisiveProbability = (decayedDecisiveEvaluations + 1) / (decayedEvaluations + 2);
+            rank = meanCost / decisiveProbability;
+        }
+    }
+}
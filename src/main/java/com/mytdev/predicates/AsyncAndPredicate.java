@@ -0,0 +1,40 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+/**
+ * An asynchronous logical AND, completing with false as soon as one of
+ * its predicates does.
+ *
+ * @author Yann D'Isanto
+ * @param <T>
+ */
+public final class AsyncAndPredicate<T> extends AsyncPredicateComposite<T> {
+
+    /**
+     * Creates a new instance of AsyncAndPredicate with the specified
+     * predicates.
+     *
+     * @param p1 predicate 1.
+     * @param p2 predicate 2.
+     * @param others more predicates.
+     */
+    public AsyncAndPredicate(AsyncPredicate<? super T> p1, AsyncPredicate<? super T> p2,
+        AsyncPredicate<? super T>... others) {
+        super(false, p1, p2, others);
+    }
+
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * The asynchronous evaluations behind {@link Predicates#async(Predicate, Executor)}
+ * and {@link Predicates#filterAsync(java.util.Collection, AsyncPredicate, int)}.
+ *
+ * @author Yann D'Isanto
+ */
+final class AsyncEvaluations {
+
+    /**
+     * A blocking predicate evaluated by an executor. Cancelling an evaluation
+     * before it starts skips it, cancelling it while it runs interrupts the
+     * evaluating thread.
+     */
+    static final class ExecutorAsyncPredicate<T> implements AsyncPredicate<T> {
+
+        private final Predicate<? super T> predicate;
+
+        private final Executor executor;
+
+        ExecutorAsyncPredicate(Predicate<? super T> predicate, Executor executor) {
+            AbstractPredicate.assertNotNull(predicate, "predicate");
+            AbstractPredicate.assertNotNull(executor, "executor");
+            this.predicate = predicate;
+            this.executor = executor;
+        }
+
+        public CompletableFuture<Boolean> evalAsync(T candidate) {
+            final Evaluation<T> evaluation = new Evaluation<T>(predicate, candidate);
+            try {
+                executor.execute(evaluation);
+            } catch (RuntimeException ex) {
+                evaluation.completeExceptionally(ex);
+            }
+            return evaluation;
+        }
+    }
+
+    /**
+     * The future of an evaluation, run by the executor.
+     */
+    private static final class Evaluation<T> extends CompletableFuture<Boolean> implements Runnable {
+
+        private final Predicate<? super T> predicate;
+
+        private final T candidate;
+
+        private Thread runner;
+
+        Evaluation(Predicate<? super T> predicate, T candidate) {
+            this.predicate = predicate;
+            this.candidate = candidate;
+        }
+
+        public void run() {
+            synchronized (this) {
+                if (isDone()) {
+                    return;
+                }
+                runner = Thread.currentThread();
+            }
+            try {
+                complete(predicate.eval(candidate));
+            } catch (Throwable ex) {
+                completeExceptionally(ex);
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                }
+                if (isCancelled()) {
+                    // clears the interruption of the cancellation, if any
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            final boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled && mayInterruptIfRunning) {
+                synchronized (this) {
+                    if (runner != null) {
+                        runner.interrupt();
+                    }
+                }
+            }
+            return cancelled;
+        }
+    }
+
+    /**
+     * Selects the elements satisfying an asynchronous predicate, with a
+     * bounded number of evaluations in flight. A completed evaluation starts
+     * the next one, the starts being serialized by a work-in-progress counter
+     * so that evaluations completing synchronously do not recurse.
+     */
+    static final class Filter<T> {
+
+        private final List<T> elements;
+
+        private final AsyncPredicate<? super T> predicate;
+
+        private final int maxInFlight;
+
+        private final boolean[] matches;
+
+        private final CompletableFuture<List<T>> result = new CompletableFuture<List<T>>();
+
+        private final Set<CompletableFuture<Boolean>> inFlight
+            = ConcurrentHashMap.<CompletableFuture<Boolean>>newKeySet();
+
+        private final AtomicInteger remaining;
+
+        private final AtomicInteger workInProgress = new AtomicInteger();
+
+        private int next;
+
+        Filter(List<T> elements, AsyncPredicate<? super T> predicate, int maxInFlight) {
+            this.elements = elements;
+            this.predicate = predicate;
+            this.maxInFlight = maxInFlight;
+            matches = new boolean[elements.size()];
+            remaining = new AtomicInteger(elements.size());
+        }
+
+        CompletableFuture<List<T>> start() {
+            result.whenComplete(new BiConsumer<List<T>, Throwable>() {
+
+                public void accept(List<T> value, Throwable error) {
+                    for (CompletableFuture<Boolean> evaluation : inFlight) {
+                        evaluation.cancel(true);
+                    }
+                }
+            });
+            if (elements.isEmpty()) {
+                result.complete(new ArrayList<T>());
+            } else {
+                startEvaluations();
+            }
+            return result;
+        }
+
+        private void startEvaluations() {
+            if (workInProgress.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                while (!result.isDone() && next < elements.size() && inFlight.size() < maxInFlight) {
+                    startEvaluation(next++);
+                }
+            } while (workInProgress.decrementAndGet() != 0);
+        }
+
+        private void startEvaluation(final int index) {
+            final CompletableFuture<Boolean> evaluation;
+            try {
+                evaluation = predicate.evalAsync(elements.get(index));
+            } catch (RuntimeException ex) {
+                result.completeExceptionally(ex);
+                return;
+            }
+            inFlight.add(evaluation);
+            evaluation.whenComplete(new BiConsumer<Boolean, Throwable>() {
+
+                public void accept(Boolean value, Throwable error) {
+                    inFlight.remove(evaluation);
+                    if (error != null) {
+                        result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause()
+                            : error);
+                        return;
+                    }
+                    if (value == null) {
+                        result.completeExceptionally(new NullPointerException("evaluation completed with null"));
+                        return;
+                    }
+                    matches[index] = value;
+                    if (remaining.decrementAndGet() == 0) {
+                        complete();
+                    } else {
+                        startEvaluations();
+                    }
+                }
+            });
+        }
+
+        private void complete() {
+            final List<T> selected = new ArrayList<T>();
+            for (int i = 0; i < matches.length; i++) {
+                if (matches[i]) {
+                    selected.add(elements.get(i));
+                }
+            }
+            result.complete(selected);
+        }
+    }
+
+    private AsyncEvaluations() {
+    }
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A predicate evaluated asynchronously, typically because it waits for
+ * I/O. Blocking predicates are adapted by
+ * {@link Predicates#async(Predicate, java.util.concurrent.Executor)} and
+ * combined by {@link AsyncAndPredicate} and {@link AsyncOrPredicate}.
+ * <p>
+ * Cancelling a returned future (with mayInterruptIfRunning set) should stop
+ * the evaluation if possible: the composites cancel the evaluations of their
+ * predicates once their result is known.
+ *
+ * @author Yann D'Isanto
+ * @param <T> the type of the objects handled by this predicate.
+ */
+public interface AsyncPredicate<T> {
+
+    /**
+     * Starts the evaluation of the specified candidate.
+     *
+     * @param candidate the candidate to evaluate.
+     * @return a future completed with true if the specified candidate matches
+     * this predicate.
+     */
+    CompletableFuture<Boolean> evalAsync(T candidate);
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * An asynchronous predicate composite, starting the evaluations of all its
+ * predicates at once and completing as soon as one of them returns the
+ * decisive result (false for an AND, true for an OR) or all of them have
+ * completed. The evaluations still running once the result is known (or once
+ * the returned future is cancelled) are cancelled, and the first failure of
+ * an evaluation (including an evaluation completed with null) fails the
+ * composite.
+ * <p>
+ * The library targets Java 8, so the composites do not pick the threads
+ * running the evaluations: the {@link java.util.concurrent.Executor} given to
+ * {@link Predicates#async(Predicate, java.util.concurrent.Executor)} is the
+ * extension point, for instance
+ * {@code Executors.newVirtualThreadPerTaskExecutor()} on Java 21 and later.
+ *
+ * @author Yann D'Isanto
+ * @param <T>
+ */
+public abstract class AsyncPredicateComposite<T> implements AsyncPredicate<T> {
+
+    /**
+     * The underlying predicates (read-only view of {@link #predicateArray}).
+     */
+    protected final Collection<AsyncPredicate<? super T>> predicates;
+
+    /**
+     * The underlying predicates, which must not be modified.
+     */
+    protected final AsyncPredicate<? super T>[] predicateArray;
+
+    private final boolean decisiveResult;
+
+    @SuppressWarnings("unchecked")
+    AsyncPredicateComposite(boolean decisiveResult, AsyncPredicate<? super T> p1, AsyncPredicate<? super T> p2,
+        AsyncPredicate<? super T>... others) {
+        AbstractPredicate.assertNotNull(p1, "p1");
+        AbstractPredicate.assertNotNull(p2, "p2");
+        final AsyncPredicate<? super T>[] array = new AsyncPredicate[others.length + 2];
+        array[0] = p1;
+        array[1] = p2;
+        System.arraycopy(others, 0, array, 2, others.length);
+        for (AsyncPredicate<? super T> predicate : array) {
+            AbstractPredicate.assertNotNull(predicate, "predicate");
+        }
+        this.decisiveResult = decisiveResult;
+        predicateArray = array;
+        predicates = Collections.unmodifiableList(Arrays.asList(array));
+    }
+
+    public CompletableFuture<Boolean> evalAsync(T candidate) {
+        final AsyncPredicate<? super T>[] array = predicateArray;
+        final CompletableFuture<Boolean> result = new CompletableFuture<Boolean>();
+        @SuppressWarnings("unchecked")
+        final CompletableFuture<Boolean>[] evaluations = new CompletableFuture[array.length];
+        final AtomicInteger pending = new AtomicInteger(array.length);
+        final BiConsumer<Boolean, Throwable> completion = new BiConsumer<Boolean, Throwable>() {
+
+            public void accept(Boolean value, Throwable error) {
+                if (error != null) {
+                    result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error);
+                } else if (value == null) {
+                    result.completeExceptionally(new NullPointerException("evaluation completed with null"));
+                } else if (value.booleanValue() == decisiveResult) {
+                    result.complete(decisiveResult);
+                } else if (pending.decrementAndGet() == 0) {
+                    result.complete(!decisiveResult);
+                }
+            }
+        };
+        for (int i = 0; i < array.length && !result.isDone(); i++) {
+            try {
+                evaluations[i] = array[i].evalAsync(candidate);
+            } catch (RuntimeException ex) {
+                result.completeExceptionally(ex);
+                break;
+            }
+            evaluations[i].whenComplete(completion);
+        }
+        result.whenComplete(new BiConsumer<Boolean, Throwable>() {
+
+            public void accept(Boolean value, Throwable error) {
+                for (CompletableFuture<Boolean> evaluation : evaluations) {
+                    if (evaluation != null) {
+                        evaluation.cancel(true);
+                    }
+                }
+            }
+        });
+        return result;
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import java.util.BitSet;
+
+/**
+ * An optional extension of {@link Predicate} evaluating a whole batch of
+ * candidates at once. Composites implement it so that each of their
+ * predicates is evaluated over the candidates for which the result is not
+ * known yet (the still selected ones for an AND, the still unselected ones for
+ * an OR), one predicate at a time.
+ * <p>
+ * {@link Predicates#evalBatch(Predicate, Object[], int, int, BitSet)}
+ * evaluates any predicate in batch, falling back to one evaluation per
+ * candidate for the predicates not implementing this interface.
+ *
+ * @author Yann D'Isanto
+ * @param <T> the type of the objects handled by this predicate.
+ */
+public interface BatchPredicate<T> extends Predicate<T> {
+
+    /**
+     * Evaluates the selected candidates of the specified range and unselects
+     * the ones which do not satisfy this predicate. Only the bits from
+     * {@code from} (inclusive) to {@code to} (exclusive) of the selection are
+     * read and modified, the bit {@code i} standing for
+     * {@code candidates[i]}.
+     *
+     * @param candidates the candidates.
+     * @param from the index of the first candidate of the batch (inclusive).
+     * @param to the index of the last candidate of the batch (exclusive).
+     * @param selection the candidates to evaluate, updated with the ones
+     * satisfying this predicate.
+     */
+    void evalBatch(T[] candidates, int from, int to, BitSet selection);
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import com.mytdev.predicates.BddPredicate.VariableOrdering;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles a predicate tree into a {@link BddPredicate}, see
+ * {@link Predicates#bdd(Predicate, VariableOrdering, int)}.
+ * <p>
+ * The And/Or/Not/True/False nodes of the tree are combined with the usual
+ * apply algorithm: the nodes are hash-consed in a unique table (so the
+ * diagram is reduced) and the results of the binary operations are cached.
+ * Every other predicate is an atom, two equal atoms being the same variable.
+ * The construction is abandoned as soon as it creates more nodes than the
+ * maximum size (the intermediate results included), then only the nodes
+ * reachable from the root are kept.
+ *
+ * @author Yann D'Isanto
+ */
+final class BddCompiler {
+
+    /**
+     * The greatest maximum number of nodes (the unique table packs the node
+     * indexes and the variable of a node into a long).
+     */
+    static final int MAX_NODES_LIMIT = 1 << 21;
+
+    private final int maxNodes;
+
+    private final int terminalVariable;
+
+    private int[] variables = new int[64];
+
+    private int[] lows = new int[64];
+
+    private int[] highs = new int[64];
+
+    private int size;
+
+    private final Map<Long, Integer> uniqueTable = new HashMap<Long, Integer>();
+
+    private final Map<Long, Integer> andCache = new HashMap<Long, Integer>();
+
+    private final Map<Long, Integer> orCache = new HashMap<Long, Integer>();
+
+    private final Map<Integer, Integer> notCache = new HashMap<Integer, Integer>();
+
+    private final Map<Predicate<?>, Integer> variableOfAtom;
+
+    private BddCompiler(Map<Predicate<?>, Integer> variableOfAtom, int maxNodes) {
+        this.variableOfAtom = variableOfAtom;
+        this.maxNodes = maxNodes;
+        terminalVariable = variableOfAtom.size();
+        // the terminal nodes come last in the variable order
+        addNode(terminalVariable, BddPredicate.FALSE, BddPredicate.FALSE);
+        addNode(terminalVariable, BddPredicate.TRUE, BddPredicate.TRUE);
+    }
+
+    /**
+     * Compiles the specified tree.
+     *
+     * @param <T>
+     * @param predicate the tree to compile.
+     * @param ordering the atoms ordering.
+     * @param maxNodes the maximum number of nodes of the diagram.
+     * @return the diagram, or the specified predicate if the diagram would
+     * exceed the maximum size.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Predicate<T> compile(Predicate<T> predicate, VariableOrdering ordering, int maxNodes) {
+        final Map<Predicate<?>, Integer> occurrences = new LinkedHashMap<Predicate<?>, Integer>();
+        collectAtoms(predicate, occurrences);
+        if (occurrences.size() >= MAX_NODES_LIMIT) {
+            return predicate;
+        }
+        final List<Predicate<?>> atoms = order(occurrences, ordering);
+        final Map<Predicate<?>, Integer> variableOfAtom = new HashMap<Predicate<?>, Integer>();
+        for (int i = 0; i < atoms.size(); i++) {
+            variableOfAtom.put(atoms.get(i), i);
+        }
+        final BddCompiler compiler = new BddCompiler(variableOfAtom, maxNodes);
+        final int root;
+        try {
+            root = compiler.build(predicate);
+        } catch (TooLargeException ex) {
+            return predicate;
+        }
+        return compiler.compact(atoms.toArray(new Predicate[atoms.size()]), root);
+    }
+
+    private static void collectAtoms(Predicate<?> predicate, Map<Predicate<?>, Integer> occurrences) {
+        if (predicate instanceof TruePredicate || predicate instanceof FalsePredicate) {
+            return;
+        }
+        if (predicate instanceof NotPredicate) {
+            collectAtoms(((NotPredicate<?>) predicate).decoratedPredicate, occurrences);
+        } else if (predicate instanceof AndPredicate || predicate instanceof OrPredicate) {
+            for (Predicate<?> operand : ((PredicateComposite<?>) predicate).predicateArray) {
+                collectAtoms(operand, occurrences);
+            }
+        } else {
+            final Integer count = occurrences.get(predicate);
+            occurrences.put(predicate, count == null ? 1 : count + 1);
+        }
+    }
+
+    private static List<Predicate<?>> order(final Map<Predicate<?>, Integer> occurrences, VariableOrdering ordering) {
+        final List<Predicate<?>> atoms = new ArrayList<Predicate<?>>(occurrences.keySet());
+        switch (ordering) {
+            case FREQUENCY:
+                // stable sort, the atoms are in declaration order
+                Collections.sort(atoms, new Comparator<Predicate<?>>() {
+
+                    public int compare(Predicate<?> p1, Predicate<?> p2) {
+                        return occurrences.get(p2) - occurrences.get(p1);
+                    }
+                });
+                break;
+            case COST:
+                Collections.sort(atoms, new Comparator<Predicate<?>>() {
+
+                    public int compare(Predicate<?> p1, Predicate<?> p2) {
+                        return Double.compare(AbstractPredicate.costOf(p1), AbstractPredicate.costOf(p2));
+                    }
+                });
+                break;
+            default:
+                break;
+        }
+        return atoms;
+    }
+
+    private int build(Predicate<?> predicate) {
+        if (predicate instanceof TruePredicate) {
+            return BddPredicate.TRUE;
+        }
+        if (predicate instanceof FalsePredicate) {
+            return BddPredicate.FALSE;
+        }
+        if (predicate instanceof NotPredicate) {
+            return not(build(((NotPredicate<?>) predicate).decoratedPredicate));
+        }
+        final boolean conjunction = predicate instanceof AndPredicate;
+        if (conjunction || predicate instanceof OrPredicate) {
+            final Predicate<?>[] operands = ((PredicateComposite<?>) predicate).predicateArray;
+            int result = build(operands[0]);
+            for (int i = 1; i < operands.length; i++) {
+                result = apply(conjunction, result, build(operands[i]));
+            }
+            return result;
+        }
+        return node(variableOfAtom.get(predicate), BddPredicate.FALSE, BddPredicate.TRUE);
+    }
+
+    /**
+     * Creates the diagram from the nodes reachable from the specified root,
+     * leaving out the intermediate results of the construction.
+     */
+    private <T> BddPredicate<T> compact(Predicate<? super T>[] atoms, int root) {
+        final int[] newIndexes = new int[size];
+        Arrays.fill(newIndexes, -1);
+        newIndexes[BddPredicate.FALSE] = BddPredicate.FALSE;
+        newIndexes[BddPredicate.TRUE] = BddPredicate.TRUE;
+        final int count = renumber(root, newIndexes, 2);
+        final int[] compactVariables = new int[count];
+        final int[] compactLows = new int[count];
+        final int[] compactHighs = new int[count];
+        for (int node = 0; node < size; node++) {
+            final int index = newIndexes[node];
+            if (index >= 0) {
+                compactVariables[index] = variables[node];
+                compactLows[index] = newIndexes[lows[node]];
+                compactHighs[index] = newIndexes[highs[node]];
+            }
+        }
+        return new BddPredicate<T>(atoms, compactVariables, compactLows, compactHighs, newIndexes[root]);
+    }
+
+    private int renumber(int node, int[] newIndexes, int next) {
+        if (newIndexes[node] >= 0) {
+            return next;
+        }
+        newIndexes[node] = next++;
+        next = renumber(lows[node], newIndexes, next);
+        return renumber(highs[node], newIndexes, next);
+    }
+
+    private int apply(boolean conjunction, int f, int g) {
+        final int absorbing = conjunction ? BddPredicate.FALSE : BddPredicate.TRUE;
+        final int identity = conjunction ? BddPredicate.TRUE : BddPredicate.FALSE;
+        if (f == absorbing || g == absorbing) {
+            return absorbing;
+        }
+        if (f == identity || f == g) {
+            return g;
+        }
+        if (g == identity) {
+            return f;
+        }
+        final Long key = f < g ? ((long) f << 32) | g : ((long) g << 32) | f;
+        final Map<Long, Integer> cache = conjunction ? andCache : orCache;
+        final Integer cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final int variable = Math.min(variables[f], variables[g]);
+        final int fLow = variables[f] == variable ? lows[f] : f;
+        final int fHigh = variables[f] == variable ? highs[f] : f;
+        final int gLow = variables[g] == variable ? lows[g] : g;
+        final int gHigh = variables[g] == variable ? highs[g] : g;
+        final int result = node(variable, apply(conjunction, fLow, gLow), apply(conjunction, fHigh, gHigh));
+        cache.put(key, result);
+        return result;
+    }
+
+    private int not(int f) {
+        if (f <= BddPredicate.TRUE) {
+            return BddPredicate.TRUE - f;
+        }
+        final Integer cached = notCache.get(f);
+        if (cached != null) {
+            return cached;
+        }
+        final int result = node(variables[f], not(lows[f]), not(highs[f]));
+        notCache.put(f, result);
+        return result;
+    }
+
+    private int node(int variable, int low, int high) {
+        if (low == high) {
+            return low;
+        }
+        final Long key = ((long) variable << 42) | ((long) low << 21) | high;
+        final Integer existing = uniqueTable.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        if (size >= maxNodes) {
+            throw new TooLargeException();
+        }
+        final int result = addNode(variable, low, high);
+        uniqueTable.put(key, result);
+        return result;
+    }
+
+    private int addNode(int variable, int low, int high) {
+        if (size == variables.length) {
+            variables = Arrays.copyOf(variables, size * 2);
+            lows = Arrays.copyOf(lows, size * 2);
+            highs = Arrays.copyOf(highs, size * 2);
+        }
+        variables[size] = variable;
+        lows[size] = low;
+        highs[size] = high;
+        return size++;
+    }
+
+    /**
+     * Thrown when the diagram exceeds its maximum size.
+     */
+    private static final class TooLargeException extends RuntimeException {
+
+        TooLargeException() {
+            super(null, null, false, false);
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A predicate evaluated as a reduced ordered binary decision diagram over
+ * opaque atoms, see {@link Predicates#bdd(Predicate)}.
+ * <p>
+ * Every internal node of the diagram tests an atom and branches to one of
+ * its two children according to the result. The atoms are tested in the same
+ * order along every path, so each of them is evaluated at most once per
+ * candidate, and only the atoms needed to decide the result are evaluated.
+ *
+ * @author Yann D'Isanto
+ * @param <T>
+ */
+public final class BddPredicate<T> extends AbstractPredicate<T> {
+
+    /**
+     * The default maximum number of nodes of a diagram.
+     */
+    public static final int DEFAULT_MAX_NODES = 10000;
+
+    /**
+     * The orderings of the atoms of a diagram. The size of a diagram (and
+     * thus the cost of its construction) heavily depends on its ordering.
+     */
+    public static enum VariableOrdering {
+
+        /**
+         * The atoms are ordered as they first appear in a depth first walk of
+         * the tree, which keeps the atoms of a same subtree close together.
+         */
+        DECLARATION,
+
+        /**
+         * The atoms appearing the most often in the tree come first, the
+         * other ones in declaration order.
+         */
+        FREQUENCY,
+
+        /**
+         * The atoms are ordered by increasing {@link CostHint#cost() cost},
+         * the ones with equal costs in declaration order, so that the
+         * expensive atoms are only evaluated when the cheap ones could not
+         * decide the result.
+         */
+        COST
+    }
+
+    static final int FALSE = 0;
+
+    static final int TRUE = 1;
+
+    private final Predicate<? super T>[] atoms;
+
+    private final int[] variables;
+
+    private final int[] lows;
+
+    private final int[] highs;
+
+    private final int root;
+
+    BddPredicate(Predicate<? super T>[] atoms, int[] variables, int[] lows, int[] highs, int root) {
+        this.atoms = atoms;
+        this.variables = variables;
+        this.lows = lows;
+        this.highs = highs;
+        this.root = root;
+    }
+
+    public boolean eval(T candidate) {
+        int node = root;
+        while (node > TRUE) {
+            node = atoms[variables[node]].eval(candidate) ? highs[node] : lows[node];
+        }
+        return node == TRUE;
+    }
+
+    /**
+     * Returns the number of nodes of the diagram, including the two terminal
+     * nodes.
+     *
+     * @return the diagram size.
+     */
+    public int nodeCount() {
+        return variables.length;
+    }
+
+    /**
+     * Returns the atoms of the diagram in their test order.
+     *
+     * @return the atoms.
+     */
+    public List<Predicate<? super T>> variableOrder() {
+        return Collections.unmodifiableList(Arrays.asList(atoms));
+    }
+
+}
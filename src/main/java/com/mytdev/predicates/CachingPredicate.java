@@ -0,0 +1,282 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A predicate decorator remembering the results of the decorated predicate
+ * per candidate, for expensive predicates evaluated over recurring
+ * candidates.
+ * <p>
+ * The cache is split into independently locked segments, each of them
+ * evicting its least recently used results once it reaches its share of the
+ * maximum size. Results can also expire a fixed time after they have been
+ * computed. In weak keys mode the candidates are compared by identity and
+ * their results are dropped once they are garbage collected; otherwise they
+ * are compared with equals and must be immutable (as far as the predicate is
+ * concerned).
+ * <p>
+ * The decorated predicate is evaluated outside of the segment locks, so it
+ * may happen to be evaluated several times for the same candidate by
+ * concurrent threads.
+ *
+ * @author Yann D'Isanto
+ * @param <T>
+ */
+public final class CachingPredicate<T> extends PredicateDecorator<T> {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private static final Object NULL_KEY = new Object();
+
+    private final Segment[] segments;
+
+    private final boolean weakKeys;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a new instance of CachingPredicate whose results never expire
+     * and with candidates compared with equals.
+     *
+     * @param decoratedPredicate the predicate whose results are cached.
+     * @param maximumSize the maximum number of cached results.
+     */
+    public CachingPredicate(Predicate<? super T> decoratedPredicate, int maximumSize) {
+        this(decoratedPredicate, maximumSize, 0, TimeUnit.NANOSECONDS, false);
+    }
+
+    /**
+     * Creates a new instance of CachingPredicate.
+     *
+     * @param decoratedPredicate the predicate whose results are cached.
+     * @param maximumSize the maximum number of cached results.
+     * @param expireAfterWrite the time after which a result expires, 0 for
+     * results that never expire.
+     * @param unit the expireAfterWrite unit.
+     * @param weakKeys true to compare the candidates by identity and not to
+     * prevent their garbage collection.
+     */
+    public CachingPredicate(Predicate<? super T> decoratedPredicate, int maximumSize,
+        long expireAfterWrite, TimeUnit unit, boolean weakKeys) {
+        super(decoratedPredicate);
+        assertNotNull(unit, "unit");
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximum size must be positive: " + maximumSize);
+        }
+        if (expireAfterWrite < 0) {
+            throw new IllegalArgumentException("expire after write is negative: " + expireAfterWrite);
+        }
+        int segmentCount = 1;
+        while (segmentCount < MAX_SEGMENTS && segmentCount * 2 <= maximumSize) {
+            segmentCount *= 2;
+        }
+        segments = new Segment[segmentCount];
+        // the maximum size is split exactly, the first segments holding the
+        // remainder
+        for (int i = 0; i < segmentCount; i++) {
+            final int segmentSize = maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0);
+            segments[i] = new Segment(segmentSize, unit.toNanos(expireAfterWrite), evictions);
+        }
+        this.weakKeys = weakKeys;
+    }
+
+    public boolean eval(T candidate) {
+        final Object referent = candidate == null ? NULL_KEY : candidate;
+        final Object key = weakKeys ? new WeakKey(referent, null) : referent;
+        final Segment segment = segmentFor(key);
+        final Boolean cached = segment.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        final boolean result = decoratedPredicate.eval(candidate);
+        segment.put(weakKeys ? new WeakKey(referent, segment.queue) : key, result);
+        return result;
+    }
+
+    /**
+     * Returns the number of evaluations answered from the cache.
+     *
+     * @return the hit count.
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of evaluations delegated to the decorated predicate.
+     *
+     * @return the miss count.
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of results evicted because of the size bound.
+     *
+     * @return the eviction count.
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the number of cached results (including the expired or garbage
+     * collected ones not purged yet).
+     *
+     * @return the cache size.
+     */
+    public int size() {
+        int result = 0;
+        for (Segment segment : segments) {
+            result += segment.size();
+        }
+        return result;
+    }
+
+    /**
+     * Discards all the cached results.
+     */
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    private Segment segmentFor(Object key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return segments[hash & (segments.length - 1)];
+    }
+
+    /**
+     * A cached result.
+     */
+    private static final class Entry {
+
+        final boolean result;
+
+        final long writeTime;
+
+        Entry(boolean result, long writeTime) {
+            this.result = result;
+            this.writeTime = writeTime;
+        }
+    }
+
+    /**
+     * An identity key weakly referencing a candidate.
+     */
+    private static final class WeakKey extends WeakReference<Object> {
+
+        private final int hash;
+
+        WeakKey(Object referent, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof WeakKey)) {
+                return false;
+            }
+            final Object referent = get();
+            return referent != null && referent == ((WeakKey) obj).get();
+        }
+    }
+
+    /**
+     * A LRU ordered part of the cache.
+     */
+    private static final class Segment {
+
+        final ReferenceQueue<Object> queue = new ReferenceQueue<Object>();
+
+        private final LinkedHashMap<Object, Entry> map;
+
+        private final long expireAfterWriteNanos;
+
+        Segment(final int maximumSize, long expireAfterWriteNanos, final LongAdder evictions) {
+            this.expireAfterWriteNanos = expireAfterWriteNanos;
+            map = new LinkedHashMap<Object, Entry>(16, 0.75f, true) {
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                    if (size() > maximumSize) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized Boolean get(Object key) {
+            purgeCollectedKeys();
+            final Entry entry = map.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (expireAfterWriteNanos > 0 && System.nanoTime() - entry.writeTime >= expireAfterWriteNanos) {
+                map.remove(key);
+                return null;
+            }
+            return entry.result;
+        }
+
+        synchronized void put(Object key, boolean result) {
+            map.put(key, new Entry(result, System.nanoTime()));
+        }
+
+        synchronized int size() {
+            purgeCollectedKeys();
+            return map.size();
+        }
+
+        synchronized void clear() {
+            map.clear();
+        }
+
+        private void purgeCollectedKeys() {
+            Object key;
+            while ((key = queue.poll()) != null) {
+                map.remove(key);
+            }
+        }
+    }
+}
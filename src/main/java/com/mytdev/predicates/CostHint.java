@@ -0,0 +1,58 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+/**
+ * An optional extension of {@link Predicate} declaring an estimation of its
+ * evaluation cost and of its selectivity. Predicates which do not implement
+ * this interface are considered as having the {@link #DEFAULT_COST} and the
+ * {@link #DEFAULT_PROBABILITY}.
+ * <p>
+ * The And/Or/Not composites implement this interface by aggregating the hints
+ * of their predicates (assuming they are independent), and
+ * {@link Predicates#sortByCost(Predicate)} uses them to statically order the
+ * predicates of the composites.
+ *
+ * @author Yann D'Isanto
+ */
+public interface CostHint {
+
+    /**
+     * The cost of a predicate without cost hint.
+     */
+    double DEFAULT_COST = 1;
+
+    /**
+     * The probability of a predicate without cost hint.
+     */
+    double DEFAULT_PROBABILITY = 0.5;
+
+    /**
+     * Returns the estimated cost of an evaluation, relative to the one of a
+     * simple field comparison which is 1.
+     *
+     * @return the non negative estimated evaluation cost.
+     */
+    double cost();
+
+    /**
+     * Returns the estimated probability that a candidate satisfies the
+     * predicate.
+     *
+     * @return a probability between 0 and 1.
+     */
+    double probability();
+}
@@ -16,12 +16,14 @@
 
 package com.mytdev.predicates;
 
+import java.util.BitSet;
+
 /**
  *
  * @author Yann D'Isanto
  * @param <T>
  */
-public final class FalsePredicate<T> extends AbstractPredicate<T> {
+public final class FalsePredicate<T> extends AbstractPredicate<T> implements CostHint, BatchPredicate<T> {
 
     private static final FalsePredicate INSTANCE = new FalsePredicate();
 
@@ -29,6 +31,18 @@ public final class FalsePredicate<T> extends AbstractPredicate<T> {
         return false;
     }
     
+    public void evalBatch(T[] candidates, int from, int to, BitSet selection) {
+        selection.clear(from, to);
+    }
+
+    public double cost() {
+        return 0;
+    }
+
+    public double probability() {
+        return 0;
+    }
+
     public static <T> FalsePredicate<T> get() {
         return INSTANCE;
     }
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import com.mytdev.predicates.Predicates.Pair;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A collection split into the elements satisfying a predicate and the other
+ * ones, kept up to date as the collection changes.
+ * <p>
+ * The source collection must only be modified through the view: an added
+ * element is evaluated once, a removed one is not evaluated at all, and an
+ * element whose state changed is re-evaluated when {@link #refresh(Object)
+ * refreshed}, so each mutation costs a single evaluation at most and O(1)
+ * amortized bookkeeping. The counts and the
+ * {@link #matching() matching}/{@link #unmatching() unmatching} views
+ * never need a full scan. {@link Listener Listeners} are notified of the
+ * elements entering and leaving the matching subset.
+ * <p>
+ * The mutations are serialized while the reads take no lock, so the view can
+ * be read concurrently with the mutations. A read reflects the completed
+ * mutations, possibly some of the mutation in progress; the views iterators
+ * are weakly consistent. The elements must not be null and their equals and
+ * hashCode methods must not depend on the state evaluated by the predicate.
+ *
+ * @author Yann D'Isanto
+ * @param <T>
+ */
+public final class FilteredView<T> {
+
+    /**
+     * A listener of the changes of the matching subset of a view. The
+     * listeners are called by the mutating thread, while the view is locked.
+     *
+     * @param <T>
+     */
+    public static interface Listener<T> {
+
+        /**
+         * Called when an element starts satisfying the predicate of the view,
+         * because it was added or refreshed.
+         *
+         * @param element the element.
+         */
+        void matchingAdded(T element);
+
+        /**
+         * Called when an element stops satisfying the predicate of the view,
+         * because it was removed or refreshed.
+         *
+         * @param element the element.
+         */
+        void matchingRemoved(T element);
+    }
+
+    private final Collection<T> source;
+
+    private final Predicate<? super T> predicate;
+
+    private final Subset matching = new Subset();
+
+    private final Subset unmatching = new Subset();
+
+    private final List<Listener<? super T>> listeners = new CopyOnWriteArrayList<Listener<? super T>>();
+
+    /**
+     * Creates a new instance of FilteredView, evaluating the elements of the
+     * source collection.
+     *
+     * @param source the source collection, to be modified through the view
+     * only.
+     * @param predicate the predicate splitting the elements.
+     */
+    public FilteredView(Collection<T> source, Predicate<? super T> predicate) {
+        AbstractPredicate.assertNotNull(source, "source");
+        AbstractPredicate.assertNotNull(predicate, "predicate");
+        this.source = source;
+        this.predicate = predicate;
+        for (T element : source) {
+            AbstractPredicate.assertNotNull(element, "element");
+            (predicate.eval(element) ? matching : unmatching).add(element, 1);
+        }
+    }
+
+    /**
+     * Adds an element to the source collection.
+     *
+     * @param element the element to add.
+     * @return true if the source collection changed.
+     */
+    public synchronized boolean add(T element) {
+        AbstractPredicate.assertNotNull(element, "element");
+        if (!source.add(element)) {
+            return false;
+        }
+        if (predicate.eval(element)) {
+            matching.add(element, 1);
+            for (Listener<? super T> listener : listeners) {
+                listener.matchingAdded(element);
+            }
+        } else {
+            unmatching.add(element, 1);
+        }
+        return true;
+    }
+
+    /**
+     * Removes an element from the source collection, without evaluating it.
+     *
+     * @param element the element to remove.
+     * @return true if the source collection changed.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized boolean remove(Object element) {
+        if (element == null || !source.remove(element)) {
+            return false;
+        }
+        if (matching.remove(element, 1) > 0) {
+            for (Listener<? super T> listener : listeners) {
+                listener.matchingRemoved((T) element);
+            }
+        } else {
+            unmatching.remove(element, 1);
+        }
+        return true;
+    }
+
+    /**
+     * Re-evaluates an element of the view whose state changed, moving all of
+     * its occurrences to the other subset if the result changed.
+     *
+     * @param element the changed element.
+     * @return true if the element moved to the other subset.
+     */
+    public synchronized boolean refresh(T element) {
+        AbstractPredicate.assertNotNull(element, "element");
+        final boolean wasMatching = matching.contains(element);
+        if (!wasMatching && !unmatching.contains(element)) {
+            return false;
+        }
+        if (predicate.eval(element) == wasMatching) {
+            return false;
+        }
+        final Subset from = wasMatching ? matching : unmatching;
+        final Subset to = wasMatching ? unmatching : matching;
+        final int occurrences = from.remove(element, Integer.MAX_VALUE);
+        to.add(element, occurrences);
+        for (int i = 0; i < occurrences; i++) {
+            for (Listener<? super T> listener : listeners) {
+                if (wasMatching) {
+                    listener.matchingRemoved(element);
+                } else {
+                    listener.matchingAdded(element);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tells whether the specified element is in the view and satisfies the
+     * predicate (as of its last evaluation).
+     *
+     * @param element the element to test.
+     * @return true if the element is in the matching subset.
+     */
+    public boolean matches(Object element) {
+        return matching.contains(element);
+    }
+
+    /**
+     * Returns the number of elements satisfying the predicate.
+     *
+     * @return the size of the matching subset.
+     */
+    public int matchingCount() {
+        return matching.size();
+    }
+
+    /**
+     * Returns the number of elements not satisfying the predicate.
+     *
+     * @return the size of the unmatching subset.
+     */
+    public int unmatchingCount() {
+        return unmatching.size();
+    }
+
+    /**
+     * Returns a read-only live view of the elements satisfying the predicate.
+     * The order of the elements is unspecified.
+     *
+     * @return the matching subset.
+     */
+    public Collection<T> matching() {
+        return matching;
+    }
+
+    /**
+     * Returns a read-only live view of the elements not satisfying the
+     * predicate. The order of the elements is unspecified.
+     *
+     * @return the unmatching subset.
+     */
+    public Collection<T> unmatching() {
+        return unmatching;
+    }
+
+    /**
+     * Returns the partition of the elements as live views.
+     *
+     * @return a pair of read-only live views: the first one of the elements
+     * satisfying the predicate and the second one of the other elements.
+     * @see Predicates#partition(Collection, Predicate)
+     */
+    public Pair<Collection<T>> partition() {
+        return new Pair<Collection<T>>(matching, unmatching);
+    }
+
+    /**
+     * Registers a listener of the changes of the matching subset.
+     *
+     * @param listener the listener to add.
+     */
+    public void addListener(Listener<? super T> listener) {
+        AbstractPredicate.assertNotNull(listener, "listener");
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener.
+     *
+     * @param listener the listener to remove.
+     */
+    public void removeListener(Listener<? super T> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * A read-only multiset of elements, counting their occurrences.
+     */
+    private final class Subset extends AbstractCollection<T> {
+
+        private final ConcurrentMap<T, Integer> occurrences = new ConcurrentHashMap<T, Integer>();
+
+        private final AtomicInteger size = new AtomicInteger();
+
+        void add(T element, int count) {
+            final Integer previous = occurrences.get(element);
+            occurrences.put(element, previous == null ? count : previous + count);
+            size.addAndGet(count);
+        }
+
+        /**
+         * Removes at most the specified number of occurrences of an element.
+         *
+         * @return the number of removed occurrences.
+         */
+        int remove(Object element, int count) {
+            final Integer previous = occurrences.get(element);
+            if (previous == null) {
+                return 0;
+            }
+            final int removed = Math.min(previous, count);
+            if (removed == previous) {
+                occurrences.remove(element);
+            } else {
+                @SuppressWarnings("unchecked")
+                final T key = (T) element;
+                occurrences.put(key, previous - removed);
+            }
+            size.addAndGet(-removed);
+            return removed;
+        }
+
+        @Override
+        public boolean contains(Object element) {
+            return element != null && occurrences.containsKey(element);
+        }
+
+        @Override
+        public int size() {
+            return size.get();
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            final Iterator<Map.Entry<T, Integer>> entries = occurrences.entrySet().iterator();
+            return new Iterator<T>() {
+
+                private T element;
+
+                private int remaining;
+
+                public boolean hasNext() {
+                    return remaining > 0 || entries.hasNext();
+                }
+
+                public T next() {
+                    if (remaining == 0) {
+                        if (!entries.hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final Map.Entry<T, Integer> entry = entries.next();
+                        element = entry.getKey();
+                        remaining = entry.getValue();
+                    }
+                    remaining--;
+                    return element;
+                }
+
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
+
+}
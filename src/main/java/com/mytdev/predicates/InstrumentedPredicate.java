@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A node of an instrumented predicate tree, recording the evaluations of the
+ * decorated predicate on behalf of its {@link PredicateInstrumentation}.
+ * <p>
+ * While the instrumentation is disabled the decorated predicate is simply
+ * evaluated. Otherwise the evaluations and the true results are counted, and
+ * one evaluation out of {@code samplingPeriod} (chosen at random) is timed.
+ *
+ * @author Yann D'Isanto
+ * @param <T>
+ * @see Predicates#instrument(String, Predicate)
+ */
+public final class InstrumentedPredicate<T> extends PredicateDecorator<T> implements CostHint {
+
+    private final PredicateInstrumentation<?> instrumentation;
+
+    final int parent;
+
+    final LongAdder evaluations = new LongAdder();
+
+    final LongAdder trues = new LongAdder();
+
+    final LongAdder sampledEvaluations = new LongAdder();
+
+    final LongAdder sampledNanos = new LongAdder();
+
+    InstrumentedPredicate(PredicateInstrumentation<?> instrumentation, int parent,
+        Predicate<? super T> decoratedPredicate) {
+        super(decoratedPredicate);
+        this.instrumentation = instrumentation;
+        this.parent = parent;
+    }
+
+    public boolean eval(T candidate) {
+        if (!instrumentation.enabled) {
+            return decoratedPredicate.eval(candidate);
+        }
+        final boolean result;
+        if (ThreadLocalRandom.current().nextInt(instrumentation.samplingPeriod) == 0) {
+            final long start = System.nanoTime();
+            result = decoratedPredicate.eval(candidate);
+            sampledNanos.add(System.nanoTime() - start);
+            sampledEvaluations.increment();
+        } else {
+            result = decoratedPredicate.eval(candidate);
+        }
+        evaluations.increment();
+        if (result) {
+            trues.increment();
+        }
+        return result;
+    }
+
+    public double cost() {
+        return costOf(decoratedPredicate);
+    }
+
+    public double probability() {
+        return probabilityOf(decoratedPredicate);
+    }
+
+    void reset() {
+        evaluations.reset();
+        trues.reset();
+        sampledEvaluations.reset();
+        sampledNanos.reset();
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterators evaluating predicates on demand, used by the lazy operations of
+ * {@link Predicates}.
+ *
+ * @author Yann D'Isanto
+ */
+final class LazyIterators {
+
+    /**
+     * An iterator looking one element ahead.
+     *
+     * @param <T> the elements type.
+     */
+    abstract static class LookaheadIterator<T> implements Iterator<T> {
+
+        private T next;
+
+        private boolean nextComputed;
+
+        private boolean exhausted;
+
+        /**
+         * Computes the next element, calling {@link #endOfData()} if there is
+         * none.
+         *
+         * @return the next element.
+         */
+        protected abstract T computeNext();
+
+        /**
+         * Signals the end of the iteration.
+         *
+         * @return null (for convenience).
+         */
+        protected final T endOfData() {
+            exhausted = true;
+            return null;
+        }
+
+        public final boolean hasNext() {
+            if (!nextComputed && !exhausted) {
+                next = computeNext();
+                nextComputed = !exhausted;
+            }
+            return nextComputed;
+        }
+
+        public final T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final T result = next;
+            next = null;
+            nextComputed = false;
+            return result;
+        }
+
+        public final void remove() {
+            throw new UnsupportedOperationException("remove");
+        }
+    }
+
+    /**
+     * Iterates over the elements satisfying a predicate.
+     *
+     * @param <T> the elements type.
+     */
+    static final class FilterIterator<T> extends LookaheadIterator<T> {
+
+        private final Iterator<T> source;
+
+        private final Predicate<T> predicate;
+
+        FilterIterator(Iterator<T> source, Predicate<T> predicate) {
+            this.source = source;
+            this.predicate = predicate;
+        }
+
+        @Override
+        protected T computeNext() {
+            while (source.hasNext()) {
+                final T item = source.next();
+                if (predicate.eval(item)) {
+                    return item;
+                }
+            }
+            return endOfData();
+        }
+    }
+
+    /**
+     * Iterates over the longest prefix of elements satisfying a predicate.
+     *
+     * @param <T> the elements type.
+     */
+    static final class TakeWhileIterator<T> extends LookaheadIterator<T> {
+
+        private final Iterator<T> source;
+
+        private final Predicate<T> predicate;
+
+        TakeWhileIterator(Iterator<T> source, Predicate<T> predicate) {
+            this.source = source;
+            this.predicate = predicate;
+        }
+
+        @Override
+        protected T computeNext() {
+            if (source.hasNext()) {
+                final T item = source.next();
+                if (predicate.eval(item)) {
+                    return item;
+                }
+            }
+            return endOfData();
+        }
+    }
+
+    /**
+     * Iterates over the elements following the longest prefix of elements
+     * satisfying a predicate.
+     *
+     * @param <T> the elements type.
+     */
+    static final class DropWhileIterator<T> extends LookaheadIterator<T> {
+
+        private final Iterator<T> source;
+
+        private final Predicate<T> predicate;
+
+        private boolean dropping = true;
+
+        DropWhileIterator(Iterator<T> source, Predicate<T> predicate) {
+            this.source = source;
+            this.predicate = predicate;
+        }
+
+        @Override
+        protected T computeNext() {
+            while (source.hasNext()) {
+                final T item = source.next();
+                if (!dropping || !predicate.eval(item)) {
+                    dropping = false;
+                    return item;
+                }
+            }
+            return endOfData();
+        }
+    }
+
+    private LazyIterators() {
+    }
+}
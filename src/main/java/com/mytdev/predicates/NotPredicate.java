@@ -15,12 +15,14 @@
  */
 package com.mytdev.predicates;
 
+import java.util.BitSet;
+
 /**
  *
  * @author Yann D'Isanto
  * @param <T>
  */
-public final class NotPredicate<T> extends PredicateDecorator<T> {
+public final class NotPredicate<T> extends PredicateDecorator<T> implements CostHint, BatchPredicate<T> {
 
     public NotPredicate(Predicate<T> predicate) {
         super(predicate);
@@ -30,4 +32,30 @@ public final class NotPredicate<T> extends PredicateDecorator<T> {
         return ! decoratedPredicate.eval(candidate);
     }
 
+    public void evalBatch(T[] candidates, int from, int to, BitSet selection) {
+        final BitSet matching = selection.get(0, to);
+        matching.clear(0, from);
+        evalBatch(decoratedPredicate, candidates, from, to, matching);
+        selection.andNot(matching);
+    }
+
+    public double cost() {
+        return costOf(decoratedPredicate);
+    }
+
+    public double probability() {
+        return 1 - probabilityOf(decoratedPredicate);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof NotPredicate
+            && decoratedPredicate.equals(((NotPredicate<?>) obj).decoratedPredicate);
+    }
+
+    @Override
+    public int hashCode() {
+        return ~decoratedPredicate.hashCode();
+    }
+
 }
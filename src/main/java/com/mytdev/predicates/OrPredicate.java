@@ -15,23 +15,91 @@
  */
 package com.mytdev.predicates;
 
+import java.util.BitSet;
+
 /**
  *
  * @author Yann D'Isanto
  * @param <T>
  */
-public final class OrPredicate<T> extends PredicateComposite<T> {
+public final class OrPredicate<T> extends PredicateComposite<T> implements CostHint, BatchPredicate<T> {
+
+    private final double cost;
+
+    private final double probability;
 
+    /**
+     * Creates a new instance of OrPredicate with the specified predicates.
+     * The predicates which are themselves OrPredicate instances are replaced
+     * by their own predicates so that the resulting composite is flat.
+     *
+     * @param p1 predicate 1.
+     * @param p2 predicate 2.
+     * @param others more predicates.
+     */
     public OrPredicate(Predicate<? super T> p1, Predicate<? super T> p2, Predicate<? super T>... others) {
-        super(p1, p2, others);
+        super(flatten(OrPredicate.class, p1, p2, others));
+        double expectedCost = 0;
+        double reachProbability = 1;
+        for (Predicate<? super T> predicate : predicateArray) {
+            expectedCost += reachProbability * costOf(predicate);
+            reachProbability *= 1 - probabilityOf(predicate);
+        }
+        cost = expectedCost;
+        probability = 1 - reachProbability;
     }
 
     public boolean eval(T candidate) {
-        for (Predicate<? super T> predicate : predicates) {
-            if (predicate.eval(candidate)) {
+        final Predicate<? super T>[] array = predicateArray;
+        for (int i = 0; i < array.length; i++) {
+            if (array[i].eval(candidate)) {
                 return true;
             }
         }
         return false;
     }
+
+    /**
+     * Evaluates each predicate over the candidates not selected yet by the
+     * previous ones.
+     *
+     * @param candidates the candidates.
+     * @param from the index of the first candidate of the batch (inclusive).
+     * @param to the index of the last candidate of the batch (exclusive).
+     * @param selection the candidates to evaluate, updated with the ones
+     * satisfying this predicate.
+     */
+    public void evalBatch(T[] candidates, int from, int to, BitSet selection) {
+        // candidates still to be tested, the selection gathers the matching ones
+        final BitSet remaining = selection.get(0, to);
+        remaining.clear(0, from);
+        selection.clear(from, to);
+        final Predicate<? super T>[] array = predicateArray;
+        for (int i = 0; i < array.length && !remaining.isEmpty(); i++) {
+            final BitSet matching = (BitSet) remaining.clone();
+            evalBatch(array[i], candidates, from, to, matching);
+            selection.or(matching);
+            remaining.andNot(matching);
+        }
+    }
+
+    /**
+     * Returns the expected cost of an evaluation: the sum of the costs of the
+     * predicates weighted by the probability to reach them.
+     *
+     * @return the expected evaluation cost.
+     */
+    public double cost() {
+        return cost;
+    }
+
+    /**
+     * Returns the probability that a candidate satisfies at least one of the
+     * predicates.
+     *
+     * @return the probability that a candidate satisfies this predicate.
+     */
+    public double probability() {
+        return probability;
+    }
 }
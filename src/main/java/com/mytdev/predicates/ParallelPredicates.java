@@ -0,0 +1,511 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import com.mytdev.predicates.Predicates.Pair;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parallel variants of some {@link Predicates} operations, obtained through
+ * {@link Predicates#parallel()} or
+ * {@link Predicates#parallel(ForkJoinPool, int)}.
+ * <p>
+ * {@link RandomAccess} lists whose size reaches the threshold are split into
+ * ranges evaluated on a fork/join pool. The other collections, and the lists
+ * below the threshold, are processed sequentially. The results are the same
+ * as the ones of the sequential operations, in the same order, as long as the
+ * predicate can safely be evaluated from several threads.
+ * <p>
+ * The short-circuiting operations (exists, forall, find and indexWhere)
+ * cooperatively stop all the tasks as soon as their result is known: every
+ * task stops scanning once a decisive element has been found before its
+ * current position (anywhere for exists and forall), so find and indexWhere
+ * still return the leftmost match.
+ *
+ * @author Yann D'Isanto
+ */
+public final class ParallelPredicates {
+
+    /**
+     * The default minimum size of the lists processed in parallel.
+     */
+    public static final int DEFAULT_THRESHOLD = 10000;
+
+    /**
+     * The minimum number of elements evaluated by a single task.
+     */
+    static final int MIN_CHUNK_SIZE = 1024;
+
+    private final ForkJoinPool pool;
+
+    private final int threshold;
+
+    ParallelPredicates(ForkJoinPool pool, int threshold) {
+        AbstractPredicate.assertNotNull(pool, "pool");
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold is negative: " + threshold);
+        }
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Evaluates every predicate on every element of the specified collection,
+     * in a single pass.
+     *
+     * @param <T>
+     * @param collection the collection to classify.
+     * @param predicates the predicates used to test elements.
+     * @return a new list holding, for each element of the collection (in
+     * iteration order), the set of the indexes of the predicates it
+     * satisfies.
+     * @see Predicates#classify(Collection, Predicate[])
+     */
+    @SafeVarargs
+    public final <T> List<BitSet> classify(Collection<T> collection, final Predicate<T>... predicates) {
+        if (!isParallelizable(collection)) {
+            return Predicates.classify(collection, predicates);
+        }
+        AbstractPredicate.assertNotNull(predicates, "predicates");
+        final List<T> list = (List<T>) collection;
+        final BitSet[] results = new BitSet[list.size()];
+        new Chunks(list.size()).forEach(new ChunkAction() {
+
+            public void run(int chunk, int from, int to) {
+                for (int i = from; i < to; i++) {
+                    results[i] = Predicates.matchMask(list.get(i), predicates);
+                }
+            }
+        });
+        return new ArrayList<BitSet>(Arrays.asList(results));
+    }
+
+    /**
+     * Counts the number of elements in the specified collection which satisfy
+     * a predicate.
+     *
+     * @param <T>
+     * @param collection the collection to count elements from.
+     * @param predicate the predicate used to test elements.
+     * @return the number of elements satisfying the specified predicate.
+     * @see Predicates#count(Collection, Predicate)
+     */
+    public <T> int count(Collection<T> collection, final Predicate<T> predicate) {
+        if (!isParallelizable(collection)) {
+            return Predicates.count(collection, predicate);
+        }
+        final List<T> list = (List<T>) collection;
+        final Chunks chunks = new Chunks(list.size());
+        final int[] counts = new int[chunks.count];
+        chunks.forEach(new ChunkAction() {
+
+            public void run(int chunk, int from, int to) {
+                int result = 0;
+                for (int i = from; i < to; i++) {
+                    if (predicate.eval(list.get(i))) {
+                        result++;
+                    }
+                }
+                counts[chunk] = result;
+            }
+        });
+        int result = 0;
+        for (int count : counts) {
+            result += count;
+        }
+        return result;
+    }
+
+    /**
+     * Counts the number of elements in the specified collection which satisfy
+     * each of the specified predicates, in a single pass.
+     *
+     * @param <T>
+     * @param collection the collection to count elements from.
+     * @param predicates the predicates used to test elements.
+     * @return the number of elements satisfying each predicate, indexed as
+     * the predicates.
+     * @see Predicates#countAll(Collection, Predicate[])
+     */
+    @SafeVarargs
+    public final <T> int[] countAll(Collection<T> collection, final Predicate<T>... predicates) {
+        if (!isParallelizable(collection)) {
+            return Predicates.countAll(collection, predicates);
+        }
+        AbstractPredicate.assertNotNull(predicates, "predicates");
+        final List<T> list = (List<T>) collection;
+        final Chunks chunks = new Chunks(list.size());
+        final int[][] counts = new int[chunks.count][];
+        chunks.forEach(new ChunkAction() {
+
+            public void run(int chunk, int from, int to) {
+                final int[] result = new int[predicates.length];
+                for (int i = from; i < to; i++) {
+                    final T item = list.get(i);
+                    for (int j = 0; j < predicates.length; j++) {
+                        if (predicates[j].eval(item)) {
+                            result[j]++;
+                        }
+                    }
+                }
+                counts[chunk] = result;
+            }
+        });
+        final int[] result = new int[predicates.length];
+        for (int[] chunkCounts : counts) {
+            for (int j = 0; j < result.length; j++) {
+                result[j] += chunkCounts[j];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Tests whether a predicate holds for some of the elements of a
+     * collection.
+     *
+     * @param <T>
+     * @param collection the collection to test.
+     * @param predicate the predicate used to test elements.
+     * @return true if the given predicate holds for some of the elements of the
+     * specified collection, false otherwise.
+     * @see Predicates#exists(Collection, Predicate)
+     */
+    public <T> boolean exists(Collection<T> collection, Predicate<T> predicate) {
+        if (!isParallelizable(collection)) {
+            return Predicates.exists(collection, predicate);
+        }
+        return firstIndex((List<T>) collection, predicate, true, false) >= 0;
+    }
+
+    /**
+     * Selects all elements of the specified collection which satisfy a
+     * predicate.
+     *
+     * @param <T>
+     * @param collection the collection to filter.
+     * @param predicate the predicate used to test elements.
+     * @return a new list consisting of all elements of the specified collection
+     * that satisfy the given predicate p. The order of the elements is
+     * preserved if applicable.
+     * @see Predicates#filter(Collection, Predicate)
+     */
+    public <T> List<T> filter(Collection<T> collection, final Predicate<T> predicate) {
+        if (!isParallelizable(collection)) {
+            return Predicates.filter(collection, predicate);
+        }
+        final List<T> list = (List<T>) collection;
+        final Chunks chunks = new Chunks(list.size());
+        @SuppressWarnings("unchecked")
+        final List<T>[] results = new List[chunks.count];
+        chunks.forEach(new ChunkAction() {
+
+            public void run(int chunk, int from, int to) {
+                final List<T> result = new ArrayList<T>();
+                for (int i = from; i < to; i++) {
+                    final T item = list.get(i);
+                    if (predicate.eval(item)) {
+                        result.add(item);
+                    }
+                }
+                results[chunk] = result;
+            }
+        });
+        return concat(results);
+    }
+
+    /**
+     * Finds the first element of the specified collection satisfying a
+     * predicate, if any.
+     *
+     * @param <T>
+     * @param collection the collection to search.
+     * @param predicate the predicate used to test elements.
+     * @return the first element that satisfies the predicate or null if none
+     * exists.
+     * @see Predicates#find(Collection, Predicate)
+     */
+    public <T> T find(Collection<T> collection, Predicate<T> predicate) {
+        if (!isParallelizable(collection)) {
+            return Predicates.find(collection, predicate);
+        }
+        final List<T> list = (List<T>) collection;
+        final int index = firstIndex(list, predicate, true, true);
+        return index >= 0 ? list.get(index) : null;
+    }
+
+    /**
+     * Tests whether a predicate holds for all elements of the specified
+     * collection.
+     *
+     * @param <T>
+     * @param collection the collection to test.
+     * @param predicate the predicate used to test elements.
+     * @return true if the given predicate holds for all elements of the
+     * specified collection, false otherwise.
+     * @see Predicates#forall(Collection, Predicate)
+     */
+    public <T> boolean forall(Collection<T> collection, Predicate<T> predicate) {
+        if (!isParallelizable(collection)) {
+            return Predicates.forall(collection, predicate);
+        }
+        return firstIndex((List<T>) collection, predicate, false, false) < 0;
+    }
+
+    /**
+     * Finds index of first element satisfying some predicate.
+     *
+     * @param <T>
+     * @param list the list to search.
+     * @param predicate the predicate used to test elements.
+     * @return the index of the first element of the specified list that
+     * satisfies the given predicate, or -1, if none exists.
+     * @see Predicates#indexWhere(List, Predicate)
+     */
+    public <T> int indexWhere(List<T> list, Predicate<T> predicate) {
+        if (!isParallelizable(list)) {
+            return Predicates.indexWhere(list, predicate);
+        }
+        return firstIndex(list, predicate, true, true);
+    }
+
+    /**
+     * Partitions the specified collection in two lists according to a
+     * predicate.
+     *
+     * @param <T>
+     * @param collection the collection to partition.
+     * @param predicate the predicate on which to partition.
+     * @return a pair of lists: the first list consists of all elements that
+     * satisfy the given predicate and the second list consists of all elements
+     * that don't. The relative order of the elements in the resulting lists is
+     * the same as in the original list.
+     * @see Predicates#partition(Collection, Predicate)
+     */
+    public <T> Pair<List<T>> partition(Collection<T> collection, final Predicate<T> predicate) {
+        if (!isParallelizable(collection)) {
+            return Predicates.partition(collection, predicate);
+        }
+        final List<T> list = (List<T>) collection;
+        final Chunks chunks = new Chunks(list.size());
+        @SuppressWarnings("unchecked")
+        final List<T>[] matchingLists = new List[chunks.count];
+        @SuppressWarnings("unchecked")
+        final List<T>[] unmatchingLists = new List[chunks.count];
+        chunks.forEach(new ChunkAction() {
+
+            public void run(int chunk, int from, int to) {
+                final List<T> matchingList = new ArrayList<T>();
+                final List<T> unmatchingList = new ArrayList<T>();
+                for (int i = from; i < to; i++) {
+                    final T item = list.get(i);
+                    if (predicate.eval(item)) {
+                        matchingList.add(item);
+                    } else {
+                        unmatchingList.add(item);
+                    }
+                }
+                matchingLists[chunk] = matchingList;
+                unmatchingLists[chunk] = unmatchingList;
+            }
+        });
+        return new Pair<List<T>>(concat(matchingLists), concat(unmatchingLists));
+    }
+
+    /**
+     * Partitions the specified collection in several lists according to the
+     * first predicate each element satisfies, in a single pass.
+     *
+     * @param <T>
+     * @param collection the collection to partition.
+     * @param predicates the predicates on which to partition.
+     * @return a new list of predicates.length + 1 lists: the list at index i
+     * consists of the elements whose first satisfied predicate is the one at
+     * index i, and the last list consists of the elements satisfying none of
+     * them. The relative order of the elements in the resulting lists is the
+     * same as in the original collection.
+     * @see Predicates#partitionN(Collection, Predicate[])
+     */
+    @SafeVarargs
+    public final <T> List<List<T>> partitionN(Collection<T> collection, final Predicate<T>... predicates) {
+        if (!isParallelizable(collection)) {
+            return Predicates.partitionN(collection, predicates);
+        }
+        AbstractPredicate.assertNotNull(predicates, "predicates");
+        final List<T> list = (List<T>) collection;
+        final Chunks chunks = new Chunks(list.size());
+        @SuppressWarnings("unchecked")
+        final List<List<T>>[] chunkBuckets = new List[chunks.count];
+        chunks.forEach(new ChunkAction() {
+
+            public void run(int chunk, int from, int to) {
+                final List<List<T>> buckets = Predicates.buckets(predicates.length + 1);
+                for (int i = from; i < to; i++) {
+                    final T item = list.get(i);
+                    buckets.get(Predicates.firstMatch(item, predicates)).add(item);
+                }
+                chunkBuckets[chunk] = buckets;
+            }
+        });
+        final List<List<T>> result = new ArrayList<List<T>>(predicates.length + 1);
+        for (int bucket = 0; bucket <= predicates.length; bucket++) {
+            @SuppressWarnings("unchecked")
+            final List<T>[] lists = new List[chunks.count];
+            for (int chunk = 0; chunk < chunks.count; chunk++) {
+                lists[chunk] = chunkBuckets[chunk].get(bucket);
+            }
+            result.add(concat(lists));
+        }
+        return result;
+    }
+
+    /**
+     * Searches in parallel an element for which the specified predicate
+     * evaluates to the specified result.
+     *
+     * @param list the list to search.
+     * @param predicate the predicate used to test elements.
+     * @param expected the searched evaluation result.
+     * @param leftmost true if the leftmost such element is wanted, false if
+     * any is fine.
+     * @return the index of the found element or -1 if none exists.
+     */
+    private <T> int firstIndex(final List<T> list, final Predicate<T> predicate,
+        final boolean expected, final boolean leftmost) {
+        final int none = list.size();
+        // the lowest index found so far, any task past it stops scanning
+        final AtomicInteger found = new AtomicInteger(none);
+        final Chunks chunks = new Chunks(list.size());
+        chunks.forEach(new ChunkAction() {
+
+            public void run(int chunk, int from, int to) {
+                for (int i = from; i < to; i++) {
+                    final int current = found.get();
+                    if (leftmost ? current < i : current != none) {
+                        return;
+                    }
+                    if (predicate.eval(list.get(i)) == expected) {
+                        int previous = found.get();
+                        while (i < previous && !found.compareAndSet(previous, i)) {
+                            previous = found.get();
+                        }
+                        return;
+                    }
+                }
+            }
+        });
+        final int result = found.get();
+        return result == none ? -1 : result;
+    }
+
+    private boolean isParallelizable(Collection<?> collection) {
+        return collection instanceof RandomAccess
+            && collection instanceof List
+            && collection.size() >= threshold
+            && collection.size() > MIN_CHUNK_SIZE;
+    }
+
+    private static <T> List<T> concat(List<T>[] lists) {
+        int size = 0;
+        for (List<T> list : lists) {
+            size += list.size();
+        }
+        final List<T> result = new ArrayList<T>(size);
+        for (List<T> list : lists) {
+            result.addAll(list);
+        }
+        return result;
+    }
+
+    /**
+     * An action run on a range of a list.
+     */
+    interface ChunkAction {
+
+        /**
+         * Processes the specified range.
+         *
+         * @param chunk the index of the chunk.
+         * @param from the first index of the range (inclusive).
+         * @param to the last index of the range (exclusive).
+         */
+        void run(int chunk, int from, int to);
+    }
+
+    /**
+     * The split of a list into consecutive ranges of (almost) equal sizes.
+     */
+    final class Chunks {
+
+        final int size;
+
+        final int chunkSize;
+
+        final int count;
+
+        Chunks(int size) {
+            this.size = size;
+            final int tasks = pool.getParallelism() * 4;
+            chunkSize = Math.max(MIN_CHUNK_SIZE, (size + tasks - 1) / tasks);
+            count = (size + chunkSize - 1) / chunkSize;
+        }
+
+        /**
+         * Runs the specified action on every chunk, in the pool.
+         *
+         * @param action the action to run.
+         */
+        void forEach(ChunkAction action) {
+            pool.invoke(new ChunkTask(action, 0, count));
+        }
+
+        private final class ChunkTask extends RecursiveAction {
+
+            private final ChunkAction action;
+
+            private final int fromChunk;
+
+            private final int toChunk;
+
+            ChunkTask(ChunkAction action, int fromChunk, int toChunk) {
+                this.action = action;
+                this.fromChunk = fromChunk;
+                this.toChunk = toChunk;
+            }
+
+            @Override
+            protected void compute() {
+                if (toChunk - fromChunk == 1) {
+                    final int from = fromChunk * chunkSize;
+                    action.run(fromChunk, from, Math.min(from + chunkSize, size));
+                } else {
+                    final int middle = (fromChunk + toChunk) >>> 1;
+                    invokeAll(
+                        new ChunkTask(action, fromChunk, middle),
+                        new ChunkTask(action, middle, toChunk));
+                }
+            }
+        }
+    }
+}
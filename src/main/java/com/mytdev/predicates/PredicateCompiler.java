@@ -0,0 +1,401 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compiles a predicate tree into a dedicated class, see
+ * {@link Predicates#compile(Predicate)}.
+ * <p>
+ * The And/Or/Not/True/False nodes of the tree are turned into the branches
+ * of a single generated eval method, with the short-circuit jumps inlined.
+ * Every other predicate is an opaque leaf, called through its own call site in
+ * the generated method: each site only ever sees a single leaf, so the JIT can
+ * inline it instead of facing the megamorphic call sites of the composites.
+ * <p>
+ * The generated class extends {@link AbstractPredicate}, holds the leaves in
+ * a final array and is defined in its own class loader so that it can be
+ * garbage collected with the compiled predicate. It uses the class file
+ * version 49, which needs no stack map frames.
+ *
+ * @author Yann D'Isanto
+ */
+final class PredicateCompiler {
+
+    /**
+     * The maximum number of leaves of a compiled tree.
+     */
+    static final int MAX_LEAVES = Short.MAX_VALUE;
+
+    /**
+     * The maximum size of the generated eval method (the JVM limit being 64KB
+     * and the jumps offsets being signed 16 bits).
+     */
+    static final int MAX_CODE_LENGTH = Short.MAX_VALUE;
+
+    private static final String PACKAGE = "com/mytdev/predicates/compiled/";
+
+    private static final AtomicLong COUNTER = new AtomicLong();
+
+    private static final int CLASS_FILE_VERSION = 49;
+
+    private static final int ACC_PUBLIC = 0x0001;
+
+    private static final int ACC_PRIVATE = 0x0002;
+
+    private static final int ACC_FINAL = 0x0010;
+
+    private static final int ACC_SUPER = 0x0020;
+
+    // constant pool indexes, see writeConstantPool
+    private static final int CP_THIS_CLASS = 2;
+
+    private static final int CP_SUPER_CLASS = 4;
+
+    private static final int CP_LEAVES_NAME = 5;
+
+    private static final int CP_LEAVES_DESCRIPTOR = 6;
+
+    private static final int CP_INIT_NAME = 7;
+
+    private static final int CP_SUPER_INIT = 10;
+
+    private static final int CP_LEAVES_FIELD = 12;
+
+    private static final int CP_EVAL_NAME = 15;
+
+    private static final int CP_EVAL_DESCRIPTOR = 16;
+
+    private static final int CP_EVAL_METHOD = 18;
+
+    private static final int CP_CODE = 19;
+
+    private static final int CP_INIT_DESCRIPTOR = 20;
+
+    private static final int CP_COUNT = 21;
+
+    // opcodes
+    private static final int ICONST_0 = 0x03;
+
+    private static final int ICONST_1 = 0x04;
+
+    private static final int BIPUSH = 0x10;
+
+    private static final int SIPUSH = 0x11;
+
+    private static final int ALOAD_0 = 0x2a;
+
+    private static final int ALOAD_1 = 0x2b;
+
+    private static final int ALOAD_2 = 0x2c;
+
+    private static final int AALOAD = 0x32;
+
+    private static final int ASTORE_2 = 0x4d;
+
+    private static final int IFEQ = 0x99;
+
+    private static final int IFNE = 0x9a;
+
+    private static final int GOTO = 0xa7;
+
+    private static final int IRETURN = 0xac;
+
+    private static final int RETURN = 0xb1;
+
+    private static final int GETFIELD = 0xb4;
+
+    private static final int PUTFIELD = 0xb5;
+
+    private static final int INVOKESPECIAL = 0xb7;
+
+    private static final int INVOKEINTERFACE = 0xb9;
+
+    /**
+     * Compiles the specified predicate.
+     *
+     * @param <T>
+     * @param predicate the predicate to compile.
+     * @return the compiled predicate, or the specified one if it has no
+     * structure to compile or if it cannot be compiled.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Predicate<T> compile(Predicate<T> predicate) {
+        if (!(predicate instanceof PredicateComposite || predicate instanceof NotPredicate)
+            || predicate instanceof AdaptivePredicateComposite) {
+            return predicate;
+        }
+        final List<Predicate<?>> leaves = new ArrayList<Predicate<?>>();
+        final Code code = new Code();
+        try {
+            code.prologue();
+            final Label whenTrue = new Label();
+            final Label whenFalse = new Label();
+            code.branches(predicate, whenTrue, whenFalse, leaves);
+            code.mark(whenTrue);
+            code.op(ICONST_1);
+            code.op(IRETURN);
+            code.mark(whenFalse);
+            code.op(ICONST_0);
+            code.op(IRETURN);
+            if (leaves.size() > MAX_LEAVES || code.length() > MAX_CODE_LENGTH) {
+                return predicate;
+            }
+            final String name = PACKAGE + "CompiledPredicate" + COUNTER.incrementAndGet();
+            final byte[] bytes = classFile(name, code.resolve());
+            final Class<?> type = new CompiledClassLoader(Predicate.class.getClassLoader())
+                .define(name.replace('/', '.'), bytes);
+            return (Predicate<T>) type.getConstructor(Predicate[].class)
+                .newInstance((Object) leaves.toArray(new Predicate[leaves.size()]));
+        } catch (ReflectiveOperationException | SecurityException ex) {
+            // e.g. class definition forbidden in this environment; a
+            // VerifyError or ClassFormatError (a generator bug) propagates
+            return predicate;
+        } catch (IOException ex) {
+            // not thrown when writing to memory
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static byte[] classFile(String name, byte[] evalCode) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(CLASS_FILE_VERSION);
+        writeConstantPool(out, name);
+        out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+        out.writeShort(CP_THIS_CLASS);
+        out.writeShort(CP_SUPER_CLASS);
+        out.writeShort(0); // interfaces (Predicate is implemented by the super class)
+        out.writeShort(1); // fields
+        out.writeShort(ACC_PRIVATE | ACC_FINAL);
+        out.writeShort(CP_LEAVES_NAME);
+        out.writeShort(CP_LEAVES_DESCRIPTOR);
+        out.writeShort(0);
+        out.writeShort(2); // methods
+        writeMethod(out, CP_INIT_NAME, CP_INIT_DESCRIPTOR, 2, 2, new byte[] {
+            ALOAD_0,
+            (byte) INVOKESPECIAL, 0, CP_SUPER_INIT,
+            ALOAD_0,
+            ALOAD_1,
+            (byte) PUTFIELD, 0, CP_LEAVES_FIELD,
+            (byte) RETURN
+        });
+        writeMethod(out, CP_EVAL_NAME, CP_EVAL_DESCRIPTOR, 2, 3, evalCode);
+        out.writeShort(0); // attributes
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void writeConstantPool(DataOutputStream out, String name) throws IOException {
+        out.writeShort(CP_COUNT);
+        utf8(out, name);                                           // 1
+        reference(out, 7, 1);                                      // 2 this class
+        utf8(out, "com/mytdev/predicates/AbstractPredicate");     // 3
+        reference(out, 7, 3);                                      // 4 super class
+        utf8(out, "leaves");                                       // 5
+        utf8(out, "[Lcom/mytdev/predicates/Predicate;");          // 6
+        utf8(out, "<init>");                                       // 7
+        utf8(out, "()V");                                          // 8
+        reference(out, 12, 7, 8);                                  // 9 <init>()V
+        reference(out, 10, 4, 9);                                  // 10 super.<init>()V
+        reference(out, 12, 5, 6);                                  // 11 leaves:Predicate[]
+        reference(out, 9, 2, 11);                                  // 12 this.leaves
+        utf8(out, "com/mytdev/predicates/Predicate");             // 13
+        reference(out, 7, 13);                                     // 14 Predicate
+        utf8(out, "eval");                                         // 15
+        utf8(out, "(Ljava/lang/Object;)Z");                        // 16
+        reference(out, 12, 15, 16);                                // 17 eval(Object)Z
+        reference(out, 11, 14, 17);                                // 18 Predicate.eval
+        utf8(out, "Code");                                         // 19
+        utf8(out, "([Lcom/mytdev/predicates/Predicate;)V");       // 20
+    }
+
+    private static void utf8(DataOutputStream out, String value) throws IOException {
+        out.writeByte(1);
+        out.writeUTF(value);
+    }
+
+    private static void reference(DataOutputStream out, int tag, int... indexes) throws IOException {
+        out.writeByte(tag);
+        for (int index : indexes) {
+            out.writeShort(index);
+        }
+    }
+
+    private static void writeMethod(DataOutputStream out, int name, int descriptor,
+        int maxStack, int maxLocals, byte[] code) throws IOException {
+        out.writeShort(ACC_PUBLIC);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);
+        out.writeShort(CP_CODE);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0); // exception table
+        out.writeShort(0); // attributes
+    }
+
+    /**
+     * A position in the generated code.
+     */
+    private static final class Label {
+
+        private int position = -1;
+
+        // the positions of the jump instructions targeting this label
+        private final List<Integer> jumps = new ArrayList<Integer>();
+    }
+
+    /**
+     * The code of the generated eval method.
+     */
+    private static final class Code {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        private final List<Label> labels = new ArrayList<Label>();
+
+        int length() {
+            return bytes.size();
+        }
+
+        void op(int opcode) {
+            bytes.write(opcode);
+        }
+
+        void prologue() {
+            // Predicate[] leaves = this.leaves;
+            op(ALOAD_0);
+            op(GETFIELD);
+            u2(CP_LEAVES_FIELD);
+            op(ASTORE_2);
+        }
+
+        /**
+         * Generates the code evaluating the specified predicate then jumping to
+         * one of the specified labels according to the result.
+         */
+        @SuppressWarnings("rawtypes")
+        void branches(Predicate<?> predicate, Label whenTrue, Label whenFalse, List<Predicate<?>> leaves) {
+            if (predicate instanceof TruePredicate) {
+                jump(GOTO, whenTrue);
+            } else if (predicate instanceof FalsePredicate) {
+                jump(GOTO, whenFalse);
+            } else if (predicate instanceof NotPredicate) {
+                branches(((NotPredicate) predicate).decoratedPredicate, whenFalse, whenTrue, leaves);
+            } else if (predicate instanceof AndPredicate || predicate instanceof OrPredicate) {
+                final boolean and = predicate instanceof AndPredicate;
+                final Predicate[] operands = ((PredicateComposite) predicate).predicateArray;
+                for (int i = 0; i < operands.length - 1; i++) {
+                    final Label next = new Label();
+                    if (and) {
+                        branches(operands[i], next, whenFalse, leaves);
+                    } else {
+                        branches(operands[i], whenTrue, next, leaves);
+                    }
+                    mark(next);
+                }
+                branches(operands[operands.length - 1], whenTrue, whenFalse, leaves);
+            } else {
+                leaf(leaves.size());
+                leaves.add(predicate);
+                jump(IFNE, whenTrue);
+                jump(GOTO, whenFalse);
+            }
+        }
+
+        private void leaf(int index) {
+            // leaves[index].eval(candidate)
+            op(ALOAD_2);
+            if (index <= 5) {
+                op(ICONST_0 + index);
+            } else if (index <= Byte.MAX_VALUE) {
+                op(BIPUSH);
+                op(index);
+            } else {
+                op(SIPUSH);
+                u2(index);
+            }
+            op(AALOAD);
+            op(ALOAD_1);
+            op(INVOKEINTERFACE);
+            u2(CP_EVAL_METHOD);
+            op(2);
+            op(0);
+        }
+
+        void mark(Label label) {
+            label.position = bytes.size();
+        }
+
+        private void jump(int opcode, Label label) {
+            if (label.jumps.isEmpty()) {
+                labels.add(label);
+            }
+            label.jumps.add(bytes.size());
+            op(opcode);
+            u2(0);
+        }
+
+        private void u2(int value) {
+            bytes.write(value >>> 8);
+            bytes.write(value);
+        }
+
+        /**
+         * Returns the code with the jump offsets filled in.
+         */
+        byte[] resolve() {
+            final byte[] code = bytes.toByteArray();
+            for (Label label : labels) {
+                for (int jump : label.jumps) {
+                    final int offset = label.position - jump;
+                    code[jump + 1] = (byte) (offset >>> 8);
+                    code[jump + 2] = (byte) offset;
+                }
+            }
+            return code;
+        }
+    }
+
+    /**
+     * The class loader of a compiled predicate class.
+     */
+    private static final class CompiledClassLoader extends ClassLoader {
+
+        CompiledClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    private PredicateCompiler() {
+    }
+}
@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -30,10 +31,22 @@ import java.util.List;
 public abstract class PredicateComposite<T> extends AbstractPredicate<T> {
 
     /**
-     * The underlying predicates.
+     * The underlying predicates (read-only view of {@link #predicateArray}).
      */
     protected final Collection<Predicate<? super T>> predicates;
 
+    /**
+     * The underlying predicates as an array, to be iterated by index in the
+     * evaluation path so that no iterator gets allocated. This array must not
+     * be modified.
+     */
+    protected final Predicate<? super T>[] predicateArray;
+
+    // lazily computed structural hash (0 until computed): racy like
+    // String.hash, which is benign since the predicates array is final and
+    // every thread computes the same value
+    private int hashCode;
+
     /**
      * Creates a new instance of PredicateComposite with the specified
      * predicates. The predicates are put in a collection with the
@@ -51,10 +64,126 @@ public abstract class PredicateComposite<T> extends AbstractPredicate<T> {
     public PredicateComposite(Predicate<? super T> p1, Predicate<? super T> p2, Predicate<? super T>... others) {
         assertNotNull(p1, "p1");
         assertNotNull(p2, "p2");
-        final List<Predicate<? super T>> list = new ArrayList<Predicate<? super T>>(Arrays.asList(others));
-        list.add(0, p2);
-        list.add(0, p1);
-        predicates = Collections.unmodifiableCollection(list);
+        @SuppressWarnings("unchecked")
+        final Predicate<? super T>[] array = new Predicate[others.length + 2];
+        array[0] = p1;
+        array[1] = p2;
+        System.arraycopy(others, 0, array, 2, others.length);
+        predicateArray = array;
+        predicates = Collections.unmodifiableList(Arrays.asList(array));
+    }
+
+    /**
+     * Creates a new instance of PredicateComposite with the specified
+     * predicates. The array is used as is and thus must not be shared.
+     *
+     * @param predicates the predicates.
+     */
+    PredicateComposite(Predicate<? super T>[] predicates) {
+        predicateArray = predicates;
+        this.predicates = Collections.unmodifiableList(Arrays.asList(predicates));
+    }
+
+    /**
+     * Gathers the specified predicates in a new array (in the same order as
+     * the {@link #PredicateComposite(Predicate, Predicate, Predicate[])}
+     * constructor), replacing each predicate which is an instance of the
+     * specified composite type by its own children. As composites are
+     * flattened at creation, the children of such a predicate never are of
+     * the same type.
+     *
+     * @param <T>
+     * @param type the composite type to flatten.
+     * @param p1 predicate 1.
+     * @param p2 predicate 2.
+     * @param others more predicates.
+     * @return a new array of predicates.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Predicate<? super T>[] flatten(Class<? extends PredicateComposite> type,
+        Predicate<? super T> p1, Predicate<? super T> p2, Predicate<? super T>... others) {
+        assertNotNull(p1, "p1");
+        assertNotNull(p2, "p2");
+        final List<Predicate<? super T>> list = new ArrayList<Predicate<? super T>>(others.length + 2);
+        addFlattened(list, type, p1);
+        addFlattened(list, type, p2);
+        for (Predicate<? super T> predicate : others) {
+            addFlattened(list, type, predicate);
+        }
+        return list.toArray(new Predicate[list.size()]);
+    }
+
+    /**
+     * Returns a copy of the specified predicates sorted by increasing ratio
+     * of their {@link CostHint#cost() cost} to their probability of being
+     * decisive, that is to return the specified result and thus short-circuit
+     * the evaluation of the following predicates. This is the optimal
+     * evaluation order for independent predicates. The sort is stable so
+     * predicates without cost hint keep their relative order.
+     *
+     * @param <T>
+     * @param predicates the predicates to sort.
+     * @param decisiveResult the result which short-circuits the evaluation
+     * (false for an AND, true for an OR).
+     * @return a new sorted array.
+     */
+    static <T> Predicate<? super T>[] sortByCost(Predicate<? super T>[] predicates, final boolean decisiveResult) {
+        final Predicate<? super T>[] result = predicates.clone();
+        Arrays.sort(result, new Comparator<Predicate<?>>() {
+
+            public int compare(Predicate<?> p1, Predicate<?> p2) {
+                return Double.compare(rank(p1), rank(p2));
+            }
+
+            private double rank(Predicate<?> predicate) {
+                final double probability = probabilityOf(predicate);
+                final double decisiveProbability = decisiveResult ? probability : 1 - probability;
+                return decisiveProbability > 0
+                    ? costOf(predicate) / decisiveProbability
+                    : Double.POSITIVE_INFINITY;
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Composites are structurally equal: they are equal if they are of the
+     * same class and their predicates are equal, in the same order.
+     *
+     * @param obj the object to compare with.
+     * @return true if the specified object is a structurally equal composite.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        final PredicateComposite<?> other = (PredicateComposite<?>) obj;
+        return hashCode() == other.hashCode() && Arrays.equals(predicateArray, other.predicateArray);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hashCode;
+        if (result == 0) {
+            result = 31 * getClass().hashCode() + Arrays.hashCode(predicateArray);
+            hashCode = result;
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void addFlattened(List<Predicate<? super T>> list,
+        Class<? extends PredicateComposite> type, Predicate<? super T> predicate) {
+        if (type.isInstance(predicate)) {
+            final Predicate<? super T>[] children = ((PredicateComposite<T>) predicate).predicateArray;
+            list.addAll(Arrays.asList(children));
+        } else {
+            list.add(predicate);
+        }
     }
 
 }
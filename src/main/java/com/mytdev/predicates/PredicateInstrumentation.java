@@ -0,0 +1,267 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+/**
+ * Records per node metrics of a predicate tree, obtained through
+ * {@link Predicates#instrument(String, Predicate)}.
+ * <p>
+ * Every node of the tree is wrapped into an {@link InstrumentedPredicate},
+ * the {@link AndPredicate}, {@link OrPredicate} and {@link NotPredicate}
+ * nodes being rebuilt over their instrumented operands (any other predicate
+ * is instrumented as a leaf). The metrics are available as snapshots and can
+ * be exported as MXBeans named
+ * {@code com.mytdev.predicates:type=PredicateMetrics,tree=<name>,node=<path>}.
+ * <p>
+ * The counters are striped so that concurrent evaluations don't contend on
+ * them. Once disabled, every node costs a single volatile read per
+ * evaluation.
+ *
+ * @author Yann D'Isanto
+ * @param <T>
+ */
+public final class PredicateInstrumentation<T> {
+
+    /**
+     * The default number of evaluations per timed evaluation.
+     */
+    public static final int DEFAULT_SAMPLING_PERIOD = 64;
+
+    private static final String DOMAIN = "com.mytdev.predicates";
+
+    private static final String ROOT_PATH = "root";
+
+    private final String name;
+
+    final int samplingPeriod;
+
+    volatile boolean enabled = true;
+
+    private final List<InstrumentedPredicate<?>> nodes = new ArrayList<InstrumentedPredicate<?>>();
+
+    private final List<String> paths = new ArrayList<String>();
+
+    private final List<String> types = new ArrayList<String>();
+
+    private final Predicate<T> predicate;
+
+    @SuppressWarnings("unchecked")
+    PredicateInstrumentation(String name, Predicate<T> predicate, int samplingPeriod) {
+        AbstractPredicate.assertNotNull(name, "name");
+        AbstractPredicate.assertNotNull(predicate, "predicate");
+        if (samplingPeriod < 1) {
+            throw new IllegalArgumentException("sampling period must be positive: " + samplingPeriod);
+        }
+        this.name = name;
+        this.samplingPeriod = samplingPeriod;
+        this.predicate = instrument(predicate, ROOT_PATH, -1);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate instrument(Predicate node, String path, int parent) {
+        final int index = nodes.size();
+        nodes.add(null);
+        paths.add(path);
+        types.add(node.getClass().getName());
+        Predicate instrumented = node;
+        if (node instanceof NotPredicate) {
+            instrumented = new NotPredicate(instrument(((NotPredicate) node).decoratedPredicate, path + "/0", index));
+        } else if (node instanceof AndPredicate || node instanceof OrPredicate) {
+            final Predicate[] operands = ((PredicateComposite) node).predicateArray;
+            final Predicate[] instrumentedOperands = new Predicate[operands.length];
+            for (int i = 0; i < operands.length; i++) {
+                instrumentedOperands[i] = instrument(operands[i], path + "/" + i, index);
+            }
+            final Predicate[] others = Arrays.copyOfRange(instrumentedOperands, 2, instrumentedOperands.length);
+            instrumented = node instanceof AndPredicate
+                ? new AndPredicate(instrumentedOperands[0], instrumentedOperands[1], others)
+                : new OrPredicate(instrumentedOperands[0], instrumentedOperands[1], others);
+        }
+        final InstrumentedPredicate result = new InstrumentedPredicate(this, parent, instrumented);
+        nodes.set(index, result);
+        return result;
+    }
+
+    /**
+     * Returns the name of the instrumented tree.
+     *
+     * @return the tree name.
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Returns the instrumented predicate, to be evaluated in place of the
+     * original one.
+     *
+     * @return the instrumented predicate.
+     */
+    public Predicate<T> predicate() {
+        return predicate;
+    }
+
+    /**
+     * Returns whether the evaluations are currently recorded.
+     *
+     * @return true if the instrumentation is enabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables the recording of the evaluations. The metrics
+     * recorded so far are kept.
+     *
+     * @param enabled true to record the evaluations.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Resets the metrics of all the nodes.
+     */
+    public void reset() {
+        for (InstrumentedPredicate<?> node : nodes) {
+            node.reset();
+        }
+    }
+
+    /**
+     * Returns the current metrics of all the nodes of the tree, in depth
+     * first order (the root node first).
+     *
+     * @return a snapshot of the metrics.
+     */
+    public List<PredicateMetrics> snapshot() {
+        final List<PredicateMetrics> snapshot = new ArrayList<PredicateMetrics>(nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            snapshot.add(metrics(i));
+        }
+        return Collections.unmodifiableList(snapshot);
+    }
+
+    private PredicateMetrics metrics(int index) {
+        final InstrumentedPredicate<?> node = nodes.get(index);
+        final long evaluations = node.evaluations.sum();
+        final long skips = node.parent < 0 ? 0 : nodes.get(node.parent).evaluations.sum() - evaluations;
+        return new PredicateMetrics(paths.get(index), types.get(index), evaluations, node.trues.sum(),
+            Math.max(0, skips), node.sampledEvaluations.sum(), node.sampledNanos.sum());
+    }
+
+    /**
+     * Registers a {@link PredicateMetricsMXBean} per node of the tree.
+     *
+     * @param server the server to register the MXBeans with.
+     * @throws JMException if a MXBean could not be registered, in which case
+     * none is left registered.
+     */
+    public void registerMBeans(MBeanServer server) throws JMException {
+        AbstractPredicate.assertNotNull(server, "server");
+        for (int i = 0; i < nodes.size(); i++) {
+            try {
+                server.registerMBean(new LiveMetrics(i), objectName(i));
+            } catch (JMException ex) {
+                for (int j = 0; j < i; j++) {
+                    server.unregisterMBean(objectName(j));
+                }
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Unregisters the MXBeans registered by
+     * {@link #registerMBeans(MBeanServer)}.
+     *
+     * @param server the server the MXBeans are registered with.
+     * @throws JMException if a MXBean could not be unregistered.
+     */
+    public void unregisterMBeans(MBeanServer server) throws JMException {
+        AbstractPredicate.assertNotNull(server, "server");
+        for (int i = 0; i < nodes.size(); i++) {
+            server.unregisterMBean(objectName(i));
+        }
+    }
+
+    /**
+     * Returns the name of the MXBean of the node at the specified path.
+     *
+     * @param path the node path.
+     * @return the MXBean name.
+     * @throws MalformedObjectNameException if the tree name or the path
+     * cannot be used in an object name.
+     */
+    public ObjectName objectName(String path) throws MalformedObjectNameException {
+        return new ObjectName(DOMAIN + ":type=PredicateMetrics,tree=" + ObjectName.quote(name) + ",node=" + path);
+    }
+
+    private ObjectName objectName(int index) throws MalformedObjectNameException {
+        return objectName(paths.get(index));
+    }
+
+    /**
+     * A MXBean reading the current metrics of a node.
+     */
+    private final class LiveMetrics implements PredicateMetricsMXBean {
+
+        private final int index;
+
+        LiveMetrics(int index) {
+            this.index = index;
+        }
+
+        public String getPath() {
+            return paths.get(index);
+        }
+
+        public String getType() {
+            return types.get(index);
+        }
+
+        public long getEvaluationCount() {
+            return metrics(index).getEvaluationCount();
+        }
+
+        public long getTrueCount() {
+            return metrics(index).getTrueCount();
+        }
+
+        public long getSkipCount() {
+            return metrics(index).getSkipCount();
+        }
+
+        public long getSampledEvaluationCount() {
+            return metrics(index).getSampledEvaluationCount();
+        }
+
+        public double getMeanLatencyNanos() {
+            return metrics(index).getMeanLatencyNanos();
+        }
+    }
+
+}
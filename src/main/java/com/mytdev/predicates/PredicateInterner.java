@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shares the structurally equal subtrees of the predicates it interns
+ * (hash-consing): interning returns, for every subtree, the first interned
+ * subtree equal to it.
+ * <p>
+ * The {@link AndPredicate}, {@link OrPredicate} and {@link NotPredicate}
+ * nodes are structurally equal if their operands are equal; the other
+ * predicates are compared with their own equals method (by identity unless
+ * they override it). In particular the other {@link PredicateDecorator}
+ * subclasses, such as {@link CachingPredicate} and the instrumented nodes,
+ * are compared by identity and are not descended into: they carry their own
+ * state (cached results, counters), which equal decorators must not share.
+ * Structurally equal trees interned by the same interner
+ * are thus the same instance, as are their equal subtrees, which the
+ * interner keeps references to until it is cleared. An interner can be used
+ * concurrently.
+ *
+ * @author Yann D'Isanto
+ * @see Predicates#shareSubexpressions(Predicate)
+ */
+public final class PredicateInterner {
+
+    private final ConcurrentMap<Predicate<?>, Predicate<?>> canonicalPredicates
+        = new ConcurrentHashMap<Predicate<?>, Predicate<?>>();
+
+    /**
+     * Returns the canonical instance of the specified predicate, whose
+     * subtrees are all canonical instances.
+     *
+     * @param <T>
+     * @param predicate the predicate to intern.
+     * @return a predicate equal to the specified one.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Predicate<T> intern(Predicate<T> predicate) {
+        AbstractPredicate.assertNotNull(predicate, "predicate");
+        return internTree(predicate);
+    }
+
+    /**
+     * Returns the number of canonical predicates held by this interner.
+     *
+     * @return the number of interned subtrees.
+     */
+    public int size() {
+        return canonicalPredicates.size();
+    }
+
+    /**
+     * Forgets all the canonical predicates.
+     */
+    public void clear() {
+        canonicalPredicates.clear();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate internTree(Predicate predicate) {
+        final Predicate known = canonicalPredicates.get(predicate);
+        if (known != null) {
+            return known;
+        }
+        Predicate rebuilt = predicate;
+        if (predicate instanceof NotPredicate) {
+            final Predicate operand = ((NotPredicate) predicate).decoratedPredicate;
+            final Predicate internedOperand = internTree(operand);
+            if (internedOperand != operand) {
+                rebuilt = new NotPredicate(internedOperand);
+            }
+        } else if (predicate instanceof AndPredicate || predicate instanceof OrPredicate) {
+            final Predicate[] operands = ((PredicateComposite) predicate).predicateArray;
+            final Predicate[] internedOperands = new Predicate[operands.length];
+            boolean changed = false;
+            for (int i = 0; i < operands.length; i++) {
+                internedOperands[i] = internTree(operands[i]);
+                changed |= internedOperands[i] != operands[i];
+            }
+            if (changed) {
+                final Predicate[] others = Arrays.copyOfRange(internedOperands, 2, internedOperands.length);
+                rebuilt = predicate instanceof AndPredicate
+                    ? new AndPredicate(internedOperands[0], internedOperands[1], others)
+                    : new OrPredicate(internedOperands[0], internedOperands[1], others);
+            }
+        }
+        final Predicate existing = canonicalPredicates.putIfAbsent(rebuilt, rebuilt);
+        return existing != null ? existing : rebuilt;
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+/**
+ * An immutable snapshot of the metrics of a node of an instrumented
+ * predicate tree.
+ *
+ * @author Yann D'Isanto
+ * @see PredicateInstrumentation#snapshot()
+ */
+public final class PredicateMetrics implements PredicateMetricsMXBean {
+
+    private final String path;
+
+    private final String type;
+
+    private final long evaluationCount;
+
+    private final long trueCount;
+
+    private final long skipCount;
+
+    private final long sampledEvaluationCount;
+
+    private final long sampledNanos;
+
+    PredicateMetrics(String path, String type, long evaluationCount, long trueCount,
+        long skipCount, long sampledEvaluationCount, long sampledNanos) {
+        this.path = path;
+        this.type = type;
+        this.evaluationCount = evaluationCount;
+        this.trueCount = trueCount;
+        this.skipCount = skipCount;
+        this.sampledEvaluationCount = sampledEvaluationCount;
+        this.sampledNanos = sampledNanos;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public long getEvaluationCount() {
+        return evaluationCount;
+    }
+
+    public long getTrueCount() {
+        return trueCount;
+    }
+
+    public long getSkipCount() {
+        return skipCount;
+    }
+
+    public long getSampledEvaluationCount() {
+        return sampledEvaluationCount;
+    }
+
+    public double getMeanLatencyNanos() {
+        return sampledEvaluationCount == 0 ? 0 : (double) sampledNanos / sampledEvaluationCount;
+    }
+
+    @Override
+    public String toString() {
+        return path + " " + type + " [evaluations=" + evaluationCount + ", trues=" + trueCount
+            + ", skips=" + skipCount + ", meanLatencyNanos=" + getMeanLatencyNanos() + "]";
+    }
+
+}
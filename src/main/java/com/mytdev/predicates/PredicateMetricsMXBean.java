@@ -0,0 +1,80 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+/**
+ * The management interface of a node of an instrumented predicate tree.
+ *
+ * @author Yann D'Isanto
+ * @see PredicateInstrumentation#registerMBeans(javax.management.MBeanServer)
+ */
+public interface PredicateMetricsMXBean {
+
+    /**
+     * Returns the path of the node in its tree: "root" for the root node,
+     * then the index of the node in its parent appended for each level (e.g.
+     * "root/1/0").
+     *
+     * @return the node path.
+     */
+    String getPath();
+
+    /**
+     * Returns the class name of the instrumented predicate.
+     *
+     * @return the predicate type.
+     */
+    String getType();
+
+    /**
+     * Returns the number of evaluations of the node.
+     *
+     * @return the evaluation count.
+     */
+    long getEvaluationCount();
+
+    /**
+     * Returns the number of evaluations of the node which returned true.
+     *
+     * @return the true count.
+     */
+    long getTrueCount();
+
+    /**
+     * Returns the number of evaluations of the parent node for which this
+     * node was not evaluated, because a previous operand already decided the
+     * result. Always 0 for the root node.
+     *
+     * @return the short-circuit skip count.
+     */
+    long getSkipCount();
+
+    /**
+     * Returns the number of timed evaluations of the node.
+     *
+     * @return the sampled evaluation count.
+     */
+    long getSampledEvaluationCount();
+
+    /**
+     * Returns the mean duration of the timed evaluations of the node,
+     * including the evaluations of its operands.
+     *
+     * @return the mean latency in nanoseconds, 0 if no evaluation was timed.
+     */
+    double getMeanLatencyNanos();
+
+}
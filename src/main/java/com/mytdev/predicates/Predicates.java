@@ -15,17 +15,114 @@
  */
 package com.mytdev.predicates;
 
+import java.nio.ByteOrder;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Utiliy class to use predicates.
+ * <p>
+ * The list operations use indexed access on {@link RandomAccess} lists and
+ * iterators on the other ones, so that they run in linear time whatever the
+ * list implementation.
  *
  * @author Yann D'Isanto
  */
 public final class Predicates {
 
+    /**
+     * Adapts a blocking predicate (typically waiting for I/O) into an
+     * asynchronous one, evaluated by the specified executor. An evaluation
+     * cancelled before it starts is skipped, one cancelled while running is
+     * interrupted.
+     *
+     * @param <T>
+     * @param predicate the blocking predicate.
+     * @param executor the executor running the evaluations, which should be
+     * able to run as many concurrent evaluations as the composites and
+     * filters using the returned predicate start.
+     * @return the asynchronous predicate.
+     */
+    public static <T> AsyncPredicate<T> async(Predicate<? super T> predicate, Executor executor) {
+        return new AsyncEvaluations.ExecutorAsyncPredicate<T>(predicate, executor);
+    }
+
+    /**
+     * Compiles the specified predicate into a reduced ordered binary decision
+     * diagram, with the atoms in {@link BddPredicate.VariableOrdering#DECLARATION
+     * declaration order} and at most {@link BddPredicate#DEFAULT_MAX_NODES}
+     * nodes.
+     *
+     * @param <T>
+     * @param predicate the predicate to compile.
+     * @return a predicate equivalent to the specified one.
+     * @see #bdd(Predicate, BddPredicate.VariableOrdering, int)
+     */
+    public static <T> Predicate<T> bdd(Predicate<T> predicate) {
+        return bdd(predicate, BddPredicate.VariableOrdering.DECLARATION, BddPredicate.DEFAULT_MAX_NODES);
+    }
+
+    /**
+     * Compiles the specified predicate into a reduced ordered binary decision
+     * diagram (a {@link BddPredicate}). The AndPredicate, OrPredicate,
+     * NotPredicate, TruePredicate and FalsePredicate nodes of the tree are
+     * combined over the other predicates (the atoms, equal atoms being the
+     * same variable), so that every atom is evaluated at most once per
+     * candidate, however many times it appears in the tree.
+     * <p>
+     * The structure of the tree is captured at compilation. A predicate whose
+     * construction creates more than maxNodes nodes (intermediate results
+     * included) is returned as is.
+     *
+     * @param <T>
+     * @param predicate the predicate to compile.
+     * @param ordering the atoms ordering.
+     * @param maxNodes the maximum number of nodes of the diagram (including
+     * the two terminal nodes).
+     * @return a predicate equivalent to the specified one.
+     */
+    public static <T> Predicate<T> bdd(Predicate<T> predicate, BddPredicate.VariableOrdering ordering, int maxNodes) {
+        AbstractPredicate.assertNotNull(predicate, "predicate");
+        AbstractPredicate.assertNotNull(ordering, "ordering");
+        if (maxNodes < 2 || maxNodes > BddCompiler.MAX_NODES_LIMIT) {
+            throw new IllegalArgumentException("maximum nodes out of [2, "
+                + BddCompiler.MAX_NODES_LIMIT + "]: " + maxNodes);
+        }
+        return BddCompiler.compile(predicate, ordering, maxNodes);
+    }
+
+    /**
+     * Evaluates every predicate on every element of the specified collection,
+     * in a single pass.
+     *
+     * @param <T>
+     * @param collection the collection to classify.
+     * @param predicates the predicates used to test elements.
+     * @return a new list holding, for each element of the collection (in
+     * iteration order), the set of the indexes of the predicates it
+     * satisfies.
+     */
+    @SafeVarargs
+    public static <T> List<BitSet> classify(Collection<T> collection, Predicate<T>... predicates) {
+        AbstractPredicate.assertNotNull(predicates, "predicates");
+        final List<BitSet> result = new ArrayList<BitSet>(collection.size());
+        for (T item : collection) {
+            result.add(matchMask(item, predicates));
+        }
+        return result;
+    }
+
     /**
      * Counts the number of elements in the specified list which satisfy a
      * predicate.
@@ -45,6 +142,54 @@ public final class Predicates {
         return result;
     }
 
+    /**
+     * Counts the number of elements in the specified collection which satisfy
+     * each of the specified predicates, in a single pass.
+     *
+     * @param <T>
+     * @param collection the collection to count elements from.
+     * @param predicates the predicates used to test elements.
+     * @return the number of elements satisfying each predicate, indexed as
+     * the predicates.
+     */
+    @SafeVarargs
+    public static <T> int[] countAll(Collection<T> collection, Predicate<T>... predicates) {
+        AbstractPredicate.assertNotNull(predicates, "predicates");
+        final int[] result = new int[predicates.length];
+        for (T item : collection) {
+            for (int i = 0; i < predicates.length; i++) {
+                if (predicates[i].eval(item)) {
+                    result[i]++;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Compiles the specified predicate into an equivalent predicate of a
+     * dedicated generated class. The AndPredicate, OrPredicate, NotPredicate,
+     * TruePredicate and FalsePredicate nodes of the tree become the branches
+     * of a single eval method, with the short-circuit jumps inlined, and every
+     * other predicate is an opaque leaf evaluated through its own call site.
+     * This spares the virtual calls between the nodes and lets the JIT
+     * inline each leaf, whereas the shared call sites of the composites become
+     * megamorphic with large trees.
+     * <p>
+     * The structure of the tree is captured at compilation. A predicate
+     * without structure to compile (an opaque leaf) or which cannot be
+     * compiled (too large, or class definition not permitted) is returned as
+     * is. Applying {@link #optimize(Predicate)} beforehand is advised.
+     *
+     * @param <T>
+     * @param predicate the predicate to compile.
+     * @return a predicate equivalent to the specified one.
+     */
+    public static <T> Predicate<T> compile(Predicate<T> predicate) {
+        AbstractPredicate.assertNotNull(predicate, "predicate");
+        return PredicateCompiler.compile(predicate);
+    }
+
     /**
      * Drops longest prefix of elements that satisfy a predicate.
      *
@@ -55,9 +200,81 @@ public final class Predicates {
      * satisfy the given predicate.
      */
     public static <T> List<T> dropWhile(List<T> list, Predicate<T> predicate) {
-        return new ArrayList<T>(list.subList(
-            prefixLength(list, predicate),
-            list.size()));
+        if (list instanceof RandomAccess) {
+            return new ArrayList<T>(list.subList(
+                prefixLength(list, predicate),
+                list.size()));
+        }
+        final List<T> result = new ArrayList<T>();
+        final Iterator<T> iterator = list.iterator();
+        while (iterator.hasNext()) {
+            final T item = iterator.next();
+            if (!predicate.eval(item)) {
+                result.add(item);
+                addRemaining(iterator, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drops longest prefix of elements that satisfy a predicate, without
+     * copying the elements.
+     *
+     * @param <T>
+     * @param list
+     * @param predicate the predicate used to test elements.
+     * @return a view (as returned by {@link List#subList(int, int)}) of the
+     * longest suffix of this list whose first element does not satisfy the
+     * given predicate.
+     */
+    public static <T> List<T> dropWhileView(List<T> list, Predicate<T> predicate) {
+        return list.subList(prefixLength(list, predicate), list.size());
+    }
+
+    /**
+     * Evaluates a predicate over a batch of candidates. The selected
+     * candidates of the specified range are evaluated and the ones which do not
+     * satisfy the predicate are unselected. {@link BatchPredicate} instances
+     * (such as the And/Or/Not composites) evaluate the whole batch one
+     * predicate at a time, the others are evaluated candidate per candidate.
+     *
+     * @param <T>
+     * @param predicate the predicate to evaluate.
+     * @param candidates the candidates.
+     * @param from the index of the first candidate of the batch (inclusive).
+     * @param to the index of the last candidate of the batch (exclusive).
+     * @param selection the candidates to evaluate (bit i standing for
+     * candidates[i]), updated with the ones satisfying the predicate. The bits
+     * out of the range are left unchanged.
+     * @throws IndexOutOfBoundsException if the range is not a valid range of
+     * the candidates array.
+     */
+    public static <T> void evalBatch(Predicate<T> predicate, T[] candidates, int from, int to, BitSet selection) {
+        AbstractPredicate.assertNotNull(predicate, "predicate");
+        AbstractPredicate.assertNotNull(selection, "selection");
+        if (from < 0 || to > candidates.length || from > to) {
+            throw new IndexOutOfBoundsException(
+                "invalid range [" + from + ", " + to + ") for " + candidates.length + " candidates");
+        }
+        AbstractPredicate.evalBatch(predicate, candidates, from, to, selection);
+    }
+
+    /**
+     * Evaluates a predicate over all the specified candidates.
+     *
+     * @param <T>
+     * @param predicate the predicate to evaluate.
+     * @param candidates the candidates.
+     * @return a new selection of the candidates (bit i standing for
+     * candidates[i]) satisfying the predicate.
+     * @see #evalBatch(Predicate, Object[], int, int, BitSet)
+     */
+    public static <T> BitSet evalBatch(Predicate<T> predicate, T[] candidates) {
+        final BitSet selection = new BitSet(candidates.length);
+        selection.set(0, candidates.length);
+        evalBatch(predicate, candidates, 0, candidates.length, selection);
+        return selection;
     }
 
     /**
@@ -98,6 +315,29 @@ public final class Predicates {
         return result;
     }
 
+    /**
+     * Selects all elements of the specified collection which satisfy an
+     * asynchronous predicate, with at most maxInFlight evaluations running at
+     * once. The first failed evaluation fails the filtering, and cancelling
+     * the returned future cancels the running evaluations.
+     *
+     * @param <T>
+     * @param collection the collection to filter.
+     * @param predicate the predicate used to test elements.
+     * @param maxInFlight the maximum number of concurrent evaluations.
+     * @return a future completed with a new list consisting of all elements of
+     * the specified collection that satisfy the given predicate, in the
+     * iteration order of the collection.
+     */
+    public static <T> CompletableFuture<List<T>> filterAsync(Collection<T> collection,
+        AsyncPredicate<? super T> predicate, int maxInFlight) {
+        AbstractPredicate.assertNotNull(predicate, "predicate");
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("max in flight must be positive: " + maxInFlight);
+        }
+        return new AsyncEvaluations.Filter<T>(new ArrayList<T>(collection), predicate, maxInFlight).start();
+    }
+
     /**
      * Finds the first element of the specified list satisfying a predicate, if
      * any.
@@ -145,14 +385,49 @@ public final class Predicates {
      * satisfies the given predicate, or -1, if none exists.
      */
     public static <T> int indexWhere(List<T> list, Predicate<T> predicate) {
-        for (int i = 0; i < list.size(); i++) {
-            if (predicate.eval(list.get(i))) {
-                return i;
+        if (list instanceof RandomAccess) {
+            for (int i = 0; i < list.size(); i++) {
+                if (predicate.eval(list.get(i))) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        final ListIterator<T> iterator = list.listIterator();
+        while (iterator.hasNext()) {
+            if (predicate.eval(iterator.next())) {
+                return iterator.previousIndex();
             }
         }
         return -1;
     }
 
+    /**
+     * Instruments every node of the specified predicate tree, timing one
+     * evaluation out of {@link PredicateInstrumentation#DEFAULT_SAMPLING_PERIOD}.
+     *
+     * @param <T>
+     * @param name the tree name, identifying its MXBeans.
+     * @param predicate the predicate to instrument.
+     * @return the instrumentation, holding the instrumented predicate.
+     */
+    public static <T> PredicateInstrumentation<T> instrument(String name, Predicate<T> predicate) {
+        return instrument(name, predicate, PredicateInstrumentation.DEFAULT_SAMPLING_PERIOD);
+    }
+
+    /**
+     * Instruments every node of the specified predicate tree.
+     *
+     * @param <T>
+     * @param name the tree name, identifying its MXBeans.
+     * @param predicate the predicate to instrument.
+     * @param samplingPeriod the number of evaluations per timed evaluation.
+     * @return the instrumentation, holding the instrumented predicate.
+     */
+    public static <T> PredicateInstrumentation<T> instrument(String name, Predicate<T> predicate, int samplingPeriod) {
+        return new PredicateInstrumentation<T>(name, predicate, samplingPeriod);
+    }
+
     /**
      * Finds index of last element satisfying some predicate.
      *
@@ -163,14 +438,145 @@ public final class Predicates {
      * satisfies the given predicate, or -1, if none exists.
      */
     public static <T> int lastIndexWhere(List<T> list, Predicate<T> predicate) {
-        for (int i = list.size() - 1; i >= 0; i--) {
-            if (predicate.eval(list.get(i))) {
-                return i;
+        if (list instanceof RandomAccess) {
+            for (int i = list.size() - 1; i >= 0; i--) {
+                if (predicate.eval(list.get(i))) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        final ListIterator<T> iterator = list.listIterator(list.size());
+        while (iterator.hasPrevious()) {
+            if (predicate.eval(iterator.previous())) {
+                return iterator.nextIndex();
             }
         }
         return -1;
     }
 
+    /**
+     * Lazily drops longest prefix of elements that satisfy a predicate. The
+     * predicate is evaluated while iterating, each time the returned iterable
+     * is iterated.
+     *
+     * @param <T>
+     * @param iterable the elements source.
+     * @param predicate the predicate used to test elements.
+     * @return an iterable over the elements of the specified iterable
+     * following its longest prefix of elements satisfying the predicate.
+     */
+    public static <T> Iterable<T> lazyDropWhile(final Iterable<T> iterable, final Predicate<T> predicate) {
+        AbstractPredicate.assertNotNull(iterable, "iterable");
+        AbstractPredicate.assertNotNull(predicate, "predicate");
+        return new Iterable<T>() {
+
+            public Iterator<T> iterator() {
+                return new LazyIterators.DropWhileIterator<T>(iterable.iterator(), predicate);
+            }
+        };
+    }
+
+    /**
+     * Lazily selects all elements of the specified iterable which satisfy a
+     * predicate. The predicate is evaluated while iterating, each time the
+     * returned iterable is iterated, so arbitrarily large sources are handled
+     * in constant memory.
+     *
+     * @param <T>
+     * @param iterable the elements source.
+     * @param predicate the predicate used to test elements.
+     * @return an iterable over the elements of the specified iterable that
+     * satisfy the given predicate, in the same order.
+     */
+    public static <T> Iterable<T> lazyFilter(final Iterable<T> iterable, final Predicate<T> predicate) {
+        AbstractPredicate.assertNotNull(iterable, "iterable");
+        AbstractPredicate.assertNotNull(predicate, "predicate");
+        return new Iterable<T>() {
+
+            public Iterator<T> iterator() {
+                return new LazyIterators.FilterIterator<T>(iterable.iterator(), predicate);
+            }
+        };
+    }
+
+    /**
+     * Lazily takes longest prefix of elements that satisfy a predicate. The
+     * predicate is evaluated while iterating, each time the returned iterable
+     * is iterated, and the iteration of the source stops at the first element
+     * which does not satisfy it.
+     *
+     * @param <T>
+     * @param iterable the elements source.
+     * @param predicate the predicate used to test elements.
+     * @return an iterable over the longest prefix of the specified iterable
+     * whose elements all satisfy the given predicate.
+     */
+    public static <T> Iterable<T> lazyTakeWhile(final Iterable<T> iterable, final Predicate<T> predicate) {
+        AbstractPredicate.assertNotNull(iterable, "iterable");
+        AbstractPredicate.assertNotNull(predicate, "predicate");
+        return new Iterable<T>() {
+
+            public Iterator<T> iterator() {
+                return new LazyIterators.TakeWhileIterator<T>(iterable.iterator(), predicate);
+            }
+        };
+    }
+
+    /**
+     * Simplifies the specified predicate. The returned predicate is equivalent
+     * to the specified one (as long as the evaluated predicates have no side
+     * effects) and results from the recursive application of the following
+     * rules:
+     * <ul>
+     * <li>constant folding: NOT true is false, NOT false is true, an AND
+     * having a false operand is false and an OR having a true operand is
+     * true;</li>
+     * <li>identity absorption: the true operands of an AND and the false
+     * operands of an OR are removed, an AND (resp. OR) with no operand left is
+     * true (resp. false) and one with a single operand left is that
+     * operand;</li>
+     * <li>double negation: NOT NOT p is p;</li>
+     * <li>idempotence: the equal operands of an AND or an OR are kept only
+     * once (the first one).</li>
+     * </ul>
+     * Only AndPredicate, OrPredicate and NotPredicate instances are rewritten,
+     * any other predicate is considered as an opaque leaf. The unchanged parts
+     * of the tree are reused.
+     *
+     * @param <T>
+     * @param predicate the predicate to simplify.
+     * @return a simplified predicate equivalent to the specified one.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Predicate<T> optimize(Predicate<T> predicate) {
+        AbstractPredicate.assertNotNull(predicate, "predicate");
+        return simplify(predicate);
+    }
+
+    /**
+     * Returns parallel variants of the operations of this class, running on
+     * the common fork/join pool for lists of at least
+     * {@link ParallelPredicates#DEFAULT_THRESHOLD} elements.
+     *
+     * @return the parallel operations.
+     */
+    public static ParallelPredicates parallel() {
+        return parallel(ForkJoinPool.commonPool(), ParallelPredicates.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Returns parallel variants of the operations of this class.
+     *
+     * @param pool the pool running the evaluations.
+     * @param threshold the minimum size of the lists processed in parallel,
+     * smaller ones are processed sequentially.
+     * @return the parallel operations.
+     */
+    public static ParallelPredicates parallel(ForkJoinPool pool, int threshold) {
+        return new ParallelPredicates(pool, threshold);
+    }
+
     /**
      * Partitions the specified collection in two lists according to a predicate.
      *
@@ -195,6 +601,30 @@ public final class Predicates {
         return new Pair<List<T>>(matchingList, unmatchingList);
     }
 
+    /**
+     * Partitions the specified collection in several lists according to the
+     * first predicate each element satisfies, in a single pass. This
+     * generalizes {@link #partition(Collection, Predicate)}.
+     *
+     * @param <T>
+     * @param collection the collection to partition.
+     * @param predicates the predicates on which to partition.
+     * @return a new list of predicates.length + 1 lists: the list at index i
+     * consists of the elements whose first satisfied predicate is the one at
+     * index i, and the last list consists of the elements satisfying none of
+     * them. The relative order of the elements in the resulting lists is the
+     * same as in the original collection.
+     */
+    @SafeVarargs
+    public static <T> List<List<T>> partitionN(Collection<T> collection, Predicate<T>... predicates) {
+        AbstractPredicate.assertNotNull(predicates, "predicates");
+        final List<List<T>> result = buckets(predicates.length + 1);
+        for (T item : collection) {
+            result.get(firstMatch(item, predicates)).add(item);
+        }
+        return result;
+    }
+
     /**
      * Returns the length of the longest prefix whose elements all satisfy some
      * predicate.
@@ -217,6 +647,95 @@ public final class Predicates {
         return result;
     }
 
+    /**
+     * Returns a scanner filtering records of the specified size in place, on
+     * the common fork/join pool, reading the fields in big endian byte order.
+     *
+     * @param recordSize the size of the records in bytes.
+     * @return the record scanner.
+     */
+    public static RecordScanner recordScanner(int recordSize) {
+        return recordScanner(recordSize, ByteOrder.BIG_ENDIAN, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns a scanner filtering records of the specified size in place.
+     *
+     * @param recordSize the size of the records in bytes.
+     * @param order the byte order of the record fields.
+     * @param pool the pool running the evaluations.
+     * @return the record scanner.
+     */
+    public static RecordScanner recordScanner(int recordSize, ByteOrder order, ForkJoinPool pool) {
+        return new RecordScanner(recordSize, order, pool);
+    }
+
+    /**
+     * Rewrites the specified predicate tree so that its structurally equal
+     * subtrees are evaluated only once per candidate within an evaluation of
+     * the returned predicate. The tree is interned with a new
+     * {@link PredicateInterner}, then each subtree referenced several times
+     * remembers its result for the candidate being evaluated by the current
+     * thread. The returned predicate is equivalent to the specified one as
+     * long as the predicates have no side effects.
+     *
+     * @param <T>
+     * @param predicate the predicate to rewrite.
+     * @return a predicate equivalent to the specified one.
+     */
+    public static <T> Predicate<T> shareSubexpressions(Predicate<T> predicate) {
+        return shareSubexpressions(predicate, new PredicateInterner());
+    }
+
+    /**
+     * Rewrites the specified predicate tree so that its structurally equal
+     * subtrees are evaluated only once per candidate, interning it with the
+     * specified interner so that its subtrees are also shared with the other
+     * trees interned by it.
+     *
+     * @param <T>
+     * @param predicate the predicate to rewrite.
+     * @param interner the interner used to share the subtrees.
+     * @return a predicate equivalent to the specified one.
+     * @see #shareSubexpressions(Predicate)
+     */
+    public static <T> Predicate<T> shareSubexpressions(Predicate<T> predicate, PredicateInterner interner) {
+        AbstractPredicate.assertNotNull(interner, "interner");
+        return SharedSubexpressions.share(interner.intern(predicate));
+    }
+
+    /**
+     * Statically orders the predicates of the AndPredicate and OrPredicate
+     * instances of the specified predicate tree according to their
+     * {@link CostHint cost hints}: the predicates with the lowest ratio of
+     * cost to probability of short-circuiting the evaluation (being false for
+     * an AND, true for an OR) come first. The ordering is stable, so
+     * predicates without hint keep their relative order. The returned
+     * predicate is equivalent to the specified one as long as the predicates
+     * have no side effects. The unchanged parts of the tree are reused.
+     *
+     * @param <T>
+     * @param predicate the predicate to reorder.
+     * @return a predicate equivalent to the specified one.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Predicate<T> sortByCost(Predicate<T> predicate) {
+        AbstractPredicate.assertNotNull(predicate, "predicate");
+        return sortTreeByCost(predicate);
+    }
+
+    /**
+     * Returns variants of the prefix operations of this class (prefixLength,
+     * takeWhile, dropWhile, span, indexWhere...) for monotone predicates over
+     * sorted lists, finding the boundary by galloping search instead of a
+     * linear scan.
+     *
+     * @return the sorted lists operations.
+     */
+    public static SortedPredicates sorted() {
+        return SortedPredicates.INSTANCE;
+    }
+
     /**
      * Splits the specified list into a prefix/suffix pair according to a
      * predicate.
@@ -228,10 +747,43 @@ public final class Predicates {
      * elements all satisfy p, and the rest of this list.
      */
     public static <T> Pair<List<T>> span(List<T> list, Predicate<T> predicate) {
+        if (list instanceof RandomAccess) {
+            final int spanIndex = prefixLength(list, predicate);
+            return new Pair<List<T>>(
+                new ArrayList<T>(list.subList(0, spanIndex)),
+                new ArrayList<T>(list.subList(spanIndex, list.size())));
+        }
+        final List<T> prefix = new ArrayList<T>();
+        final List<T> suffix = new ArrayList<T>();
+        final Iterator<T> iterator = list.iterator();
+        while (iterator.hasNext()) {
+            final T item = iterator.next();
+            if (predicate.eval(item)) {
+                prefix.add(item);
+            } else {
+                suffix.add(item);
+                addRemaining(iterator, suffix);
+            }
+        }
+        return new Pair<List<T>>(prefix, suffix);
+    }
+
+    /**
+     * Splits the specified list into a prefix/suffix pair according to a
+     * predicate, without copying the elements.
+     *
+     * @param <T>
+     * @param list the list to split.
+     * @param predicate the predicate used to test elements.
+     * @return a pair of views (as returned by {@link List#subList(int, int)})
+     * consisting of the longest prefix of this list whose elements all
+     * satisfy p, and the rest of this list.
+     */
+    public static <T> Pair<List<T>> spanView(List<T> list, Predicate<T> predicate) {
         final int spanIndex = prefixLength(list, predicate);
         return new Pair<List<T>>(
-            new ArrayList<T>(list.subList(0, spanIndex)),
-            new ArrayList<T>(list.subList(spanIndex, list.size())));
+            list.subList(0, spanIndex),
+            list.subList(spanIndex, list.size()));
     }
 
     /**
@@ -244,7 +796,180 @@ public final class Predicates {
      * given predicate.
      */
     public static <T> List<T> takeWhile(List<T> list, Predicate<T> predicate) {
-        return new ArrayList<T>(list.subList(0, prefixLength(list, predicate)));
+        if (list instanceof RandomAccess) {
+            return new ArrayList<T>(list.subList(0, prefixLength(list, predicate)));
+        }
+        final List<T> result = new ArrayList<T>();
+        for (T item : list) {
+            if (!predicate.eval(item)) {
+                break;
+            }
+            result.add(item);
+        }
+        return result;
+    }
+
+    /**
+     * Takes longest prefix of elements that satisfy a predicate, without
+     * copying the elements.
+     *
+     * @param <T>
+     * @param list
+     * @param predicate the predicate used to test elements.
+     * @return a view (as returned by {@link List#subList(int, int)}) of the
+     * longest prefix of this list whose elements all satisfy the given
+     * predicate.
+     */
+    public static <T> List<T> takeWhileView(List<T> list, Predicate<T> predicate) {
+        return list.subList(0, prefixLength(list, predicate));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate simplify(Predicate predicate) {
+        if (predicate instanceof NotPredicate) {
+            final Predicate operand = ((NotPredicate) predicate).decoratedPredicate;
+            final Predicate simplified = simplify(operand);
+            if (simplified instanceof NotPredicate) {
+                return ((NotPredicate) simplified).decoratedPredicate;
+            }
+            if (simplified instanceof TruePredicate) {
+                return FalsePredicate.get();
+            }
+            if (simplified instanceof FalsePredicate) {
+                return TruePredicate.get();
+            }
+            return simplified == operand ? predicate : new NotPredicate(simplified);
+        }
+        if (predicate instanceof AndPredicate) {
+            return simplify((PredicateComposite) predicate, AndPredicate.class,
+                TruePredicate.get(), FalsePredicate.get());
+        }
+        if (predicate instanceof OrPredicate) {
+            return simplify((PredicateComposite) predicate, OrPredicate.class,
+                FalsePredicate.get(), TruePredicate.get());
+        }
+        return predicate;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate simplify(PredicateComposite composite, Class<? extends PredicateComposite> type,
+        Predicate identity, Predicate absorbing) {
+        final Predicate[] operands = composite.predicateArray;
+        final Set<Predicate> simplifiedOperands = new LinkedHashSet<Predicate>();
+        for (Predicate operand : operands) {
+            final Predicate simplified = simplify(operand);
+            if (simplified.getClass() == absorbing.getClass()) {
+                return absorbing;
+            }
+            if (simplified.getClass() == identity.getClass()) {
+                continue;
+            }
+            if (type.isInstance(simplified)) {
+                // may happen when a double negation is removed
+                simplifiedOperands.addAll(((PredicateComposite) simplified).predicates);
+            } else {
+                simplifiedOperands.add(simplified);
+            }
+        }
+        if (simplifiedOperands.isEmpty()) {
+            return identity;
+        }
+        final Iterator<Predicate> iterator = simplifiedOperands.iterator();
+        final Predicate p1 = iterator.next();
+        if (!iterator.hasNext()) {
+            return p1;
+        }
+        if (sameElements(simplifiedOperands, operands)) {
+            return composite;
+        }
+        final Predicate p2 = iterator.next();
+        final Predicate[] others = new Predicate[simplifiedOperands.size() - 2];
+        for (int i = 0; i < others.length; i++) {
+            others[i] = iterator.next();
+        }
+        return type == AndPredicate.class
+            ? new AndPredicate(p1, p2, others)
+            : new OrPredicate(p1, p2, others);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate sortTreeByCost(Predicate predicate) {
+        if (predicate instanceof NotPredicate) {
+            final Predicate operand = ((NotPredicate) predicate).decoratedPredicate;
+            final Predicate sorted = sortTreeByCost(operand);
+            return sorted == operand ? predicate : new NotPredicate(sorted);
+        }
+        final boolean conjunction = predicate instanceof AndPredicate;
+        if (!conjunction && !(predicate instanceof OrPredicate)) {
+            return predicate;
+        }
+        final Predicate[] operands = ((PredicateComposite) predicate).predicateArray;
+        final Predicate[] sortedOperands = new Predicate[operands.length];
+        for (int i = 0; i < operands.length; i++) {
+            sortedOperands[i] = sortTreeByCost(operands[i]);
+        }
+        final Predicate[] result = PredicateComposite.sortByCost(sortedOperands, !conjunction);
+        if (sameElements(Arrays.asList(result), operands)) {
+            return predicate;
+        }
+        final Predicate[] others = Arrays.copyOfRange(result, 2, result.length);
+        return conjunction
+            ? new AndPredicate(result[0], result[1], others)
+            : new OrPredicate(result[0], result[1], others);
+    }
+
+    private static <T> void addRemaining(Iterator<T> iterator, List<T> list) {
+        while (iterator.hasNext()) {
+            list.add(iterator.next());
+        }
+    }
+
+    /**
+     * Returns the set of the indexes of the predicates satisfied by the
+     * specified element.
+     */
+    static <T> BitSet matchMask(T item, Predicate<T>[] predicates) {
+        final BitSet result = new BitSet(predicates.length);
+        for (int i = 0; i < predicates.length; i++) {
+            if (predicates[i].eval(item)) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the index of the first predicate satisfied by the specified
+     * element, or predicates.length if there is none.
+     */
+    static <T> int firstMatch(T item, Predicate<T>[] predicates) {
+        for (int i = 0; i < predicates.length; i++) {
+            if (predicates[i].eval(item)) {
+                return i;
+            }
+        }
+        return predicates.length;
+    }
+
+    static <T> List<List<T>> buckets(int count) {
+        final List<List<T>> result = new ArrayList<List<T>>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(new ArrayList<T>());
+        }
+        return result;
+    }
+
+    private static boolean sameElements(Collection<?> collection, Object[] array) {
+        if (collection.size() != array.length) {
+            return false;
+        }
+        int i = 0;
+        for (Object element : collection) {
+            if (element != array[i++]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     private Predicates() {
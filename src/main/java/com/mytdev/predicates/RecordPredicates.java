@@ -0,0 +1,169 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import com.mytdev.predicates.primitive.DoublePredicate;
+import com.mytdev.predicates.primitive.IntPredicate;
+import com.mytdev.predicates.primitive.LongPredicate;
+import java.nio.ByteBuffer;
+
+/**
+ * Utility class creating predicates over fixed-layout binary records, reading
+ * the fields in place instead of deserializing the records.
+ * <p>
+ * The candidates of these predicates are byte buffers positioned at the start
+ * of a record (as passed by {@link RecordScanner}). The fields are read with
+ * absolute gets at the specified offset from this position, in the byte order
+ * of the buffer, so the evaluation neither allocates nor moves the buffer.
+ * The predicates compose with the And/Or/Not composites like any other one.
+ *
+ * @author Yann D'Isanto
+ */
+public final class RecordPredicates {
+
+    /**
+     * Creates a predicate testing a 4 bytes int field.
+     *
+     * @param offset the offset of the field from the start of the record.
+     * @param predicate the predicate used to test the field value.
+     * @return a new predicate instance.
+     */
+    public static Predicate<ByteBuffer> intField(int offset, IntPredicate predicate) {
+        return new IntFieldPredicate(checkOffset(offset), predicate);
+    }
+
+    /**
+     * Creates a predicate testing a 8 bytes long field.
+     *
+     * @param offset the offset of the field from the start of the record.
+     * @param predicate the predicate used to test the field value.
+     * @return a new predicate instance.
+     */
+    public static Predicate<ByteBuffer> longField(int offset, LongPredicate predicate) {
+        return new LongFieldPredicate(checkOffset(offset), predicate);
+    }
+
+    /**
+     * Creates a predicate testing a 8 bytes double field.
+     *
+     * @param offset the offset of the field from the start of the record.
+     * @param predicate the predicate used to test the field value.
+     * @return a new predicate instance.
+     */
+    public static Predicate<ByteBuffer> doubleField(int offset, DoublePredicate predicate) {
+        return new DoubleFieldPredicate(checkOffset(offset), predicate);
+    }
+
+    /**
+     * Creates a predicate testing whether a byte string field equals the
+     * specified bytes. The field is as long as the specified value, typically
+     * a fixed-length code or a padded string.
+     *
+     * @param offset the offset of the field from the start of the record.
+     * @param value the expected bytes (copied).
+     * @return a new predicate instance.
+     */
+    public static Predicate<ByteBuffer> bytesField(int offset, byte[] value) {
+        AbstractPredicate.assertNotNull(value, "value");
+        return new BytesFieldPredicate(checkOffset(offset), value.clone());
+    }
+
+    private static int checkOffset(int offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset is negative: " + offset);
+        }
+        return offset;
+    }
+
+    private RecordPredicates() {
+    }
+
+    private static final class IntFieldPredicate extends AbstractPredicate<ByteBuffer> {
+
+        private final int offset;
+
+        private final IntPredicate predicate;
+
+        IntFieldPredicate(int offset, IntPredicate predicate) {
+            assertNotNull(predicate, "predicate");
+            this.offset = offset;
+            this.predicate = predicate;
+        }
+
+        public boolean eval(ByteBuffer candidate) {
+            return predicate.eval(candidate.getInt(candidate.position() + offset));
+        }
+    }
+
+    private static final class LongFieldPredicate extends AbstractPredicate<ByteBuffer> {
+
+        private final int offset;
+
+        private final LongPredicate predicate;
+
+        LongFieldPredicate(int offset, LongPredicate predicate) {
+            assertNotNull(predicate, "predicate");
+            this.offset = offset;
+            this.predicate = predicate;
+        }
+
+        public boolean eval(ByteBuffer candidate) {
+            return predicate.eval(candidate.getLong(candidate.position() + offset));
+        }
+    }
+
+    private static final class DoubleFieldPredicate extends AbstractPredicate<ByteBuffer> {
+
+        private final int offset;
+
+        private final DoublePredicate predicate;
+
+        DoubleFieldPredicate(int offset, DoublePredicate predicate) {
+            assertNotNull(predicate, "predicate");
+            this.offset = offset;
+            this.predicate = predicate;
+        }
+
+        public boolean eval(ByteBuffer candidate) {
+            return predicate.eval(candidate.getDouble(candidate.position() + offset));
+        }
+    }
+
+    private static final class BytesFieldPredicate extends AbstractPredicate<ByteBuffer> {
+
+        private final int offset;
+
+        private final byte[] value;
+
+        BytesFieldPredicate(int offset, byte[] value) {
+            this.offset = offset;
+            this.value = value;
+        }
+
+        public boolean eval(ByteBuffer candidate) {
+            final int start = candidate.position() + offset;
+            if (start + value.length > candidate.limit()) {
+                throw new IndexOutOfBoundsException();
+            }
+            for (int i = 0; i < value.length; i++) {
+                if (candidate.get(start + i) != value[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Filters fixed-size binary records in place, obtained through
+ * {@link Predicates#recordScanner(int)} or
+ * {@link Predicates#recordScanner(int, ByteOrder, ForkJoinPool)}.
+ * <p>
+ * The records are split into chunks evaluated on a fork/join pool. Each task
+ * passes to the predicate a private view of the records, positioned at the
+ * start of the current record and limited to its end, so the predicate (for
+ * instance built with {@link RecordPredicates}) reads the fields in place
+ * and cannot read past the record. Files are memory-mapped read-only, in
+ * regions of at most 2 GB holding whole records. A trailing incomplete
+ * record is ignored.
+ *
+ * @author Yann D'Isanto
+ */
+public final class RecordScanner {
+
+    private static final long[] NO_OFFSETS = new long[0];
+
+    private final int recordSize;
+
+    private final ByteOrder order;
+
+    private final ParallelPredicates parallel;
+
+    RecordScanner(int recordSize, ByteOrder order, ForkJoinPool pool) {
+        if (recordSize < 1) {
+            throw new IllegalArgumentException("record size must be positive: " + recordSize);
+        }
+        AbstractPredicate.assertNotNull(order, "order");
+        this.recordSize = recordSize;
+        this.order = order;
+        this.parallel = new ParallelPredicates(pool, 0);
+    }
+
+    /**
+     * Returns the offsets of the records of the specified file which satisfy a
+     * predicate.
+     *
+     * @param file the file of records.
+     * @param predicate the predicate used to test records.
+     * @return the offsets in the file of the matching records, in ascending
+     * order.
+     * @throws IOException if the file cannot be read or mapped.
+     */
+    public long[] scan(Path file, Predicate<? super ByteBuffer> predicate) throws IOException {
+        AbstractPredicate.assertNotNull(file, "file");
+        AbstractPredicate.assertNotNull(predicate, "predicate");
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            final long size = channel.size() - channel.size() % recordSize;
+            final long regionSize = (long) (Integer.MAX_VALUE / recordSize) * recordSize;
+            long[] result = NO_OFFSETS;
+            for (long region = 0; region < size; region += regionSize) {
+                final MappedByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY, region, Math.min(regionSize, size - region));
+                result = concat(result, scan(buffer, 0, buffer.limit(), region, predicate));
+            }
+            return result;
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Returns the offsets of the records between the position and the limit of
+     * the specified buffer which satisfy a predicate. The buffer is not
+     * modified, and its byte order is ignored in favor of the one of this
+     * scanner.
+     *
+     * @param buffer the buffer of records.
+     * @param predicate the predicate used to test records.
+     * @return the offsets from the buffer position of the matching records, in
+     * ascending order.
+     */
+    public long[] scan(ByteBuffer buffer, Predicate<? super ByteBuffer> predicate) {
+        AbstractPredicate.assertNotNull(buffer, "buffer");
+        AbstractPredicate.assertNotNull(predicate, "predicate");
+        final int from = buffer.position();
+        final int to = buffer.limit() - buffer.remaining() % recordSize;
+        return scan(buffer, from, to, -from, predicate);
+    }
+
+    private long[] scan(final ByteBuffer buffer, final int from, final int to, final long base,
+        final Predicate<? super ByteBuffer> predicate) {
+        final int records = (to - from) / recordSize;
+        if (records == 0) {
+            return NO_OFFSETS;
+        }
+        final ParallelPredicates.Chunks chunks = parallel.new Chunks(records);
+        final long[][] offsets = new long[chunks.count][];
+        chunks.forEach(new ParallelPredicates.ChunkAction() {
+
+            public void run(int chunk, int fromRecord, int toRecord) {
+                final ByteBuffer record = buffer.duplicate().order(order);
+                long[] matches = new long[16];
+                int count = 0;
+                for (int i = fromRecord; i < toRecord; i++) {
+                    final int start = from + i * recordSize;
+                    record.limit(start + recordSize);
+                    record.position(start);
+                    if (predicate.eval(record)) {
+                        if (count == matches.length) {
+                            matches = Arrays.copyOf(matches, count * 2);
+                        }
+                        matches[count++] = base + start;
+                    }
+                }
+                offsets[chunk] = Arrays.copyOf(matches, count);
+            }
+        });
+        int count = 0;
+        for (long[] chunkOffsets : offsets) {
+            count += chunkOffsets.length;
+        }
+        final long[] result = new long[count];
+        count = 0;
+        for (long[] chunkOffsets : offsets) {
+            System.arraycopy(chunkOffsets, 0, result, count, chunkOffsets.length);
+            count += chunkOffsets.length;
+        }
+        return result;
+    }
+
+    private static long[] concat(long[] first, long[] second) {
+        if (first.length == 0) {
+            return second;
+        }
+        final long[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A set of rules (predicates) matched all at once against candidates, doing
+ * the work shared by the rules only once per candidate.
+ * <p>
+ * The rules are merged into a network of nodes: the {@link AndPredicate},
+ * {@link OrPredicate}, {@link NotPredicate}, {@link TruePredicate} and
+ * {@link FalsePredicate} nodes and the atoms (any other predicate) which are
+ * equal (structurally for the composites) are the same node, shared by every
+ * rule containing it. Matching a candidate evaluates the rules with their
+ * usual short-circuiting, but each node remembers its result for the
+ * candidate, so every distinct atom and subtree is evaluated at most once
+ * per candidate, however many rules contain it.
+ * <p>
+ * Rules are added and removed incrementally: only the nodes of the rule are
+ * added or released, a node being dropped once no rule uses it anymore. A
+ * rule id identifies a rule until it is removed, after which the id can be
+ * reused. Rule sets can be matched concurrently, and modified concurrently
+ * with the matchings.
+ *
+ * @author Yann D'Isanto
+ * @param <T>
+ */
+public final class RuleSet<T> {
+
+    private static final byte ATOM = 0;
+
+    private static final byte AND = 1;
+
+    private static final byte OR = 2;
+
+    private static final byte NOT = 3;
+
+    private static final byte TRUE = 4;
+
+    private static final byte FALSE = 5;
+
+    private static final int[] NO_OPERANDS = new int[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Predicate<?>, Integer> nodeIds = new HashMap<Predicate<?>, Integer>();
+
+    private final BitSet usedNodeIds = new BitSet();
+
+    private Predicate[] nodes = new Predicate[64];
+
+    private byte[] kinds = new byte[64];
+
+    private int[][] operands = new int[64][];
+
+    private int[] referenceCounts = new int[64];
+
+    private final BitSet ruleIds = new BitSet();
+
+    private Predicate[] rules = new Predicate[64];
+
+    private int[] ruleNodes = new int[64];
+
+    private int atomCount;
+
+    private final ThreadLocal<MatchContext> contexts = new ThreadLocal<MatchContext>() {
+
+        @Override
+        protected MatchContext initialValue() {
+            return new MatchContext();
+        }
+    };
+
+    /**
+     * Adds a rule to this set.
+     *
+     * @param rule the rule to add.
+     * @return the id of the added rule.
+     */
+    public int add(Predicate<? super T> rule) {
+        AbstractPredicate.assertNotNull(rule, "rule");
+        lock.writeLock().lock();
+        try {
+            final int ruleId = ruleIds.nextClearBit(0);
+            if (ruleId == rules.length) {
+                rules = Arrays.copyOf(rules, ruleId * 2);
+                ruleNodes = Arrays.copyOf(ruleNodes, ruleId * 2);
+            }
+            ruleNodes[ruleId] = acquire(rule);
+            rules[ruleId] = rule;
+            ruleIds.set(ruleId);
+            return ruleId;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the rule with the specified id from this set.
+     *
+     * @param ruleId the id of the rule to remove.
+     * @return true if this set contained the rule.
+     */
+    public boolean remove(int ruleId) {
+        lock.writeLock().lock();
+        try {
+            if (ruleId < 0 || !ruleIds.get(ruleId)) {
+                return false;
+            }
+            release(ruleNodes[ruleId]);
+            rules[ruleId] = null;
+            ruleIds.clear(ruleId);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the rule with the specified id.
+     *
+     * @param ruleId the rule id.
+     * @return the rule, or null if this set contains no rule with this id.
+     */
+    @SuppressWarnings("unchecked")
+    public Predicate<? super T> get(int ruleId) {
+        lock.readLock().lock();
+        try {
+            return ruleId < 0 || !ruleIds.get(ruleId) ? null : rules[ruleId];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of rules in this set.
+     *
+     * @return the number of rules.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ruleIds.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of distinct nodes (atoms included) of the rules.
+     *
+     * @return the number of nodes.
+     */
+    public int nodeCount() {
+        lock.readLock().lock();
+        try {
+            return nodeIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of distinct atoms of the rules.
+     *
+     * @return the number of atoms.
+     */
+    public int atomCount() {
+        lock.readLock().lock();
+        try {
+            return atomCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the rules matching the specified candidate.
+     *
+     * @param candidate the candidate to match.
+     * @return a new bit set holding the ids of the matching rules.
+     */
+    public BitSet match(T candidate) {
+        final BitSet result = new BitSet();
+        lock.readLock().lock();
+        try {
+            final MatchContext context = contexts.get();
+            final long enclosingGeneration = context.generation;
+            context.start(nodes.length);
+            try {
+                for (int ruleId = ruleIds.nextSetBit(0); ruleId >= 0; ruleId = ruleIds.nextSetBit(ruleId + 1)) {
+                    if (eval(ruleNodes[ruleId], candidate, context)) {
+                        result.set(ruleId);
+                    }
+                }
+            } finally {
+                context.generation = enclosingGeneration;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean eval(int node, T candidate, MatchContext context) {
+        final long generation = context.generation;
+        if (context.generations[node] == generation) {
+            return context.results[node];
+        }
+        boolean result;
+        switch (kinds[node]) {
+            case ATOM:
+                result = nodes[node].eval(candidate);
+                break;
+            case AND:
+                result = true;
+                for (int operand : operands[node]) {
+                    if (!eval(operand, candidate, context)) {
+                        result = false;
+                        break;
+                    }
+                }
+                break;
+            case OR:
+                result = false;
+                for (int operand : operands[node]) {
+                    if (eval(operand, candidate, context)) {
+                        result = true;
+                        break;
+                    }
+                }
+                break;
+            case NOT:
+                result = !eval(operands[node][0], candidate, context);
+                break;
+            default:
+                result = kinds[node] == TRUE;
+                break;
+        }
+        context.generations[node] = generation;
+        context.results[node] = result;
+        return result;
+    }
+
+    private int acquire(Predicate<?> predicate) {
+        final Integer existing = nodeIds.get(predicate);
+        if (existing != null) {
+            referenceCounts[existing]++;
+            return existing;
+        }
+        final byte kind;
+        int[] nodeOperands = NO_OPERANDS;
+        if (predicate instanceof TruePredicate) {
+            kind = TRUE;
+        } else if (predicate instanceof FalsePredicate) {
+            kind = FALSE;
+        } else if (predicate instanceof NotPredicate) {
+            kind = NOT;
+            nodeOperands = new int[] {acquire(((NotPredicate<?>) predicate).decoratedPredicate)};
+        } else if (predicate instanceof AndPredicate || predicate instanceof OrPredicate) {
+            kind = predicate instanceof AndPredicate ? AND : OR;
+            final Predicate<?>[] children = ((PredicateComposite<?>) predicate).predicateArray;
+            nodeOperands = new int[children.length];
+            for (int i = 0; i < children.length; i++) {
+                nodeOperands[i] = acquire(children[i]);
+            }
+        } else {
+            kind = ATOM;
+            atomCount++;
+        }
+        final int node = usedNodeIds.nextClearBit(0);
+        if (node == nodes.length) {
+            nodes = Arrays.copyOf(nodes, node * 2);
+            kinds = Arrays.copyOf(kinds, node * 2);
+            operands = Arrays.copyOf(operands, node * 2);
+            referenceCounts = Arrays.copyOf(referenceCounts, node * 2);
+        }
+        usedNodeIds.set(node);
+        nodes[node] = predicate;
+        kinds[node] = kind;
+        operands[node] = nodeOperands;
+        referenceCounts[node] = 1;
+        nodeIds.put(predicate, node);
+        return node;
+    }
+
+    private void release(int node) {
+        if (--referenceCounts[node] > 0) {
+            return;
+        }
+        nodeIds.remove(nodes[node]);
+        if (kinds[node] == ATOM) {
+            atomCount--;
+        }
+        for (int operand : operands[node]) {
+            release(operand);
+        }
+        nodes[node] = null;
+        operands[node] = null;
+        usedNodeIds.clear(node);
+    }
+
+    /**
+     * The results of the nodes computed for the candidate being matched by a
+     * thread, valid for the current generation only so that the context never
+     * needs to be cleared.
+     */
+    private static final class MatchContext {
+
+        private long generation;
+
+        private long lastGeneration;
+
+        private long[] generations = new long[0];
+
+        private boolean[] results = new boolean[0];
+
+        void start(int nodeCapacity) {
+            if (generations.length < nodeCapacity) {
+                generations = Arrays.copyOf(generations, nodeCapacity);
+                results = Arrays.copyOf(results, nodeCapacity);
+            }
+            generation = ++lastGeneration;
+        }
+    }
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Evaluates the subtrees shared by several nodes of a predicate tree only
+ * once per candidate, used by {@link Predicates#shareSubexpressions(Predicate)}.
+ * <p>
+ * Every shared node is wrapped into a {@link SharedPredicate} owning a slot
+ * of the per thread {@link EvaluationContext} of the tree, and the root into
+ * a {@link ScopePredicate} starting a new generation of the context at each
+ * evaluation. A slot holds a result computed during the current generation
+ * only, so the context never needs to be cleared and nested evaluations of
+ * the same tree (from one of its leaves) don't see each other's results.
+ *
+ * @author Yann D'Isanto
+ */
+final class SharedSubexpressions {
+
+    /**
+     * Rewrites the specified predicate so that the subtrees it references
+     * several times are evaluated once per candidate. The predicate is
+     * returned as is if it has no shared subtree.
+     *
+     * @param <T>
+     * @param predicate an interned predicate.
+     * @return the rewritten predicate.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static <T> Predicate<T> share(Predicate<T> predicate) {
+        final Map<Predicate, Integer> references = new IdentityHashMap<Predicate, Integer>();
+        countReferences(predicate, references);
+        int sharedCount = 0;
+        for (Map.Entry<Predicate, Integer> entry : references.entrySet()) {
+            if (isShared(entry.getKey(), entry.getValue())) {
+                sharedCount++;
+            }
+        }
+        if (sharedCount == 0) {
+            return predicate;
+        }
+        final Rewriter rewriter = new Rewriter(references, sharedCount);
+        return new ScopePredicate<T>(rewriter.contexts, rewriter.rewrite(predicate));
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static void countReferences(Predicate node, Map<Predicate, Integer> references) {
+        final Integer count = references.get(node);
+        references.put(node, count == null ? 1 : count + 1);
+        if (count != null) {
+            return;
+        }
+        if (node instanceof NotPredicate) {
+            countReferences(((NotPredicate) node).decoratedPredicate, references);
+        } else if (node instanceof AndPredicate || node instanceof OrPredicate) {
+            for (Predicate operand : ((PredicateComposite<?>) node).predicateArray) {
+                countReferences(operand, references);
+            }
+        }
+    }
+
+    private static boolean isShared(Predicate<?> node, int referenceCount) {
+        return referenceCount > 1 && !(node instanceof TruePredicate) && !(node instanceof FalsePredicate);
+    }
+
+    /**
+     * Rebuilds a tree, wrapping its shared nodes.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final class Rewriter {
+
+        private final Map<Predicate, Integer> references;
+
+        private final Map<Predicate, Predicate> rewritten = new IdentityHashMap<Predicate, Predicate>();
+
+        private final ThreadLocal<EvaluationContext> contexts;
+
+        private int nextSlot;
+
+        Rewriter(Map<Predicate, Integer> references, final int slots) {
+            this.references = references;
+            contexts = new ThreadLocal<EvaluationContext>() {
+
+                @Override
+                protected EvaluationContext initialValue() {
+                    return new EvaluationContext(slots);
+                }
+            };
+        }
+
+        Predicate rewrite(Predicate node) {
+            Predicate result = rewritten.get(node);
+            if (result != null) {
+                return result;
+            }
+            result = node;
+            if (node instanceof NotPredicate) {
+                final Predicate operand = ((NotPredicate) node).decoratedPredicate;
+                final Predicate rewrittenOperand = rewrite(operand);
+                if (rewrittenOperand != operand) {
+                    result = new NotPredicate(rewrittenOperand);
+                }
+            } else if (node instanceof AndPredicate || node instanceof OrPredicate) {
+                final Predicate[] operands = ((PredicateComposite) node).predicateArray;
+                final Predicate[] rewrittenOperands = new Predicate[operands.length];
+                boolean changed = false;
+                for (int i = 0; i < operands.length; i++) {
+                    rewrittenOperands[i] = rewrite(operands[i]);
+                    changed |= rewrittenOperands[i] != operands[i];
+                }
+                if (changed) {
+                    final Predicate[] others = Arrays.copyOfRange(rewrittenOperands, 2, rewrittenOperands.length);
+                    result = node instanceof AndPredicate
+                        ? new AndPredicate(rewrittenOperands[0], rewrittenOperands[1], others)
+                        : new OrPredicate(rewrittenOperands[0], rewrittenOperands[1], others);
+                }
+            }
+            if (isShared(node, references.get(node))) {
+                result = new SharedPredicate(contexts, nextSlot++, result);
+            }
+            rewritten.put(node, result);
+            return result;
+        }
+    }
+
+    /**
+     * The results of the shared subtrees computed for the candidate being
+     * evaluated by a thread.
+     */
+    static final class EvaluationContext {
+
+        private long generation;
+
+        private long lastGeneration;
+
+        private final long[] generations;
+
+        private final boolean[] results;
+
+        EvaluationContext(int slots) {
+            generations = new long[slots];
+            results = new boolean[slots];
+        }
+    }
+
+    /**
+     * The root of a tree with shared subtrees, starting a new generation of
+     * the context of the current thread for each evaluation.
+     */
+    static final class ScopePredicate<T> extends AbstractPredicate<T> implements CostHint {
+
+        private final ThreadLocal<EvaluationContext> contexts;
+
+        private final Predicate<T> root;
+
+        ScopePredicate(ThreadLocal<EvaluationContext> contexts, Predicate<T> root) {
+            this.contexts = contexts;
+            this.root = root;
+        }
+
+        public boolean eval(T candidate) {
+            final EvaluationContext context = contexts.get();
+            final long enclosingGeneration = context.generation;
+            context.generation = ++context.lastGeneration;
+            try {
+                return root.eval(candidate);
+            } finally {
+                context.generation = enclosingGeneration;
+            }
+        }
+
+        public double cost() {
+            return costOf(root);
+        }
+
+        public double probability() {
+            return probabilityOf(root);
+        }
+    }
+
+    /**
+     * A subtree referenced several times, evaluated once per generation.
+     */
+    static final class SharedPredicate<T> extends PredicateDecorator<T> implements CostHint {
+
+        private final ThreadLocal<EvaluationContext> contexts;
+
+        private final int slot;
+
+        SharedPredicate(ThreadLocal<EvaluationContext> contexts, int slot, Predicate<? super T> decoratedPredicate) {
+            super(decoratedPredicate);
+            this.contexts = contexts;
+            this.slot = slot;
+        }
+
+        public boolean eval(T candidate) {
+            final EvaluationContext context = contexts.get();
+            final long generation = context.generation;
+            if (generation == 0) {
+                return decoratedPredicate.eval(candidate);
+            }
+            if (context.generations[slot] == generation) {
+                return context.results[slot];
+            }
+            final boolean result = decoratedPredicate.eval(candidate);
+            context.generations[slot] = generation;
+            context.results[slot] = result;
+            return result;
+        }
+
+        public double cost() {
+            return costOf(decoratedPredicate);
+        }
+
+        public double probability() {
+            return probabilityOf(decoratedPredicate);
+        }
+    }
+
+    private SharedSubexpressions() {
+    }
+
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import com.mytdev.predicates.Predicates.Pair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Variants of the {@link Predicates} prefix operations for monotone
+ * predicates, obtained through {@link Predicates#sorted()}.
+ * <p>
+ * The predicate must be monotone over the list, typically a threshold over
+ * the sort key of a sorted list: prefixLength, takeWhile, dropWhile, span
+ * (and their views) and lastIndexWhere require the predicate to hold for a
+ * prefix of the list and not for the following elements, whereas indexWhere
+ * requires it not to hold for a prefix and to hold for the following
+ * elements. The boundary is then found with a galloping search (probing the
+ * elements 0, 1, 3, 7... then searching the last interval by bisection), in
+ * O(log b) evaluations where b is the boundary index, on {@link RandomAccess}
+ * lists. The other lists are scanned as by {@link Predicates}. The results
+ * are unspecified if the predicate is not monotone over the list.
+ *
+ * @author Yann D'Isanto
+ */
+public final class SortedPredicates {
+
+    static final SortedPredicates INSTANCE = new SortedPredicates();
+
+    private SortedPredicates() {
+    }
+
+    /**
+     * Drops longest prefix of elements that satisfy a predicate.
+     *
+     * @param <T>
+     * @param list the list, the predicate holding for a prefix of it.
+     * @param predicate the predicate used to test elements.
+     * @return the longest suffix of this list whose first element does not
+     * satisfy the given predicate.
+     * @see Predicates#dropWhile(List, Predicate)
+     */
+    public <T> List<T> dropWhile(List<T> list, Predicate<T> predicate) {
+        return new ArrayList<T>(dropWhileView(list, predicate));
+    }
+
+    /**
+     * Drops longest prefix of elements that satisfy a predicate, without
+     * copying the elements.
+     *
+     * @param <T>
+     * @param list the list, the predicate holding for a prefix of it.
+     * @param predicate the predicate used to test elements.
+     * @return a view (as returned by {@link List#subList(int, int)}) of the
+     * longest suffix of this list whose first element does not satisfy the
+     * given predicate.
+     * @see Predicates#dropWhileView(List, Predicate)
+     */
+    public <T> List<T> dropWhileView(List<T> list, Predicate<T> predicate) {
+        return list.subList(prefixLength(list, predicate), list.size());
+    }
+
+    /**
+     * Finds index of first element satisfying some predicate.
+     *
+     * @param <T>
+     * @param list the list, the predicate not holding for a prefix of it and
+     * holding for the following elements.
+     * @param predicate the predicate used to test elements.
+     * @return the index of the first element of the specified list that
+     * satisfies the given predicate, or -1, if none exists.
+     * @see Predicates#indexWhere(List, Predicate)
+     */
+    public <T> int indexWhere(List<T> list, Predicate<T> predicate) {
+        if (!(list instanceof RandomAccess)) {
+            return Predicates.indexWhere(list, predicate);
+        }
+        final int result = boundary(list, predicate, false);
+        return result == list.size() ? -1 : result;
+    }
+
+    /**
+     * Finds index of last element satisfying some predicate.
+     *
+     * @param <T>
+     * @param list the list, the predicate holding for a prefix of it.
+     * @param predicate the predicate used to test elements.
+     * @return the index of the last element of the specified list that
+     * satisfies the given predicate, or -1, if none exists.
+     * @see Predicates#lastIndexWhere(List, Predicate)
+     */
+    public <T> int lastIndexWhere(List<T> list, Predicate<T> predicate) {
+        return prefixLength(list, predicate) - 1;
+    }
+
+    /**
+     * Returns the length of the longest prefix whose elements all satisfy some
+     * predicate.
+     *
+     * @param <T>
+     * @param list the list, the predicate holding for a prefix of it.
+     * @param predicate the predicate used to test elements.
+     * @return the length of the longest prefix of the specified list such that
+     * every element of the segment satisfies the predicate.
+     * @see Predicates#prefixLength(List, Predicate)
+     */
+    public <T> int prefixLength(List<T> list, Predicate<T> predicate) {
+        if (!(list instanceof RandomAccess)) {
+            return Predicates.prefixLength(list, predicate);
+        }
+        return boundary(list, predicate, true);
+    }
+
+    /**
+     * Splits the specified list into a prefix/suffix pair according to a
+     * predicate.
+     *
+     * @param <T>
+     * @param list the list, the predicate holding for a prefix of it.
+     * @param predicate the predicate used to test elements.
+     * @return a pair consisting of the longest prefix of the specified list
+     * whose elements all satisfy the given predicate, and the rest of the
+     * list.
+     * @see Predicates#span(List, Predicate)
+     */
+    public <T> Pair<List<T>> span(List<T> list, Predicate<T> predicate) {
+        final int spanIndex = prefixLength(list, predicate);
+        return new Pair<List<T>>(
+            new ArrayList<T>(list.subList(0, spanIndex)),
+            new ArrayList<T>(list.subList(spanIndex, list.size())));
+    }
+
+    /**
+     * Splits the specified list into a prefix/suffix pair according to a
+     * predicate, without copying the elements.
+     *
+     * @param <T>
+     * @param list the list, the predicate holding for a prefix of it.
+     * @param predicate the predicate used to test elements.
+     * @return a pair of views (as returned by {@link List#subList(int, int)})
+     * of the longest prefix of the specified list whose elements all satisfy
+     * the given predicate, and of the rest of the list.
+     * @see Predicates#spanView(List, Predicate)
+     */
+    public <T> Pair<List<T>> spanView(List<T> list, Predicate<T> predicate) {
+        final int spanIndex = prefixLength(list, predicate);
+        return new Pair<List<T>>(
+            list.subList(0, spanIndex),
+            list.subList(spanIndex, list.size()));
+    }
+
+    /**
+     * Takes longest prefix of elements that satisfy a predicate.
+     *
+     * @param <T>
+     * @param list the list, the predicate holding for a prefix of it.
+     * @param predicate the predicate used to test elements.
+     * @return the longest prefix of the specified list whose elements all
+     * satisfy the given predicate.
+     * @see Predicates#takeWhile(List, Predicate)
+     */
+    public <T> List<T> takeWhile(List<T> list, Predicate<T> predicate) {
+        return new ArrayList<T>(takeWhileView(list, predicate));
+    }
+
+    /**
+     * Takes longest prefix of elements that satisfy a predicate, without
+     * copying the elements.
+     *
+     * @param <T>
+     * @param list the list, the predicate holding for a prefix of it.
+     * @param predicate the predicate used to test elements.
+     * @return a view (as returned by {@link List#subList(int, int)}) of the
+     * longest prefix of the specified list whose elements all satisfy the
+     * given predicate.
+     * @see Predicates#takeWhileView(List, Predicate)
+     */
+    public <T> List<T> takeWhileView(List<T> list, Predicate<T> predicate) {
+        return list.subList(0, prefixLength(list, predicate));
+    }
+
+    /**
+     * Returns the number of leading elements of the specified random access
+     * list for which the predicate evaluates to the specified result, the
+     * predicate evaluating to the opposite result for all the following
+     * elements.
+     */
+    private static <T> int boundary(List<T> list, Predicate<T> predicate, boolean expected) {
+        final int size = list.size();
+        // the elements before low evaluate to the expected result, the one at
+        // high (if any) does not
+        int low = 0;
+        int high = size;
+        long probe = 0;
+        while (probe < size) {
+            if (predicate.eval(list.get((int) probe)) != expected) {
+                high = (int) probe;
+                break;
+            }
+            low = (int) probe + 1;
+            probe = 2 * probe + 1;
+        }
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (predicate.eval(list.get(middle)) == expected) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+}
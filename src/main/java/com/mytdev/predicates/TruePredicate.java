@@ -15,12 +15,14 @@
  */
 package com.mytdev.predicates;
 
+import java.util.BitSet;
+
 /**
  *
  * @author Yann D'Isanto
  * @param <T>
  */
-public final class TruePredicate<T> extends AbstractPredicate<T> {
+public final class TruePredicate<T> extends AbstractPredicate<T> implements CostHint, BatchPredicate<T> {
 
     private static final TruePredicate INSTANCE = new TruePredicate();
 
@@ -28,6 +30,18 @@ public final class TruePredicate<T> extends AbstractPredicate<T> {
         return true;
     }
 
+    public void evalBatch(T[] candidates, int from, int to, BitSet selection) {
+        // every selected candidate stays selected
+    }
+
+    public double cost() {
+        return 0;
+    }
+
+    public double probability() {
+        return 1;
+    }
+
     public static <T> TruePredicate<T> get() {
         return INSTANCE;
     }
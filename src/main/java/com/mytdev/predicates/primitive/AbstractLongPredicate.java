@@ -0,0 +1,39 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates.primitive;
+
+/**
+ * An Abstract LongPredicate implementing the and/or/not methods.
+ *
+ * @author Yann D'Isanto
+ */
+public abstract class AbstractLongPredicate implements LongPredicate {
+
+    @Override
+    public final LongPredicate and(LongPredicate predicate, LongPredicate... others) {
+        return new LongAndPredicate(this, predicate, others);
+    }
+
+    @Override
+    public final LongPredicate or(LongPredicate predicate, LongPredicate... others) {
+        return new LongOrPredicate(this, predicate, others);
+    }
+
+    @Override
+    public final LongPredicate not() {
+        return new LongNotPredicate(this);
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates.primitive;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A batch of rows stored as columns: one int, long or double array per
+ * field, all of the batch size, the row i being made of the values at index
+ * i. The arrays are not copied, so they must not be modified while the batch
+ * is in use.
+ * <p>
+ * Batches are filtered with {@link ColumnPredicate} instances by the
+ * {@link PrimitivePredicates} batch operations, without materializing the
+ * rows.
+ *
+ * @author Yann D'Isanto
+ */
+public final class ColumnBatch {
+
+    private final int size;
+
+    private final Map<String, Object> columns = new LinkedHashMap<String, Object>();
+
+    /**
+     * Creates a new instance of ColumnBatch without column.
+     *
+     * @param size the number of rows.
+     */
+    public ColumnBatch(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size is negative: " + size);
+        }
+        this.size = size;
+    }
+
+    /**
+     * Adds or replaces an int column.
+     *
+     * @param name the column name.
+     * @param column the column values, one per row.
+     * @return this batch.
+     */
+    public ColumnBatch put(String name, int[] column) {
+        PrimitivePredicates.assertNotNull(column, "column");
+        return put(name, column, column.length);
+    }
+
+    /**
+     * Adds or replaces a long column.
+     *
+     * @param name the column name.
+     * @param column the column values, one per row.
+     * @return this batch.
+     */
+    public ColumnBatch put(String name, long[] column) {
+        PrimitivePredicates.assertNotNull(column, "column");
+        return put(name, column, column.length);
+    }
+
+    /**
+     * Adds or replaces a double column.
+     *
+     * @param name the column name.
+     * @param column the column values, one per row.
+     * @return this batch.
+     */
+    public ColumnBatch put(String name, double[] column) {
+        PrimitivePredicates.assertNotNull(column, "column");
+        return put(name, column, column.length);
+    }
+
+    /**
+     * Returns the number of rows of this batch.
+     *
+     * @return the number of rows.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the names of the columns of this batch.
+     *
+     * @return an unmodifiable list of the column names, in insertion order.
+     */
+    public List<String> names() {
+        return Collections.unmodifiableList(new ArrayList<String>(columns.keySet()));
+    }
+
+    /**
+     * Returns an int column.
+     *
+     * @param name the column name.
+     * @return the column values.
+     * @throws IllegalArgumentException if this batch has no int column of the
+     * specified name.
+     */
+    public int[] intColumn(String name) {
+        return column(name, int[].class);
+    }
+
+    /**
+     * Returns a long column.
+     *
+     * @param name the column name.
+     * @return the column values.
+     * @throws IllegalArgumentException if this batch has no long column of the
+     * specified name.
+     */
+    public long[] longColumn(String name) {
+        return column(name, long[].class);
+    }
+
+    /**
+     * Returns a double column.
+     *
+     * @param name the column name.
+     * @return the column values.
+     * @throws IllegalArgumentException if this batch has no double column of
+     * the specified name.
+     */
+    public double[] doubleColumn(String name) {
+        return column(name, double[].class);
+    }
+
+    /**
+     * Returns a new batch made of the selected rows of this one, in the same
+     * order.
+     *
+     * @param selection the mask of the selected rows.
+     * @param count the number of selected rows.
+     * @return the new batch.
+     */
+    ColumnBatch gather(long[] selection, int count) {
+        final ColumnBatch result = new ColumnBatch(count);
+        for (Map.Entry<String, Object> entry : columns.entrySet()) {
+            final Object column = entry.getValue();
+            if (column instanceof int[]) {
+                final int[] values = (int[]) column;
+                final int[] gathered = new int[count];
+                int row = 0;
+                for (int w = 0; w < selection.length; w++) {
+                    for (long word = selection[w]; word != 0; word &= word - 1) {
+                        gathered[row++] = values[(w << 6) + Long.numberOfTrailingZeros(word)];
+                    }
+                }
+                result.columns.put(entry.getKey(), gathered);
+            } else if (column instanceof long[]) {
+                final long[] values = (long[]) column;
+                final long[] gathered = new long[count];
+                int row = 0;
+                for (int w = 0; w < selection.length; w++) {
+                    for (long word = selection[w]; word != 0; word &= word - 1) {
+                        gathered[row++] = values[(w << 6) + Long.numberOfTrailingZeros(word)];
+                    }
+                }
+                result.columns.put(entry.getKey(), gathered);
+            } else {
+                final double[] values = (double[]) column;
+                final double[] gathered = new double[count];
+                int row = 0;
+                for (int w = 0; w < selection.length; w++) {
+                    for (long word = selection[w]; word != 0; word &= word - 1) {
+                        gathered[row++] = values[(w << 6) + Long.numberOfTrailingZeros(word)];
+                    }
+                }
+                result.columns.put(entry.getKey(), gathered);
+            }
+        }
+        return result;
+    }
+
+    private ColumnBatch put(String name, Object column, int length) {
+        PrimitivePredicates.assertNotNull(name, "name");
+        if (length != size) {
+            throw new IllegalArgumentException("column " + name + " has " + length
+                + " values instead of " + size);
+        }
+        columns.put(name, column);
+        return this;
+    }
+
+    private <A> A column(String name, Class<A> type) {
+        final Object column = columns.get(name);
+        if (!type.isInstance(column)) {
+            throw new IllegalArgumentException("no " + type.getComponentType() + " column " + name);
+        }
+        return type.cast(column);
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates.primitive;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A predicate on the rows of a {@link ColumnBatch}, built from primitive
+ * predicates bound to columns and their And/Or/Not combinations.
+ * <p>
+ * A column predicate is evaluated on a whole batch at once, by narrowing a
+ * selection bitmap (one bit per row): a column leaf clears the rows whose
+ * column value does not satisfy its primitive predicate, evaluated as by
+ * {@link PrimitiveMasks} (without branches for the range predicates), an And
+ * narrows the selection with each of its predicates in turn, so that the
+ * following ones only look at the rows left selected, an Or evaluates each of
+ * its predicates on the selected rows not matched yet and a Not removes the
+ * rows matched by its predicate.
+ *
+ * @author Yann D'Isanto
+ */
+public abstract class ColumnPredicate {
+
+    ColumnPredicate() {
+    }
+
+    /**
+     * Creates a predicate testing the values of an int column.
+     *
+     * @param column the column name.
+     * @param predicate the predicate used to test the column values.
+     * @return a new ColumnPredicate instance.
+     */
+    public static ColumnPredicate intColumn(final String column, final IntPredicate predicate) {
+        PrimitivePredicates.assertNotNull(column, "column");
+        PrimitivePredicates.assertNotNull(predicate, "predicate");
+        return new ColumnPredicate() {
+
+            void retain(ColumnBatch batch, long[] selection) {
+                PrimitiveMasks.retain(batch.intColumn(column), predicate, selection);
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate testing the values of a long column.
+     *
+     * @param column the column name.
+     * @param predicate the predicate used to test the column values.
+     * @return a new ColumnPredicate instance.
+     */
+    public static ColumnPredicate longColumn(final String column, final LongPredicate predicate) {
+        PrimitivePredicates.assertNotNull(column, "column");
+        PrimitivePredicates.assertNotNull(predicate, "predicate");
+        return new ColumnPredicate() {
+
+            void retain(ColumnBatch batch, long[] selection) {
+                PrimitiveMasks.retain(batch.longColumn(column), predicate, selection);
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate testing the values of a double column.
+     *
+     * @param column the column name.
+     * @param predicate the predicate used to test the column values.
+     * @return a new ColumnPredicate instance.
+     */
+    public static ColumnPredicate doubleColumn(final String column, final DoublePredicate predicate) {
+        PrimitivePredicates.assertNotNull(column, "column");
+        PrimitivePredicates.assertNotNull(predicate, "predicate");
+        return new ColumnPredicate() {
+
+            void retain(ColumnBatch batch, long[] selection) {
+                PrimitiveMasks.retain(batch.doubleColumn(column), predicate, selection);
+            }
+        };
+    }
+
+    /**
+     * Creates then returns a predicate which applies a logical AND between this
+     * predicate and the specified others.
+     *
+     * @param predicate another predicate.
+     * @param others more other predicates.
+     * @return a new ColumnPredicate instance.
+     */
+    public final ColumnPredicate and(ColumnPredicate predicate, ColumnPredicate... others) {
+        return new Composite(true, this, predicate, others);
+    }
+
+    /**
+     * Creates then returns a predicate which applies a logical OR between this
+     * predicate and the specified others.
+     *
+     * @param predicate another predicate.
+     * @param others more other predicates.
+     * @return a new ColumnPredicate instance.
+     */
+    public final ColumnPredicate or(ColumnPredicate predicate, ColumnPredicate... others) {
+        return new Composite(false, this, predicate, others);
+    }
+
+    /**
+     * Creates then return a predicate which apply a logical NOT to this
+     * predicate.
+     *
+     * @return a new ColumnPredicate instance.
+     */
+    public final ColumnPredicate not() {
+        final ColumnPredicate predicate = this;
+        return new ColumnPredicate() {
+
+            void retain(ColumnBatch batch, long[] selection) {
+                final long[] matching = selection.clone();
+                predicate.retain(batch, matching);
+                for (int w = 0; w < selection.length; w++) {
+                    selection[w] &= ~matching[w];
+                }
+            }
+        };
+    }
+
+    /**
+     * Clears from the specified selection the rows of the batch which do not
+     * satisfy this predicate.
+     *
+     * @param batch the batch to evaluate.
+     * @param selection the mask of the selected rows, narrowed in place.
+     */
+    abstract void retain(ColumnBatch batch, long[] selection);
+
+    /**
+     * Evaluates this predicate on every row of the specified batch.
+     *
+     * @param batch the batch to evaluate.
+     * @return a new mask of the rows satisfying this predicate.
+     */
+    final long[] select(ColumnBatch batch) {
+        final int size = batch.size();
+        final long[] selection = new long[PrimitiveMasks.words(size)];
+        for (int w = 0; w < selection.length; w++) {
+            selection[w] = PrimitiveMasks.tail(size - (w << 6));
+        }
+        retain(batch, selection);
+        return selection;
+    }
+
+    private static final class Composite extends ColumnPredicate {
+
+        private final boolean and;
+
+        private final ColumnPredicate[] predicates;
+
+        Composite(boolean and, ColumnPredicate p1, ColumnPredicate p2, ColumnPredicate... others) {
+            PrimitivePredicates.assertNotNull(p2, "p2");
+            this.and = and;
+            // nested composites of the same kind are flattened
+            final List<ColumnPredicate> list = new ArrayList<ColumnPredicate>(others.length + 2);
+            addFlattened(list, p1);
+            addFlattened(list, p2);
+            for (ColumnPredicate predicate : others) {
+                PrimitivePredicates.assertNotNull(predicate, "predicate");
+                addFlattened(list, predicate);
+            }
+            predicates = list.toArray(new ColumnPredicate[list.size()]);
+        }
+
+        void retain(ColumnBatch batch, long[] selection) {
+            if (and) {
+                for (ColumnPredicate predicate : predicates) {
+                    predicate.retain(batch, selection);
+                }
+                return;
+            }
+            final long[] remaining = selection.clone();
+            final long[] matching = new long[selection.length];
+            for (ColumnPredicate predicate : predicates) {
+                final long[] candidates = remaining.clone();
+                predicate.retain(batch, candidates);
+                for (int w = 0; w < selection.length; w++) {
+                    matching[w] |= candidates[w];
+                    remaining[w] &= ~candidates[w];
+                }
+            }
+            System.arraycopy(matching, 0, selection, 0, selection.length);
+        }
+
+        private void addFlattened(List<ColumnPredicate> list, ColumnPredicate predicate) {
+            if (predicate instanceof Composite && ((Composite) predicate).and == and) {
+                for (ColumnPredicate nested : ((Composite) predicate).predicates) {
+                    list.add(nested);
+                }
+            } else {
+                list.add(predicate);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates.primitive;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A logical OR of double predicates. Nested DoubleOrPredicate instances are
+ * flattened at creation.
+ *
+ * @author Yann D'Isanto
+ */
+public final class DoubleOrPredicate extends AbstractDoublePredicate {
+
+    private final DoublePredicate[] predicates;
+
+    /**
+     * Creates a new instance of DoubleOrPredicate with the specified
+     * predicates, evaluated in the following order: p1, p2, then others.
+     *
+     * @param p1 predicate 1.
+     * @param p2 predicate 2.
+     * @param others more predicates.
+     */
+    public DoubleOrPredicate(DoublePredicate p1, DoublePredicate p2, DoublePredicate... others) {
+        PrimitivePredicates.assertNotNull(p1, "p1");
+        PrimitivePredicates.assertNotNull(p2, "p2");
+        final List<DoublePredicate> list = new ArrayList<DoublePredicate>(others.length + 2);
+        addFlattened(list, p1);
+        addFlattened(list, p2);
+        for (DoublePredicate predicate : others) {
+            addFlattened(list, predicate);
+        }
+        predicates = list.toArray(new DoublePredicate[list.size()]);
+    }
+
+    public boolean eval(double candidate) {
+        final DoublePredicate[] array = predicates;
+        for (int i = 0; i < array.length; i++) {
+            if (array[i].eval(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the underlying predicates.
+     *
+     * @return an unmodifiable list of the predicates.
+     */
+    public List<DoublePredicate> predicates() {
+        return Collections.unmodifiableList(Arrays.asList(predicates));
+    }
+
+    private static void addFlattened(List<DoublePredicate> list, DoublePredicate predicate) {
+        if (predicate instanceof DoubleOrPredicate) {
+            list.addAll(Arrays.asList(((DoubleOrPredicate) predicate).predicates));
+        } else {
+            list.add(predicate);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates.primitive;
+
+/**
+ * A double predicate satisfied by the values between two inclusive bounds. Its
+ * structure is known to {@link PrimitiveMasks}, which evaluates it without
+ * branches, 64 values at a time.
+ * <p>
+ * An equality test is a range whose bounds are equal, and a comparison is a
+ * range bounded by {@link Double#NEGATIVE_INFINITY} or
+ * {@link Double#POSITIVE_INFINITY}. A strict comparison is a range bounded by
+ * {@link Math#nextDown(double)} or {@link Math#nextUp(double)} of the value.
+ * NaN never satisfies the predicate.
+ *
+ * @author Yann D'Isanto
+ */
+public final class DoubleRangePredicate extends AbstractDoublePredicate {
+
+    private final double min;
+
+    private final double max;
+
+    /**
+     * Creates a new instance of DoubleRangePredicate.
+     *
+     * @param min the lower bound (inclusive).
+     * @param max the upper bound (inclusive).
+     * @throws IllegalArgumentException if min is greater than max or if a
+     * bound is NaN.
+     */
+    public DoubleRangePredicate(double min, double max) {
+        if (!(min <= max)) {
+            throw new IllegalArgumentException("empty range: [" + min + ", " + max + "]");
+        }
+        this.min = min;
+        this.max = max;
+    }
+
+    public boolean eval(double candidate) {
+        return min <= candidate && candidate <= max;
+    }
+
+    /**
+     * Returns the lower bound.
+     *
+     * @return the lower bound (inclusive).
+     */
+    public double min() {
+        return min;
+    }
+
+    /**
+     * Returns the upper bound.
+     *
+     * @return the upper bound (inclusive).
+     */
+    public double max() {
+        return max;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates.primitive;
+
+/**
+ * A logical NOT of a long predicate.
+ *
+ * @author Yann D'Isanto
+ */
+public final class LongNotPredicate extends AbstractLongPredicate {
+
+    private final LongPredicate decoratedPredicate;
+
+    public LongNotPredicate(LongPredicate decoratedPredicate) {
+        PrimitivePredicates.assertNotNull(decoratedPredicate, "decorated predicate");
+        this.decoratedPredicate = decoratedPredicate;
+    }
+
+    public boolean eval(long candidate) {
+        return ! decoratedPredicate.eval(candidate);
+    }
+
+    /**
+     * Returns the negated predicate.
+     *
+     * @return the decorated predicate.
+     */
+    public LongPredicate decoratedPredicate() {
+        return decoratedPredicate;
+    }
+}
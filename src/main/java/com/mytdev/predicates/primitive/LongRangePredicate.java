@@ -0,0 +1,70 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates.primitive;
+
+/**
+ * A long predicate satisfied by the values between two inclusive bounds. Its
+ * structure is known to {@link PrimitiveMasks}, which evaluates it without
+ * branches, 64 values at a time.
+ * <p>
+ * An equality test is a range whose bounds are equal, and a comparison is a
+ * range bounded by {@link Long#MIN_VALUE} or {@link Long#MAX_VALUE}.
+ *
+ * @author Yann D'Isanto
+ */
+public final class LongRangePredicate extends AbstractLongPredicate {
+
+    private final long min;
+
+    private final long max;
+
+    /**
+     * Creates a new instance of LongRangePredicate.
+     *
+     * @param min the lower bound (inclusive).
+     * @param max the upper bound (inclusive).
+     * @throws IllegalArgumentException if min is greater than max.
+     */
+    public LongRangePredicate(long min, long max) {
+        if (!(min <= max)) {
+            throw new IllegalArgumentException("empty range: [" + min + ", " + max + "]");
+        }
+        this.min = min;
+        this.max = max;
+    }
+
+    public boolean eval(long candidate) {
+        return min <= candidate && candidate <= max;
+    }
+
+    /**
+     * Returns the lower bound.
+     *
+     * @return the lower bound (inclusive).
+     */
+    public long min() {
+        return min;
+    }
+
+    /**
+     * Returns the upper bound.
+     *
+     * @return the upper bound (inclusive).
+     */
+    public long max() {
+        return max;
+    }
+}
@@ -0,0 +1,782 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates.primitive;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Utility class evaluating primitive predicates over primitive arrays into
+ * selection masks, 64 elements per long word (bit i of word w is set if the
+ * element at index 64 * w + i satisfies the predicate).
+ * <p>
+ * The {@link IntRangePredicate}, {@link LongRangePredicate} and
+ * {@link DoubleRangePredicate} leaves fill a whole mask word in a loop
+ * without branches, and their And/Or/Not combinations (including the
+ * True/False constants) are computed word by word. Any other predicate is
+ * evaluated element by element into the mask. The arrays are processed in
+ * blocks of {@value #BLOCK_SIZE} elements: an And block stops evaluating its
+ * predicates once no element is left selected, an Or block once all of them
+ * are, and the element by element predicates are evaluated after the range
+ * ones. The count, indexWhere and filter results are the same as the ones of
+ * {@link PrimitivePredicates}, read from the masks.
+ *
+ * @author Yann D'Isanto
+ */
+public final class PrimitiveMasks {
+
+    /**
+     * The number of elements evaluated at once.
+     */
+    static final int BLOCK_SIZE = 1024;
+
+    private static final int BLOCK_WORDS = BLOCK_SIZE / 64;
+
+    /**
+     * Evaluates a predicate on every element of the specified array.
+     *
+     * @param array the array to evaluate.
+     * @param predicate the predicate used to test elements.
+     * @return a new mask of (array.length + 63) / 64 words.
+     */
+    public static long[] mask(int[] array, IntPredicate predicate) {
+        return mask(compile(array, predicate), array.length);
+    }
+
+    /**
+     * Counts the number of elements in the specified array which satisfy a
+     * predicate.
+     *
+     * @param array the array to count elements from.
+     * @param predicate the predicate used to test elements.
+     * @return the number of elements satisfying the specified predicate.
+     */
+    public static int count(int[] array, IntPredicate predicate) {
+        return count(compile(array, predicate), array.length);
+    }
+
+    /**
+     * Selects all elements of the specified array which satisfy a predicate.
+     *
+     * @param array the array to filter.
+     * @param predicate the predicate used to test elements.
+     * @return a new array consisting of all elements of the specified array
+     * that satisfy the given predicate, in the same order.
+     */
+    public static int[] filter(int[] array, IntPredicate predicate) {
+        final long[] mask = mask(array, predicate);
+        final int[] result = new int[bitCount(mask)];
+        int size = 0;
+        for (int w = 0; w < mask.length; w++) {
+            for (long word = mask[w]; word != 0; word &= word - 1) {
+                result[size++] = array[(w << 6) + Long.numberOfTrailingZeros(word)];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds index of first element satisfying some predicate.
+     *
+     * @param array the array to search.
+     * @param predicate the predicate used to test elements.
+     * @return the index of the first element of the specified array that
+     * satisfies the given predicate, or -1, if none exists.
+     */
+    public static int indexWhere(int[] array, IntPredicate predicate) {
+        return indexWhere(compile(array, predicate), array.length);
+    }
+
+    /**
+     * Evaluates a predicate on every element of the specified array.
+     *
+     * @param array the array to evaluate.
+     * @param predicate the predicate used to test elements.
+     * @return a new mask of (array.length + 63) / 64 words.
+     */
+    public static long[] mask(long[] array, LongPredicate predicate) {
+        return mask(compile(array, predicate), array.length);
+    }
+
+    /**
+     * Counts the number of elements in the specified array which satisfy a
+     * predicate.
+     *
+     * @param array the array to count elements from.
+     * @param predicate the predicate used to test elements.
+     * @return the number of elements satisfying the specified predicate.
+     */
+    public static int count(long[] array, LongPredicate predicate) {
+        return count(compile(array, predicate), array.length);
+    }
+
+    /**
+     * Selects all elements of the specified array which satisfy a predicate.
+     *
+     * @param array the array to filter.
+     * @param predicate the predicate used to test elements.
+     * @return a new array consisting of all elements of the specified array
+     * that satisfy the given predicate, in the same order.
+     */
+    public static long[] filter(long[] array, LongPredicate predicate) {
+        final long[] mask = mask(array, predicate);
+        final long[] result = new long[bitCount(mask)];
+        int size = 0;
+        for (int w = 0; w < mask.length; w++) {
+            for (long word = mask[w]; word != 0; word &= word - 1) {
+                result[size++] = array[(w << 6) + Long.numberOfTrailingZeros(word)];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds index of first element satisfying some predicate.
+     *
+     * @param array the array to search.
+     * @param predicate the predicate used to test elements.
+     * @return the index of the first element of the specified array that
+     * satisfies the given predicate, or -1, if none exists.
+     */
+    public static int indexWhere(long[] array, LongPredicate predicate) {
+        return indexWhere(compile(array, predicate), array.length);
+    }
+
+    /**
+     * Evaluates a predicate on every element of the specified array.
+     *
+     * @param array the array to evaluate.
+     * @param predicate the predicate used to test elements.
+     * @return a new mask of (array.length + 63) / 64 words.
+     */
+    public static long[] mask(double[] array, DoublePredicate predicate) {
+        return mask(compile(array, predicate), array.length);
+    }
+
+    /**
+     * Counts the number of elements in the specified array which satisfy a
+     * predicate.
+     *
+     * @param array the array to count elements from.
+     * @param predicate the predicate used to test elements.
+     * @return the number of elements satisfying the specified predicate.
+     */
+    public static int count(double[] array, DoublePredicate predicate) {
+        return count(compile(array, predicate), array.length);
+    }
+
+    /**
+     * Selects all elements of the specified array which satisfy a predicate.
+     *
+     * @param array the array to filter.
+     * @param predicate the predicate used to test elements.
+     * @return a new array consisting of all elements of the specified array
+     * that satisfy the given predicate, in the same order.
+     */
+    public static double[] filter(double[] array, DoublePredicate predicate) {
+        final long[] mask = mask(array, predicate);
+        final double[] result = new double[bitCount(mask)];
+        int size = 0;
+        for (int w = 0; w < mask.length; w++) {
+            for (long word = mask[w]; word != 0; word &= word - 1) {
+                result[size++] = array[(w << 6) + Long.numberOfTrailingZeros(word)];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds index of first element satisfying some predicate.
+     *
+     * @param array the array to search.
+     * @param predicate the predicate used to test elements.
+     * @return the index of the first element of the specified array that
+     * satisfies the given predicate, or -1, if none exists.
+     */
+    public static int indexWhere(double[] array, DoublePredicate predicate) {
+        return indexWhere(compile(array, predicate), array.length);
+    }
+
+    /**
+     * Clears from the specified selection the elements of the array which do
+     * not satisfy a predicate. The predicate is only evaluated on the blocks
+     * holding selected elements, and the element by element predicates only
+     * on the selected elements.
+     *
+     * @param array the array to evaluate.
+     * @param predicate the predicate used to test elements.
+     * @param selection the mask of the selected elements, narrowed in place.
+     */
+    static void retain(int[] array, IntPredicate predicate, long[] selection) {
+        retain(compile(array, predicate), array.length, selection);
+    }
+
+    /**
+     * Clears from the specified selection the elements of the array which do
+     * not satisfy a predicate.
+     *
+     * @param array the array to evaluate.
+     * @param predicate the predicate used to test elements.
+     * @param selection the mask of the selected elements, narrowed in place.
+     * @see #retain(int[], IntPredicate, long[])
+     */
+    static void retain(long[] array, LongPredicate predicate, long[] selection) {
+        retain(compile(array, predicate), array.length, selection);
+    }
+
+    /**
+     * Clears from the specified selection the elements of the array which do
+     * not satisfy a predicate.
+     *
+     * @param array the array to evaluate.
+     * @param predicate the predicate used to test elements.
+     * @param selection the mask of the selected elements, narrowed in place.
+     * @see #retain(int[], IntPredicate, long[])
+     */
+    static void retain(double[] array, DoublePredicate predicate, long[] selection) {
+        retain(compile(array, predicate), array.length, selection);
+    }
+
+    private static void retain(Node root, int length, long[] selection) {
+        final long[] block = new long[BLOCK_WORDS];
+        for (int from = 0; from < length; from += BLOCK_SIZE) {
+            final int to = Math.min(from + BLOCK_SIZE, length);
+            if (!none(selection, from >>> 6, words(to - from))) {
+                root.retain(from, to, selection, from >>> 6, block);
+            }
+        }
+    }
+
+    private static boolean none(long[] words, int offset, int count) {
+        for (int w = offset; w < offset + count; w++) {
+            if (words[w] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long[] mask(Node root, int length) {
+        final long[] result = new long[words(length)];
+        for (int from = 0; from < length; from += BLOCK_SIZE) {
+            root.eval(from, Math.min(from + BLOCK_SIZE, length), result, from >>> 6);
+        }
+        return result;
+    }
+
+    private static int count(Node root, int length) {
+        final long[] block = new long[BLOCK_WORDS];
+        int result = 0;
+        for (int from = 0; from < length; from += BLOCK_SIZE) {
+            result += root.count(from, Math.min(from + BLOCK_SIZE, length), block);
+        }
+        return result;
+    }
+
+    private static int indexWhere(Node root, int length) {
+        final long[] block = new long[BLOCK_WORDS];
+        for (int from = 0; from < length; from += BLOCK_SIZE) {
+            final int to = Math.min(from + BLOCK_SIZE, length);
+            root.eval(from, to, block, 0);
+            for (int w = 0; w < words(to - from); w++) {
+                if (block[w] != 0) {
+                    return from + (w << 6) + Long.numberOfTrailingZeros(block[w]);
+                }
+            }
+        }
+        return -1;
+    }
+
+    static int bitCount(long[] mask) {
+        int result = 0;
+        for (long word : mask) {
+            result += Long.bitCount(word);
+        }
+        return result;
+    }
+
+    static int words(int size) {
+        return (size + 63) >>> 6;
+    }
+
+    private static Node compile(final int[] array, IntPredicate predicate) {
+        PrimitivePredicates.assertNotNull(predicate, "predicate");
+        if (predicate instanceof IntRangePredicate) {
+            final IntRangePredicate range = (IntRangePredicate) predicate;
+            return new IntRangeNode(array, range.min(), range.max());
+        }
+        if (predicate instanceof IntAndPredicate || predicate instanceof IntOrPredicate) {
+            final List<Node> nodes = new ArrayList<Node>();
+            final boolean and = predicate instanceof IntAndPredicate;
+            for (IntPredicate child : and
+                ? ((IntAndPredicate) predicate).predicates()
+                : ((IntOrPredicate) predicate).predicates()) {
+                nodes.add(compile(array, child));
+            }
+            return new CompositeNode(and, nodes);
+        }
+        if (predicate instanceof IntNotPredicate) {
+            return new NotNode(compile(array, ((IntNotPredicate) predicate).decoratedPredicate()));
+        }
+        if (predicate == IntTruePredicate.get() || predicate == IntFalsePredicate.get()) {
+            return new ConstantNode(predicate == IntTruePredicate.get());
+        }
+        final IntPredicate scalar = predicate;
+        return new ScalarNode() {
+
+            boolean eval(int index) {
+                return scalar.eval(array[index]);
+            }
+        };
+    }
+
+    private static Node compile(final long[] array, LongPredicate predicate) {
+        PrimitivePredicates.assertNotNull(predicate, "predicate");
+        if (predicate instanceof LongRangePredicate) {
+            final LongRangePredicate range = (LongRangePredicate) predicate;
+            return new LongRangeNode(array, range.min(), range.max());
+        }
+        if (predicate instanceof LongAndPredicate || predicate instanceof LongOrPredicate) {
+            final List<Node> nodes = new ArrayList<Node>();
+            final boolean and = predicate instanceof LongAndPredicate;
+            for (LongPredicate child : and
+                ? ((LongAndPredicate) predicate).predicates()
+                : ((LongOrPredicate) predicate).predicates()) {
+                nodes.add(compile(array, child));
+            }
+            return new CompositeNode(and, nodes);
+        }
+        if (predicate instanceof LongNotPredicate) {
+            return new NotNode(compile(array, ((LongNotPredicate) predicate).decoratedPredicate()));
+        }
+        if (predicate == LongTruePredicate.get() || predicate == LongFalsePredicate.get()) {
+            return new ConstantNode(predicate == LongTruePredicate.get());
+        }
+        final LongPredicate scalar = predicate;
+        return new ScalarNode() {
+
+            boolean eval(int index) {
+                return scalar.eval(array[index]);
+            }
+        };
+    }
+
+    private static Node compile(final double[] array, DoublePredicate predicate) {
+        PrimitivePredicates.assertNotNull(predicate, "predicate");
+        if (predicate instanceof DoubleRangePredicate) {
+            final DoubleRangePredicate range = (DoubleRangePredicate) predicate;
+            return new DoubleRangeNode(array, range.min(), range.max());
+        }
+        if (predicate instanceof DoubleAndPredicate || predicate instanceof DoubleOrPredicate) {
+            final List<Node> nodes = new ArrayList<Node>();
+            final boolean and = predicate instanceof DoubleAndPredicate;
+            for (DoublePredicate child : and
+                ? ((DoubleAndPredicate) predicate).predicates()
+                : ((DoubleOrPredicate) predicate).predicates()) {
+                nodes.add(compile(array, child));
+            }
+            return new CompositeNode(and, nodes);
+        }
+        if (predicate instanceof DoubleNotPredicate) {
+            return new NotNode(compile(array, ((DoubleNotPredicate) predicate).decoratedPredicate()));
+        }
+        if (predicate == DoubleTruePredicate.get() || predicate == DoubleFalsePredicate.get()) {
+            return new ConstantNode(predicate == DoubleTruePredicate.get());
+        }
+        final DoublePredicate scalar = predicate;
+        return new ScalarNode() {
+
+            boolean eval(int index) {
+                return scalar.eval(array[index]);
+            }
+        };
+    }
+
+    private PrimitiveMasks() {
+    }
+
+    /**
+     * A compiled predicate, evaluating a range of at most a block of elements
+     * into mask words. The bits beyond the end
+     * of the range are left cleared.
+     */
+    private abstract static class Node {
+
+        /**
+         * Evaluates the specified range.
+         *
+         * @param from the first index of the range (inclusive).
+         * @param to the last index of the range (exclusive).
+         * @param words the mask to write.
+         * @param offset the index of the word receiving the range start.
+         */
+        abstract void eval(int from, int to, long[] words, int offset);
+
+        /**
+         * Counts the elements of the specified range satisfying the predicate.
+         *
+         * @param from the first index of the range (inclusive).
+         * @param to the last index of the range (exclusive).
+         * @param block a mask of a block of elements, to be used as scratch.
+         * @return the number of elements satisfying the predicate.
+         */
+        int count(int from, int to, long[] block) {
+            eval(from, to, block, 0);
+            int result = 0;
+            for (int w = 0; w < words(to - from); w++) {
+                result += Long.bitCount(block[w]);
+            }
+            return result;
+        }
+
+        /**
+         * Clears from the selection the elements of the specified range which
+         * do not satisfy the predicate.
+         *
+         * @param from the first index of the range (inclusive).
+         * @param to the last index of the range (exclusive).
+         * @param selection the mask of the selected elements.
+         * @param offset the index of the selection word of the range start.
+         * @param block a mask of a block of elements, to be used as scratch.
+         */
+        void retain(int from, int to, long[] selection, int offset, long[] block) {
+            eval(from, to, block, 0);
+            for (int w = 0; w < words(to - from); w++) {
+                selection[offset + w] &= block[w];
+            }
+        }
+
+        boolean scalar() {
+            return false;
+        }
+    }
+
+    private abstract static class ScalarNode extends Node {
+
+        abstract boolean eval(int index);
+
+        @Override
+        final void eval(int from, int to, long[] words, int offset) {
+            for (int base = from; base < to; base += 64) {
+                final int end = Math.min(base + 64, to);
+                long word = 0;
+                for (int i = base; i < end; i++) {
+                    if (eval(i)) {
+                        word |= 1L << (i - base);
+                    }
+                }
+                words[offset++] = word;
+            }
+        }
+
+        @Override
+        final void retain(int from, int to, long[] selection, int offset, long[] block) {
+            for (int w = offset; w < offset + words(to - from); w++) {
+                final int base = from + ((w - offset) << 6);
+                for (long word = selection[w]; word != 0; word &= word - 1) {
+                    final int bit = Long.numberOfTrailingZeros(word);
+                    if (!eval(base + bit)) {
+                        selection[w] &= ~(1L << bit);
+                    }
+                }
+            }
+        }
+
+        @Override
+        boolean scalar() {
+            return true;
+        }
+    }
+
+    private static final class IntRangeNode extends Node {
+
+        private final int[] array;
+
+        private final int min;
+
+        private final long span;
+
+        IntRangeNode(int[] array, int min, int max) {
+            this.array = array;
+            this.min = min;
+            this.span = (max - min) & 0xFFFFFFFFL;
+        }
+
+        @Override
+        void eval(int from, int to, long[] words, int offset) {
+            for (int base = from; base < to; base += 64) {
+                words[offset++] = word(base, Math.min(64, to - base));
+            }
+        }
+
+        @Override
+        int count(int from, int to, long[] block) {
+            final int[] values = array;
+            final long limit = span + 1;
+            long result = 0;
+            for (int i = from; i < to; i++) {
+                result += (((values[i] - min) & 0xFFFFFFFFL) - limit) >>> 63;
+            }
+            return (int) result;
+        }
+
+        private long word(int base, int count) {
+            final int[] values = array;
+            final long limit = span + 1;
+            long word = 0;
+            for (int i = 0; i < count; i++) {
+                // unsigned distance to min, in range iff it is lower than or
+                // equal to the span: sign of distance - span - 1
+                final long distance = (values[base + i] - min) & 0xFFFFFFFFL;
+                word |= ((distance - limit) >>> 63) << i;
+            }
+            return word;
+        }
+    }
+
+    private static final class LongRangeNode extends Node {
+
+        private final long[] array;
+
+        private final long min;
+
+        private final long span;
+
+        LongRangeNode(long[] array, long min, long max) {
+            this.array = array;
+            this.min = min;
+            this.span = max - min;
+        }
+
+        @Override
+        void eval(int from, int to, long[] words, int offset) {
+            for (int base = from; base < to; base += 64) {
+                words[offset++] = word(base, Math.min(64, to - base));
+            }
+        }
+
+        @Override
+        int count(int from, int to, long[] block) {
+            final long[] values = array;
+            final long s = span;
+            long result = 0;
+            for (int i = from; i < to; i++) {
+                final long d = values[i] - min;
+                result += ((~d | s) & ((d ^ s) | ~(s - d))) >>> 63;
+            }
+            return (int) result;
+        }
+
+        private long word(int base, int count) {
+            final long[] values = array;
+            final long s = span;
+            long word = 0;
+            for (int i = 0; i < count; i++) {
+                // unsigned distance <= span, without branch (Hacker's
+                // Delight, 2-12)
+                final long d = values[base + i] - min;
+                word |= (((~d | s) & ((d ^ s) | ~(s - d))) >>> 63) << i;
+            }
+            return word;
+        }
+    }
+
+    private static final class DoubleRangeNode extends Node {
+
+        private final double[] array;
+
+        private final double min;
+
+        private final double max;
+
+        DoubleRangeNode(double[] array, double min, double max) {
+            this.array = array;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        void eval(int from, int to, long[] words, int offset) {
+            for (int base = from; base < to; base += 64) {
+                words[offset++] = word(base, Math.min(64, to - base));
+            }
+        }
+
+        @Override
+        int count(int from, int to, long[] block) {
+            final double[] values = array;
+            int result = 0;
+            for (int i = from; i < to; i++) {
+                final double value = values[i];
+                result += min <= value & value <= max ? 1 : 0;
+            }
+            return result;
+        }
+
+        private long word(int base, int count) {
+            final double[] values = array;
+            long word = 0;
+            for (int i = 0; i < count; i++) {
+                final double value = values[base + i];
+                word |= (min <= value & value <= max ? 1L : 0L) << i;
+            }
+            return word;
+        }
+    }
+
+    private static final class ConstantNode extends Node {
+
+        private final boolean value;
+
+        ConstantNode(boolean value) {
+            this.value = value;
+        }
+
+        @Override
+        void eval(int from, int to, long[] words, int offset) {
+            final long word = value ? -1L : 0L;
+            for (int base = from; base < to; base += 64) {
+                words[offset++] = word & tail(to - base);
+            }
+        }
+    }
+
+    private static final class NotNode extends Node {
+
+        private final Node node;
+
+        NotNode(Node node) {
+            this.node = node;
+        }
+
+        @Override
+        void eval(int from, int to, long[] words, int offset) {
+            node.eval(from, to, words, offset);
+            for (int base = from; base < to; base += 64) {
+                words[offset] = ~words[offset] & tail(to - base);
+                offset++;
+            }
+        }
+
+        @Override
+        boolean scalar() {
+            return node.scalar();
+        }
+    }
+
+    private static final class CompositeNode extends Node {
+
+        private final boolean and;
+
+        private final Node[] nodes;
+
+        private final long[] scratch = new long[BLOCK_WORDS];
+
+        private final long[] remaining = new long[BLOCK_WORDS];
+
+        private final long[] candidates = new long[BLOCK_WORDS];
+
+        CompositeNode(boolean and, List<Node> nodes) {
+            this.and = and;
+            // the element by element predicates last, so that they are skipped
+            // when the others decide the whole block
+            final List<Node> ordered = new ArrayList<Node>(nodes.size());
+            for (Node node : nodes) {
+                if (!node.scalar()) {
+                    ordered.add(node);
+                }
+            }
+            for (Node node : nodes) {
+                if (node.scalar()) {
+                    ordered.add(node);
+                }
+            }
+            this.nodes = ordered.toArray(new Node[ordered.size()]);
+        }
+
+        @Override
+        void eval(int from, int to, long[] words, int offset) {
+            final int count = words(to - from);
+            nodes[0].eval(from, to, words, offset);
+            for (int n = 1; n < nodes.length && !decided(from, to, words, offset); n++) {
+                nodes[n].eval(from, to, scratch, 0);
+                for (int w = 0; w < count; w++) {
+                    if (and) {
+                        words[offset + w] &= scratch[w];
+                    } else {
+                        words[offset + w] |= scratch[w];
+                    }
+                }
+            }
+        }
+
+        @Override
+        void retain(int from, int to, long[] selection, int offset, long[] block) {
+            final int count = words(to - from);
+            if (and) {
+                // each predicate narrows the selection of the next ones
+                for (int n = 0; n < nodes.length && !none(selection, offset, count); n++) {
+                    nodes[n].retain(from, to, selection, offset, block);
+                }
+                return;
+            }
+            // each predicate only sees the selected elements not matched yet,
+            // the matching ones being accumulated in scratch
+            System.arraycopy(selection, offset, remaining, 0, count);
+            Arrays.fill(scratch, 0, count, 0L);
+            for (int n = 0; n < nodes.length && !none(remaining, 0, count); n++) {
+                System.arraycopy(remaining, 0, candidates, 0, count);
+                nodes[n].retain(from, to, candidates, 0, block);
+                for (int w = 0; w < count; w++) {
+                    scratch[w] |= candidates[w];
+                    remaining[w] &= ~candidates[w];
+                }
+            }
+            System.arraycopy(scratch, 0, selection, offset, count);
+        }
+
+        @Override
+        boolean scalar() {
+            for (Node node : nodes) {
+                if (node.scalar()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean decided(int from, int to, long[] words, int offset) {
+            for (int base = from; base < to; base += 64) {
+                if (words[offset++] != (and ? 0L : tail(to - base))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Returns the mask of the valid bits of a word starting a range.
+     *
+     * @param remaining the number of elements from the word start to the range
+     * end.
+     * @return the mask of the first min(remaining, 64) bits.
+     */
+    static long tail(int remaining) {
+        return remaining >= 64 ? -1L : (1L << remaining) - 1;
+    }
+}
@@ -0,0 +1,370 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates.primitive;
+
+import com.mytdev.predicates.Predicates.Pair;
+import java.util.Arrays;
+
+/**
+ * Utility class to use primitive predicates over primitive arrays, and
+ * column predicates over column batches, without boxing.
+ *
+ * @author Yann D'Isanto
+ */
+public final class PrimitivePredicates {
+
+    /**
+     * Counts the number of elements in the specified array which satisfy a
+     * predicate.
+     *
+     * @param array the array to count elements from.
+     * @param predicate the predicate used to test elements.
+     * @return the number of elements satisfying the specified predicate.
+     */
+    public static int count(int[] array, IntPredicate predicate) {
+        int result = 0;
+        for (int i = 0; i < array.length; i++) {
+            if (predicate.eval(array[i])) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Selects all elements of the specified array which satisfy a predicate.
+     *
+     * @param array the array to filter.
+     * @param predicate the predicate used to test elements.
+     * @return a new array consisting of all elements of the specified array
+     * that satisfy the given predicate, in the same order.
+     */
+    public static int[] filter(int[] array, IntPredicate predicate) {
+        final int[] buffer = new int[array.length];
+        int size = 0;
+        for (int i = 0; i < array.length; i++) {
+            final int item = array[i];
+            if (predicate.eval(item)) {
+                buffer[size++] = item;
+            }
+        }
+        return size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+    }
+
+    /**
+     * Finds index of first element satisfying some predicate.
+     *
+     * @param array the array to search.
+     * @param predicate the predicate used to test elements.
+     * @return the index of the first element of the specified array that
+     * satisfies the given predicate, or -1, if none exists.
+     */
+    public static int indexWhere(int[] array, IntPredicate predicate) {
+        for (int i = 0; i < array.length; i++) {
+            if (predicate.eval(array[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Partitions the specified array in two arrays according to a predicate.
+     *
+     * @param array the array to partition.
+     * @param predicate the predicate on which to partition.
+     * @return a pair of arrays: the first one consists of all elements that
+     * satisfy the given predicate and the second one consists of all elements
+     * that don't. The relative order of the elements in the resulting arrays
+     * is the same as in the original array.
+     */
+    public static Pair<int[]> partition(int[] array, IntPredicate predicate) {
+        // matching elements are put from the start of the buffer, the others
+        // from its end (thus in reverse order)
+        final int[] buffer = new int[array.length];
+        int matching = 0;
+        int unmatching = buffer.length;
+        for (int i = 0; i < array.length; i++) {
+            final int item = array[i];
+            if (predicate.eval(item)) {
+                buffer[matching++] = item;
+            } else {
+                buffer[--unmatching] = item;
+            }
+        }
+        final int[] unmatchingArray = new int[buffer.length - unmatching];
+        for (int i = 0; i < unmatchingArray.length; i++) {
+            unmatchingArray[i] = buffer[buffer.length - 1 - i];
+        }
+        return new Pair<int[]>(Arrays.copyOf(buffer, matching), unmatchingArray);
+    }
+
+    /**
+     * Counts the number of elements in the specified array which satisfy a
+     * predicate.
+     *
+     * @param array the array to count elements from.
+     * @param predicate the predicate used to test elements.
+     * @return the number of elements satisfying the specified predicate.
+     */
+    public static int count(long[] array, LongPredicate predicate) {
+        int result = 0;
+        for (int i = 0; i < array.length; i++) {
+            if (predicate.eval(array[i])) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Selects all elements of the specified array which satisfy a predicate.
+     *
+     * @param array the array to filter.
+     * @param predicate the predicate used to test elements.
+     * @return a new array consisting of all elements of the specified array
+     * that satisfy the given predicate, in the same order.
+     */
+    public static long[] filter(long[] array, LongPredicate predicate) {
+        final long[] buffer = new long[array.length];
+        int size = 0;
+        for (int i = 0; i < array.length; i++) {
+            final long item = array[i];
+            if (predicate.eval(item)) {
+                buffer[size++] = item;
+            }
+        }
+        return size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+    }
+
+    /**
+     * Finds index of first element satisfying some predicate.
+     *
+     * @param array the array to search.
+     * @param predicate the predicate used to test elements.
+     * @return the index of the first element of the specified array that
+     * satisfies the given predicate, or -1, if none exists.
+     */
+    public static int indexWhere(long[] array, LongPredicate predicate) {
+        for (int i = 0; i < array.length; i++) {
+            if (predicate.eval(array[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Partitions the specified array in two arrays according to a predicate.
+     *
+     * @param array the array to partition.
+     * @param predicate the predicate on which to partition.
+     * @return a pair of arrays: the first one consists of all elements that
+     * satisfy the given predicate and the second one consists of all elements
+     * that don't. The relative order of the elements in the resulting arrays
+     * is the same as in the original array.
+     */
+    public static Pair<long[]> partition(long[] array, LongPredicate predicate) {
+        // matching elements are put from the start of the buffer, the others
+        // from its end (thus in reverse order)
+        final long[] buffer = new long[array.length];
+        int matching = 0;
+        int unmatching = buffer.length;
+        for (int i = 0; i < array.length; i++) {
+            final long item = array[i];
+            if (predicate.eval(item)) {
+                buffer[matching++] = item;
+            } else {
+                buffer[--unmatching] = item;
+            }
+        }
+        final long[] unmatchingArray = new long[buffer.length - unmatching];
+        for (int i = 0; i < unmatchingArray.length; i++) {
+            unmatchingArray[i] = buffer[buffer.length - 1 - i];
+        }
+        return new Pair<long[]>(Arrays.copyOf(buffer, matching), unmatchingArray);
+    }
+
+    /**
+     * Counts the number of elements in the specified array which satisfy a
+     * predicate.
+     *
+     * @param array the array to count elements from.
+     * @param predicate the predicate used to test elements.
+     * @return the number of elements satisfying the specified predicate.
+     */
+    public static int count(double[] array, DoublePredicate predicate) {
+        int result = 0;
+        for (int i = 0; i < array.length; i++) {
+            if (predicate.eval(array[i])) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Selects all elements of the specified array which satisfy a predicate.
+     *
+     * @param array the array to filter.
+     * @param predicate the predicate used to test elements.
+     * @return a new array consisting of all elements of the specified array
+     * that satisfy the given predicate, in the same order.
+     */
+    public static double[] filter(double[] array, DoublePredicate predicate) {
+        final double[] buffer = new double[array.length];
+        int size = 0;
+        for (int i = 0; i < array.length; i++) {
+            final double item = array[i];
+            if (predicate.eval(item)) {
+                buffer[size++] = item;
+            }
+        }
+        return size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+    }
+
+    /**
+     * Finds index of first element satisfying some predicate.
+     *
+     * @param array the array to search.
+     * @param predicate the predicate used to test elements.
+     * @return the index of the first element of the specified array that
+     * satisfies the given predicate, or -1, if none exists.
+     */
+    public static int indexWhere(double[] array, DoublePredicate predicate) {
+        for (int i = 0; i < array.length; i++) {
+            if (predicate.eval(array[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Partitions the specified array in two arrays according to a predicate.
+     *
+     * @param array the array to partition.
+     * @param predicate the predicate on which to partition.
+     * @return a pair of arrays: the first one consists of all elements that
+     * satisfy the given predicate and the second one consists of all elements
+     * that don't. The relative order of the elements in the resulting arrays
+     * is the same as in the original array.
+     */
+    public static Pair<double[]> partition(double[] array, DoublePredicate predicate) {
+        // matching elements are put from the start of the buffer, the others
+        // from its end (thus in reverse order)
+        final double[] buffer = new double[array.length];
+        int matching = 0;
+        int unmatching = buffer.length;
+        for (int i = 0; i < array.length; i++) {
+            final double item = array[i];
+            if (predicate.eval(item)) {
+                buffer[matching++] = item;
+            } else {
+                buffer[--unmatching] = item;
+            }
+        }
+        final double[] unmatchingArray = new double[buffer.length - unmatching];
+        for (int i = 0; i < unmatchingArray.length; i++) {
+            unmatchingArray[i] = buffer[buffer.length - 1 - i];
+        }
+        return new Pair<double[]>(Arrays.copyOf(buffer, matching), unmatchingArray);
+    }
+
+    /**
+     * Counts the number of rows in the specified batch which satisfy a
+     * predicate.
+     *
+     * @param batch the batch to count rows from.
+     * @param predicate the predicate used to test rows.
+     * @return the number of rows satisfying the specified predicate.
+     */
+    public static int count(ColumnBatch batch, ColumnPredicate predicate) {
+        return PrimitiveMasks.bitCount(select(batch, predicate));
+    }
+
+    /**
+     * Selects all rows of the specified batch which satisfy a predicate.
+     *
+     * @param batch the batch to filter.
+     * @param predicate the predicate used to test rows.
+     * @return a new batch consisting of all rows of the specified batch that
+     * satisfy the given predicate, in the same order.
+     */
+    public static ColumnBatch filter(ColumnBatch batch, ColumnPredicate predicate) {
+        final long[] selection = select(batch, predicate);
+        return batch.gather(selection, PrimitiveMasks.bitCount(selection));
+    }
+
+    /**
+     * Returns the indexes of the rows of the specified batch which satisfy a
+     * predicate, without copying the rows.
+     *
+     * @param batch the batch to select rows from.
+     * @param predicate the predicate used to test rows.
+     * @return a new array of the indexes of the rows satisfying the specified
+     * predicate, in ascending order.
+     */
+    public static int[] indexes(ColumnBatch batch, ColumnPredicate predicate) {
+        final long[] selection = select(batch, predicate);
+        final int[] result = new int[PrimitiveMasks.bitCount(selection)];
+        int size = 0;
+        for (int w = 0; w < selection.length; w++) {
+            for (long word = selection[w]; word != 0; word &= word - 1) {
+                result[size++] = (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Partitions the specified batch in two batches according to a predicate.
+     *
+     * @param batch the batch to partition.
+     * @param predicate the predicate on which to partition.
+     * @return a pair of batches: the first one consists of all rows that
+     * satisfy the given predicate and the second one consists of all rows
+     * that don't. The relative order of the rows in the resulting batches is
+     * the same as in the original batch.
+     */
+    public static Pair<ColumnBatch> partition(ColumnBatch batch, ColumnPredicate predicate) {
+        final long[] matching = select(batch, predicate);
+        final long[] unmatching = new long[matching.length];
+        for (int w = 0; w < matching.length; w++) {
+            unmatching[w] = ~matching[w] & PrimitiveMasks.tail(batch.size() - (w << 6));
+        }
+        final int count = PrimitiveMasks.bitCount(matching);
+        return new Pair<ColumnBatch>(
+            batch.gather(matching, count),
+            batch.gather(unmatching, batch.size() - count));
+    }
+
+    private static long[] select(ColumnBatch batch, ColumnPredicate predicate) {
+        assertNotNull(batch, "batch");
+        assertNotNull(predicate, "predicate");
+        return predicate.select(batch);
+    }
+
+    // util method
+    static void assertNotNull(Object object, String name) {
+        if(object == null) {
+            throw new NullPointerException(name + " is null");
+        }
+    }
+
+    private PrimitivePredicates() {
+    }
+}
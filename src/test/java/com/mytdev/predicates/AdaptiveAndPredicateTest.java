@@ -0,0 +1,137 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yann D'Isanto
+ */
+public class AdaptiveAndPredicateTest {
+
+    private static final Predicate TRUE = TruePredicate.get();
+
+    private static final Predicate FALSE = FalsePredicate.get();
+
+    @Test
+    public void testLogicalANDOperatorApplication() {
+        // Arrange
+        final Predicate[] table = {
+            new AdaptiveAndPredicate(1, 1, FALSE, FALSE),
+            new AdaptiveAndPredicate(1, 1, FALSE, TRUE),
+            new AdaptiveAndPredicate(1, 1, TRUE, FALSE),
+            new AdaptiveAndPredicate(1, 1, TRUE, TRUE)
+        };
+        final boolean[] resultTable = new boolean[table.length];
+
+        // Act
+        for (int i = 0; i < table.length; i++) {
+            for (int j = 0; j < 10; j++) {
+                resultTable[i] = table[i].eval("a candidate");
+            }
+        }
+
+        // Assert
+        assertEquals(false, resultTable[0]);
+        assertEquals(false, resultTable[1]);
+        assertEquals(false, resultTable[2]);
+        assertEquals(true, resultTable[3]);
+    }
+
+    @Test
+    public void testDecisivePredicateIsMovedFirst() {
+        // Arrange
+        final Predicate p1 = constant(true);
+        final Predicate p2 = constant(true);
+        final Predicate p3 = constant(false);
+        final AdaptiveAndPredicate predicate = new AdaptiveAndPredicate(1, 100, p1, p2, p3);
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            predicate.eval("a candidate");
+        }
+
+        // Assert
+        assertSame(p3, predicate.evaluationOrder().get(0));
+        assertEquals(Arrays.asList(p1, p2, p3), predicate.predicates);
+    }
+
+    @Test
+    public void testConcurrentEvaluationsWhileReordering() throws Exception {
+        // Arrange
+        final Predicate<Integer> even = new AbstractPredicate<Integer>() {
+
+            public boolean eval(Integer candidate) {
+                return candidate % 2 == 0;
+            }
+        };
+        final Predicate<Integer> multipleOf3 = new AbstractPredicate<Integer>() {
+
+            public boolean eval(Integer candidate) {
+                return candidate % 3 == 0;
+            }
+        };
+        final Predicate<Integer> predicate = new AdaptiveAndPredicate<Integer>(2, 8, even, multipleOf3);
+        final Predicate<Integer> expected = new AndPredicate<Integer>(even, multipleOf3);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final List<Future<Integer>> mismatches = new ArrayList<Future<Integer>>();
+
+        // Act
+        for (int t = 0; t < 4; t++) {
+            mismatches.add(executor.submit(new Callable<Integer>() {
+
+                public Integer call() {
+                    int result = 0;
+                    for (int i = 0; i < 100000; i++) {
+                        if (predicate.eval(i) != expected.eval(i)) {
+                            result++;
+                        }
+                    }
+                    return result;
+                }
+            }));
+        }
+
+        // Assert
+        for (Future<Integer> future : mismatches) {
+            assertEquals(Integer.valueOf(0), future.get());
+        }
+        executor.shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveSamplingPeriodFailsConstruction() {
+        new AdaptiveAndPredicate(0, 1, TRUE, TRUE);
+    }
+
+    private static Predicate constant(final boolean result) {
+        return new AbstractPredicate() {
+
+            public boolean eval(Object candidate) {
+                return result;
+            }
+        };
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yann D'Isanto
+ */
+public class AsyncAndPredicateTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Test of evalAsync method, of class AsyncAndPredicate.
+     */
+    @Test
+    public void testPredicatesAreEvaluatedConcurrently() throws Exception {
+        // Arrange
+        final CountDownLatch started = new CountDownLatch(2);
+        final Predicate<Object> waitingForOther = new AbstractPredicate<Object>() {
+
+            public boolean eval(Object candidate) {
+                started.countDown();
+                try {
+                    return started.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    return false;
+                }
+            }
+        };
+        final AsyncPredicate<Object> predicate = new AsyncAndPredicate<Object>(
+            Predicates.async(waitingForOther, executor),
+            Predicates.async(waitingForOther, executor));
+
+        // Act
+        final boolean result = predicate.evalAsync("a candidate").get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertTrue(result);
+    }
+
+    @Test
+    public void testFalseResultCancelsRunningEvaluations() throws Exception {
+        // Arrange
+        final CountDownLatch blocking = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final Predicate<Object> slow = new AbstractPredicate<Object>() {
+
+            public boolean eval(Object candidate) {
+                blocking.countDown();
+                try {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+                } catch (InterruptedException ex) {
+                    interrupted.countDown();
+                }
+                return true;
+            }
+        };
+        final Predicate<Object> fastFalse = new AbstractPredicate<Object>() {
+
+            public boolean eval(Object candidate) {
+                try {
+                    blocking.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return false;
+            }
+        };
+        final AsyncPredicate<Object> predicate = new AsyncAndPredicate<Object>(
+            Predicates.async(slow, executor),
+            Predicates.async(fastFalse, executor));
+
+        // Act
+        final boolean result = predicate.evalAsync("a candidate").get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertFalse(result);
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFailureFailsComposite() throws Exception {
+        // Arrange
+        final Predicate<Object> failing = new AbstractPredicate<Object>() {
+
+            public boolean eval(Object candidate) {
+                throw new IllegalStateException("store unavailable");
+            }
+        };
+        final AsyncPredicate<Object> predicate = new AsyncAndPredicate<Object>(
+            Predicates.async(TruePredicate.get(), executor),
+            Predicates.async(failing, executor));
+
+        // Act
+        try {
+            predicate.evalAsync("a candidate").get(10, TimeUnit.SECONDS);
+            fail("failure expected");
+        } catch (ExecutionException ex) {
+            // Assert
+            assertTrue(ex.getCause() instanceof IllegalStateException);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yann D'Isanto
+ */
+public class AsyncOrPredicateTest {
+
+    /**
+     * Test of evalAsync method, of class AsyncOrPredicate.
+     */
+    @Test
+    public void testTrueResultCompletesBeforeOtherEvaluations() throws Exception {
+        // Arrange
+        final CompletableFuture<Boolean> pending = new CompletableFuture<Boolean>();
+        final AsyncPredicate<Object> predicate = new AsyncOrPredicate<Object>(
+            constant(pending),
+            constant(CompletableFuture.completedFuture(true)));
+
+        // Act
+        final boolean result = predicate.evalAsync("a candidate").get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertTrue(result);
+        assertTrue(pending.isCancelled());
+    }
+
+    @Test
+    public void testAllFalse() throws Exception {
+        // Arrange
+        final AsyncPredicate<Object> predicate = new AsyncOrPredicate<Object>(
+            constant(CompletableFuture.completedFuture(false)),
+            constant(CompletableFuture.completedFuture(false)),
+            constant(CompletableFuture.completedFuture(false)));
+
+        // Act
+        final boolean result = predicate.evalAsync("a candidate").get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertFalse(result);
+    }
+
+    @Test
+    public void testCancellationIsPropagated() {
+        // Arrange
+        final CompletableFuture<Boolean> pending = new CompletableFuture<Boolean>();
+        final AsyncPredicate<Object> predicate = new AsyncOrPredicate<Object>(
+            constant(pending),
+            constant(new CompletableFuture<Boolean>()));
+
+        // Act
+        predicate.evalAsync("a candidate").cancel(true);
+
+        // Assert
+        assertTrue(pending.isCancelled());
+    }
+
+    @Test
+    public void testNullResultFailsComposite() throws Exception {
+        // Arrange
+        final CompletableFuture<Boolean> pending = new CompletableFuture<Boolean>();
+        final AsyncPredicate<Object> predicate = new AsyncOrPredicate<Object>(
+            constant(pending),
+            constant(CompletableFuture.<Boolean>completedFuture(null)));
+
+        // Act
+        try {
+            predicate.evalAsync("a candidate").get(10, TimeUnit.SECONDS);
+            fail("failure expected");
+        } catch (ExecutionException ex) {
+            // Assert
+            assertTrue(ex.getCause() instanceof NullPointerException);
+            assertTrue(pending.isCancelled());
+        }
+    }
+
+    private static AsyncPredicate<Object> constant(final CompletableFuture<Boolean> future) {
+        return new AsyncPredicate<Object>() {
+
+            public CompletableFuture<Boolean> evalAsync(Object candidate) {
+                return future;
+            }
+        };
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import com.mytdev.predicates.BddPredicate.VariableOrdering;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yann D'Isanto
+ */
+public class BddCompilerTest {
+
+    private static final int ATOMS = 6;
+
+    @Test
+    public void testDiagramIsEquivalent() {
+        // Arrange
+        final Random random = new Random(42);
+        final Predicate<Integer>[] atoms = bits(ATOMS);
+        for (VariableOrdering ordering : VariableOrdering.values()) {
+            for (int tree = 0; tree < 100; tree++) {
+                final Predicate<Integer> predicate = randomTree(random, atoms, 4);
+
+                // Act
+                final Predicate<Integer> diagram = Predicates.bdd(predicate, ordering, BddPredicate.DEFAULT_MAX_NODES);
+
+                // Assert
+                assertTrue(diagram instanceof BddPredicate);
+                for (int candidate = 0; candidate < 1 << ATOMS; candidate++) {
+                    assertEquals(predicate.eval(candidate), diagram.eval(candidate));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testAtomsAreEvaluatedOncePerCandidate() {
+        // Arrange
+        final int[] evaluations = new int[ATOMS];
+        final Predicate<Integer>[] atoms = bits(ATOMS);
+        for (int i = 0; i < ATOMS; i++) {
+            final Predicate<Integer> atom = atoms[i];
+            final int index = i;
+            atoms[i] = new AbstractPredicate<Integer>() {
+
+                public boolean eval(Integer candidate) {
+                    evaluations[index]++;
+                    return atom.eval(candidate);
+                }
+            };
+        }
+        final Predicate<Integer> predicate = atoms[0].and(atoms[1])
+            .or(atoms[0].and(atoms[2]))
+            .or(atoms[1].and(atoms[2].not()))
+            .or(atoms[0].not().and(atoms[1].not(), atoms[2]));
+        final Predicate<Integer> diagram = Predicates.bdd(predicate);
+
+        for (int candidate = 0; candidate < 8; candidate++) {
+            final boolean expected = predicate.eval(candidate);
+            Arrays.fill(evaluations, 0);
+
+            // Act
+            final boolean result = diagram.eval(candidate);
+
+            // Assert
+            assertEquals(expected, result);
+            for (int count : evaluations) {
+                assertTrue(count <= 1);
+            }
+        }
+    }
+
+    @Test
+    public void testDiagramIsReduced() {
+        // Arrange
+        final Predicate<Integer>[] atoms = bits(2);
+        final Predicate<Integer> predicate = atoms[0].and(atoms[1]).or(atoms[0].and(atoms[1].not()));
+
+        // Act
+        final BddPredicate<Integer> diagram = (BddPredicate<Integer>) Predicates.bdd(predicate);
+
+        // Assert
+        assertEquals(3, diagram.nodeCount());
+        assertFalse(diagram.eval(2));
+        assertTrue(diagram.eval(3));
+    }
+
+    @Test
+    public void testContradictionIsConstant() {
+        // Arrange
+        final Predicate<Integer>[] atoms = bits(1);
+
+        // Act
+        final BddPredicate<Integer> diagram = (BddPredicate<Integer>) Predicates.bdd(atoms[0].and(atoms[0].not()));
+
+        // Assert
+        assertEquals(2, diagram.nodeCount());
+        assertFalse(diagram.eval(0));
+        assertFalse(diagram.eval(1));
+    }
+
+    @Test
+    public void testFrequencyOrdering() {
+        // Arrange
+        final Predicate<Integer>[] atoms = bits(3);
+        final Predicate<Integer> predicate = atoms[0].and(atoms[1]).or(atoms[2].and(atoms[1]));
+
+        // Act
+        final BddPredicate<Integer> diagram = (BddPredicate<Integer>) Predicates.bdd(
+            predicate, VariableOrdering.FREQUENCY, BddPredicate.DEFAULT_MAX_NODES);
+
+        // Assert
+        assertEquals(Arrays.asList(atoms[1], atoms[0], atoms[2]), diagram.variableOrder());
+    }
+
+    @Test
+    public void testCostOrdering() {
+        // Arrange
+        final Predicate<Object> expensive = TestUtils.createPredicate(10, 0.5);
+        final Predicate<Object> cheap = TestUtils.createPredicate(1, 0.5);
+        final Predicate<Object> unknown = TestUtils.createPredicate();
+
+        // Act
+        final BddPredicate<Object> diagram = (BddPredicate<Object>) Predicates.bdd(
+            expensive.or(unknown, cheap), VariableOrdering.COST, BddPredicate.DEFAULT_MAX_NODES);
+
+        // Assert
+        assertEquals(Arrays.asList(unknown, cheap, expensive), diagram.variableOrder());
+    }
+
+    @Test
+    public void testTooLargeDiagramFallsBackToTheTree() {
+        // Arrange
+        final Predicate<Integer>[] atoms = bits(ATOMS);
+        final Predicate<Integer> predicate = atoms[0].and(atoms[1]).or(atoms[2].and(atoms[3]));
+
+        // Act
+        final Predicate<Integer> result = Predicates.bdd(predicate, VariableOrdering.DECLARATION, 4);
+
+        // Assert
+        assertSame(predicate, result);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaximumSize() {
+        Predicates.bdd(bits(1)[0], VariableOrdering.DECLARATION, 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Predicate<Integer>[] bits(int count) {
+        final Predicate<Integer>[] result = new Predicate[count];
+        for (int i = 0; i < count; i++) {
+            final int bit = i;
+            result[i] = new AbstractPredicate<Integer>() {
+
+                public boolean eval(Integer candidate) {
+                    return (candidate & 1 << bit) != 0;
+                }
+            };
+        }
+        return result;
+    }
+
+    private static Predicate<Integer> randomTree(Random random, Predicate<Integer>[] atoms, int depth) {
+        final int kind = depth == 0 ? 5 + random.nextInt(4) : random.nextInt(9);
+        switch (kind) {
+            case 0:
+            case 1:
+                return randomTree(random, atoms, depth - 1).and(randomTree(random, atoms, depth - 1),
+                    randomTree(random, atoms, depth - 1));
+            case 2:
+            case 3:
+                return randomTree(random, atoms, depth - 1).or(randomTree(random, atoms, depth - 1));
+            case 4:
+                return randomTree(random, atoms, depth - 1).not();
+            case 8:
+                return random.nextBoolean() ? TruePredicate.<Integer>get() : FalsePredicate.<Integer>get();
+            default:
+                return atoms[random.nextInt(atoms.length)];
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yann D'Isanto
+ */
+public class CachingPredicateTest {
+
+    @Test
+    public void testResultsAreCached() {
+        // Arrange
+        final CountingPredicate decorated = new CountingPredicate();
+        final CachingPredicate<String> predicate = new CachingPredicate<String>(decorated, 100);
+
+        // Act
+        final boolean r1 = predicate.eval("ab");
+        final boolean r2 = predicate.eval(new String("ab"));
+        final boolean r3 = predicate.eval("abc");
+        final boolean r4 = predicate.eval(null);
+        final boolean r5 = predicate.eval(null);
+
+        // Assert
+        assertTrue(r1);
+        assertTrue(r2);
+        assertFalse(r3);
+        assertFalse(r4);
+        assertFalse(r5);
+        assertEquals(3, decorated.evaluations.get());
+        assertEquals(2, predicate.hitCount());
+        assertEquals(3, predicate.missCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedResultsAreEvicted() {
+        // Arrange
+        final CountingPredicate decorated = new CountingPredicate();
+        final CachingPredicate<String> predicate = new CachingPredicate<String>(decorated, 1);
+
+        // Act
+        predicate.eval("a");
+        predicate.eval("b");
+        predicate.eval("a");
+
+        // Assert
+        assertEquals(3, decorated.evaluations.get());
+        assertEquals(2, predicate.evictionCount());
+        assertEquals(1, predicate.size());
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        // Arrange
+        final CachingPredicate<String> predicate = new CachingPredicate<String>(new CountingPredicate(), 64);
+
+        // Act
+        for (int i = 0; i < 10000; i++) {
+            predicate.eval(Integer.toString(i));
+        }
+
+        // Assert
+        assertTrue(predicate.size() <= 64);
+        assertEquals(10000 - predicate.size(), predicate.evictionCount());
+    }
+
+    @Test
+    public void testResultsExpireAfterWrite() throws InterruptedException {
+        // Arrange
+        final CountingPredicate decorated = new CountingPredicate();
+        final CachingPredicate<String> predicate = new CachingPredicate<String>(
+            decorated, 100, 1, TimeUnit.MILLISECONDS, false);
+
+        // Act
+        predicate.eval("a");
+        Thread.sleep(20);
+        predicate.eval("a");
+
+        // Assert
+        assertEquals(2, decorated.evaluations.get());
+        assertEquals(0, predicate.hitCount());
+    }
+
+    @Test
+    public void testWeakKeysAreComparedByIdentity() {
+        // Arrange
+        final CountingPredicate decorated = new CountingPredicate();
+        final CachingPredicate<String> predicate = new CachingPredicate<String>(
+            decorated, 100, 0, TimeUnit.SECONDS, true);
+        final String candidate = "ab";
+
+        // Act
+        predicate.eval(candidate);
+        predicate.eval(candidate);
+        predicate.eval(new String(candidate));
+
+        // Assert
+        assertEquals(2, decorated.evaluations.get());
+        assertEquals(1, predicate.hitCount());
+    }
+
+    @Test
+    public void testSizeNeverExceedsMaximumSize() {
+        // Arrange
+        final CountingPredicate decorated = new CountingPredicate();
+        final CachingPredicate<String> predicate = new CachingPredicate<String>(decorated, 17);
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            predicate.eval("candidate " + i);
+        }
+
+        // Assert
+        assertTrue(predicate.size() + " cached results", predicate.size() <= 17);
+        assertEquals(1000 - predicate.size(), predicate.evictionCount());
+    }
+
+    @Test
+    public void testWeakKeysCacheNull() {
+        // Arrange
+        final CountingPredicate decorated = new CountingPredicate();
+        final CachingPredicate<String> predicate = new CachingPredicate<String>(
+            decorated, 100, 0, TimeUnit.SECONDS, true);
+
+        // Act
+        predicate.eval(null);
+        predicate.eval(null);
+
+        // Assert
+        assertEquals(1, decorated.evaluations.get());
+        assertEquals(1, predicate.hitCount());
+        assertEquals(1, predicate.missCount());
+        assertEquals(1, predicate.size());
+    }
+
+    @Test
+    public void testInvalidateAll() {
+        // Arrange
+        final CountingPredicate decorated = new CountingPredicate();
+        final CachingPredicate<String> predicate = new CachingPredicate<String>(decorated, 100);
+        predicate.eval("a");
+
+        // Act
+        predicate.invalidateAll();
+        predicate.eval("a");
+
+        // Assert
+        assertEquals(2, decorated.evaluations.get());
+        assertEquals(1, predicate.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveMaximumSizeFailsConstruction() {
+        new CachingPredicate<String>(new CountingPredicate(), 0);
+    }
+
+    /**
+     * A predicate holding for the strings of even length and counting its
+     * evaluations.
+     */
+    private static final class CountingPredicate extends AbstractPredicate<String> {
+
+        private final AtomicInteger evaluations = new AtomicInteger();
+
+        public boolean eval(String candidate) {
+            evaluations.incrementAndGet();
+            return candidate != null && candidate.length() % 2 == 0;
+        }
+    }
+}
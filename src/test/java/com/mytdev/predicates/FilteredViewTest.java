@@ -0,0 +1,201 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yann D'Isanto
+ */
+public class FilteredViewTest {
+
+    private static final Predicate<int[]> POSITIVE = new AbstractPredicate<int[]>() {
+
+        public boolean eval(int[] candidate) {
+            return candidate[0] > 0;
+        }
+    };
+
+    private static final Predicate<Integer> EVEN = new AbstractPredicate<Integer>() {
+
+        public boolean eval(Integer candidate) {
+            return candidate % 2 == 0;
+        }
+    };
+
+    @Test
+    public void testSourceElementsAreSplit() {
+        // Arrange
+        final List<Integer> source = new ArrayList<Integer>(Arrays.asList(1, 2, 3, 4, 4));
+
+        // Act
+        final FilteredView<Integer> view = new FilteredView<Integer>(source, EVEN);
+
+        // Assert
+        assertEquals(3, view.matchingCount());
+        assertEquals(2, view.unmatchingCount());
+        assertEquals(Arrays.asList(2, 4, 4), sorted(view.matching()));
+        assertEquals(Arrays.asList(1, 3), sorted(view.partition()._2()));
+        assertTrue(view.matches(4));
+        assertFalse(view.matches(3));
+    }
+
+    /**
+     * Test of add and remove methods, of class FilteredView.
+     */
+    @Test
+    public void testAddAndRemove() {
+        // Arrange
+        final List<Integer> source = new ArrayList<Integer>();
+        final FilteredView<Integer> view = new FilteredView<Integer>(source, EVEN);
+        final List<String> events = new ArrayList<String>();
+        view.addListener(recording(events));
+
+        // Act
+        view.add(2);
+        view.add(3);
+        view.add(2);
+        view.remove(2);
+        view.remove(3);
+        view.remove(5);
+
+        // Assert
+        assertEquals(Arrays.asList(2), source);
+        assertEquals(1, view.matchingCount());
+        assertEquals(0, view.unmatchingCount());
+        assertEquals(Arrays.asList("+2", "+2", "-2"), events);
+    }
+
+    /**
+     * Test of refresh method, of class FilteredView.
+     */
+    @Test
+    public void testRefreshReevaluatesChangedElement() {
+        // Arrange
+        final int[] element = {-1};
+        final FilteredView<int[]> view = new FilteredView<int[]>(new ArrayList<int[]>(), POSITIVE);
+        view.add(element);
+        final AtomicBoolean notified = new AtomicBoolean();
+        view.addListener(new FilteredView.Listener<int[]>() {
+
+            public void matchingAdded(int[] added) {
+                notified.set(added == element);
+            }
+
+            public void matchingRemoved(int[] removed) {
+            }
+        });
+
+        // Act
+        final boolean unchanged = view.refresh(element);
+        element[0] = 1;
+        final boolean changed = view.refresh(element);
+
+        // Assert
+        assertFalse(unchanged);
+        assertTrue(changed);
+        assertTrue(notified.get());
+        assertEquals(1, view.matchingCount());
+        assertEquals(0, view.unmatchingCount());
+        assertFalse(view.refresh(new int[] {1}));
+    }
+
+    @Test
+    public void testElementsAreEvaluatedOnce() {
+        // Arrange
+        final int[] evaluations = {0};
+        final FilteredView<Integer> view = new FilteredView<Integer>(new ArrayList<Integer>(),
+            new AbstractPredicate<Integer>() {
+
+                public boolean eval(Integer candidate) {
+                    evaluations[0]++;
+                    return true;
+                }
+            });
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            view.add(i);
+            view.matchingCount();
+        }
+        for (int i = 0; i < 500; i++) {
+            view.remove(i);
+        }
+
+        // Assert
+        assertEquals(1000, evaluations[0]);
+        assertEquals(500, view.matchingCount());
+    }
+
+    @Test
+    public void testConcurrentReadersSeeConsistentSubsets() throws InterruptedException {
+        // Arrange
+        final FilteredView<Integer> view = new FilteredView<Integer>(new ArrayList<Integer>(), EVEN);
+        final AtomicBoolean failed = new AtomicBoolean();
+        final Thread reader = new Thread(new Runnable() {
+
+            public void run() {
+                for (int i = 0; i < 200; i++) {
+                    for (Integer element : view.matching()) {
+                        if (element % 2 != 0) {
+                            failed.set(true);
+                        }
+                    }
+                }
+            }
+        });
+
+        // Act
+        reader.start();
+        for (int i = 0; i < 20000; i++) {
+            view.add(i);
+        }
+        reader.join();
+
+        // Assert
+        assertFalse(failed.get());
+        assertEquals(10000, view.matchingCount());
+    }
+
+    private static <T extends Comparable<T>> List<T> sorted(Iterable<T> elements) {
+        final List<T> result = new ArrayList<T>();
+        for (T element : elements) {
+            result.add(element);
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    private static FilteredView.Listener<Integer> recording(final List<String> events) {
+        return new FilteredView.Listener<Integer>() {
+
+            public void matchingAdded(Integer element) {
+                events.add("+" + element);
+            }
+
+            public void matchingRemoved(Integer element) {
+                events.add("-" + element);
+            }
+        };
+    }
+}
@@ -40,5 +40,30 @@ public class NotPredicateTest {
         assertFalse(result);
         
     }
+
+    @Test
+    public void testCostHint() {
+        // Arrange
+        final NotPredicate predicate = new NotPredicate(TestUtils.createPredicate(3, 0.25));
+
+        // Act
+        // Assert
+        assertEquals(3, predicate.cost(), 1e-9);
+        assertEquals(0.75, predicate.probability(), 1e-9);
+    }
+
+    @Test
+    public void testStructuralEquality() {
+        // Arrange
+        final Predicate p1 = TestUtils.createPredicate();
+        final Predicate predicate = new NotPredicate(p1);
+
+        // Act
+        // Assert
+        assertEquals(predicate, new NotPredicate(p1));
+        assertEquals(predicate.hashCode(), new NotPredicate(p1).hashCode());
+        assertFalse(predicate.equals(new NotPredicate(TestUtils.createPredicate())));
+        assertFalse(predicate.equals(p1));
+    }
     
 }
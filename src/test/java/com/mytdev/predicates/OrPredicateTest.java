@@ -15,6 +15,10 @@
  */
 package com.mytdev.predicates;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
 import org.junit.Test;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -83,4 +87,121 @@ public class OrPredicateTest {
         verify(p2).eval(candidate);
         verify(p3, times(0)).eval(candidate);
     }
+
+    @Test
+    public void testNestedOrPredicatesAreFlattened() {
+        // Arrange
+        final Predicate p1 = TestUtils.createPredicate();
+        final Predicate p2 = TestUtils.createPredicate();
+        final Predicate p3 = TestUtils.createPredicate();
+        final Predicate p4 = TestUtils.createPredicate();
+        final Predicate p5 = TestUtils.createPredicate();
+
+        // Act
+        final OrPredicate predicate = new OrPredicate(
+            new OrPredicate(p1, p2), p3, new OrPredicate(p4, p5));
+
+        // Assert
+        assertEquals(Arrays.asList(p1, p2, p3, p4, p5), predicate.predicates);
+    }
+
+    @Test
+    public void testChainedOrIsFlattened() {
+        // Arrange
+        final Predicate p1 = TestUtils.createPredicate();
+        final Predicate p2 = TestUtils.createPredicate();
+        final Predicate p3 = TestUtils.createPredicate();
+        final Predicate p4 = TestUtils.createPredicate();
+
+        // Act
+        final Predicate predicate = p1.or(p2).or(p3).or(p4);
+
+        // Assert
+        assertEquals(Arrays.asList(p1, p2, p3, p4), ((OrPredicate) predicate).predicates);
+    }
+
+    @Test
+    public void testNestedAndPredicatesAreNotFlattened() {
+        // Arrange
+        final Predicate p1 = TestUtils.createPredicate();
+        final Predicate p2 = TestUtils.createPredicate();
+        final Predicate p3 = TestUtils.createPredicate();
+        final Predicate nested = new AndPredicate(p2, p3);
+
+        // Act
+        final OrPredicate predicate = new OrPredicate(p1, nested);
+
+        // Assert
+        assertEquals(Arrays.asList(p1, nested), predicate.predicates);
+    }
+
+    @Test
+    public void testCostHintAggregation() {
+        // Arrange
+        final Predicate p1 = TestUtils.createPredicate(2, 0.5);
+        final Predicate p2 = TestUtils.createPredicate(4, 0.25);
+        final Predicate p3 = TestUtils.createPredicate();
+
+        // Act
+        final OrPredicate predicate = new OrPredicate(p1, p2, p3);
+
+        // Assert
+        assertEquals(2 + 0.5 * 4 + 0.5 * 0.75 * CostHint.DEFAULT_COST, predicate.cost(), 1e-9);
+        assertEquals(1 - 0.5 * 0.75 * (1 - CostHint.DEFAULT_PROBABILITY), predicate.probability(), 1e-9);
+    }
+
+    @Test
+    public void testBatchEvaluationOnlyEvaluatesStillUnselectedCandidates() {
+        // Arrange
+        final Integer[] candidates = {1, 2, 3, 4, 5, 6};
+        final List<Integer> evaluated = new ArrayList<Integer>();
+        final Predicate<Integer> even = new AbstractPredicate<Integer>() {
+
+            public boolean eval(Integer candidate) {
+                return candidate % 2 == 0;
+            }
+        };
+        final Predicate<Integer> recording = new AbstractPredicate<Integer>() {
+
+            public boolean eval(Integer candidate) {
+                evaluated.add(candidate);
+                return candidate < 5;
+            }
+        };
+        final BitSet selection = new BitSet();
+        selection.set(0, 5);
+
+        // Act
+        new OrPredicate<Integer>(even, recording).evalBatch(candidates, 0, 5, selection);
+
+        // Assert
+        assertEquals(Arrays.asList(1, 3, 5), evaluated);
+        for (int i = 0; i < candidates.length; i++) {
+            final boolean expected = i < 5 && new OrPredicate<Integer>(even, recording).eval(candidates[i]);
+            assertEquals(expected, selection.get(i));
+        }
+    }
+
+    @Test
+    public void testEvalDoesNotAllocate() {
+        // Arrange
+        final Predicate predicate = new OrPredicate(FALSE, FALSE, FALSE, FALSE);
+        final Object candidate = "a candidate";
+        final int evaluations = 100000;
+        final Runnable evalLoop = new Runnable() {
+
+            public void run() {
+                for (int i = 0; i < evaluations; i++) {
+                    predicate.eval(candidate);
+                }
+            }
+        };
+        evalLoop.run();
+
+        // Act
+        final long allocated = TestUtils.allocatedBytes(evalLoop);
+
+        // Assert
+        assertTrue("allocated " + allocated + " bytes", allocated < evaluations);
+    }
 }
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import com.mytdev.predicates.Predicates.Pair;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.AfterClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yann D'Isanto
+ */
+public class ParallelPredicatesTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    private static final Predicate<Integer> MULTIPLE_OF_3 = new AbstractPredicate<Integer>() {
+
+        public boolean eval(Integer candidate) {
+            return candidate % 3 == 0;
+        }
+    };
+
+    @AfterClass
+    public static void shutdownPool() {
+        POOL.shutdown();
+    }
+
+    /**
+     * Test of classify method, of class ParallelPredicates.
+     */
+    @Test
+    public void testClassify() {
+        // Arrange
+        final List<Integer> list = integers(new ArrayList<Integer>(), 100003);
+
+        // Act
+        final List<BitSet> result = Predicates.parallel(POOL, 0).classify(list, MULTIPLE_OF_3, greaterThan(50000));
+
+        // Assert
+        assertEquals(Predicates.classify(list, MULTIPLE_OF_3, greaterThan(50000)), result);
+    }
+
+    /**
+     * Test of count method, of class ParallelPredicates.
+     */
+    @Test
+    public void testCount() {
+        // Arrange
+        final List<Integer> list = integers(new ArrayList<Integer>(), 100003);
+
+        // Act
+        final int result = Predicates.parallel(POOL, 0).count(list, MULTIPLE_OF_3);
+
+        // Assert
+        assertEquals(Predicates.count(list, MULTIPLE_OF_3), result);
+    }
+
+    /**
+     * Test of countAll method, of class ParallelPredicates.
+     */
+    @Test
+    public void testCountAll() {
+        // Arrange
+        final List<Integer> list = integers(new ArrayList<Integer>(), 100003);
+
+        // Act
+        final int[] result = Predicates.parallel(POOL, 0).countAll(list, MULTIPLE_OF_3, greaterThan(50000));
+
+        // Assert
+        assertArrayEquals(new int[] {33335, 50002}, result);
+    }
+
+    /**
+     * Test of exists method, of class ParallelPredicates.
+     */
+    @Test
+    public void testExists() {
+        // Arrange
+        final List<Integer> list = integers(new ArrayList<Integer>(), 100003);
+        final ParallelPredicates parallel = Predicates.parallel(POOL, 0);
+
+        // Act
+        final boolean b1 = parallel.exists(list, greaterThan(100000));
+        final boolean b2 = parallel.exists(list, greaterThan(100003));
+
+        // Assert
+        assertTrue(b1);
+        assertFalse(b2);
+    }
+
+    /**
+     * Test of filter method, of class ParallelPredicates.
+     */
+    @Test
+    public void testFilterPreservesOrder() {
+        // Arrange
+        final List<Integer> list = integers(new ArrayList<Integer>(), 100003);
+
+        // Act
+        final List<Integer> result = Predicates.parallel(POOL, 0).filter(list, MULTIPLE_OF_3);
+
+        // Assert
+        assertEquals(Predicates.filter(list, MULTIPLE_OF_3), result);
+    }
+
+    /**
+     * Test of find method, of class ParallelPredicates.
+     */
+    @Test
+    public void testFindReturnsLeftmostMatch() {
+        // Arrange
+        final List<Integer> list = integers(new ArrayList<Integer>(), 100003);
+        final ParallelPredicates parallel = Predicates.parallel(POOL, 0);
+
+        // Act
+        final Integer result = parallel.find(list, greaterThan(70000));
+        final Integer none = parallel.find(list, greaterThan(100003));
+
+        // Assert
+        assertEquals(Integer.valueOf(70001), result);
+        assertNull(none);
+    }
+
+    /**
+     * Test of forall method, of class ParallelPredicates.
+     */
+    @Test
+    public void testForall() {
+        // Arrange
+        final List<Integer> list = integers(new ArrayList<Integer>(), 100003);
+        final ParallelPredicates parallel = Predicates.parallel(POOL, 0);
+
+        // Act
+        final boolean b1 = parallel.forall(list, greaterThan(-1));
+        final boolean b2 = parallel.forall(list, greaterThan(0));
+
+        // Assert
+        assertTrue(b1);
+        assertFalse(b2);
+    }
+
+    /**
+     * Test of indexWhere method, of class ParallelPredicates.
+     */
+    @Test
+    public void testIndexWhereReturnsLeftmostMatch() {
+        // Arrange
+        final List<Integer> list = integers(new ArrayList<Integer>(), 100003);
+        final ParallelPredicates parallel = Predicates.parallel(POOL, 0);
+
+        // Act
+        final int result = parallel.indexWhere(list, MULTIPLE_OF_3.and(greaterThan(50000)));
+        final int none = parallel.indexWhere(list, greaterThan(100003));
+
+        // Assert
+        assertEquals(50001, result);
+        assertEquals(-1, none);
+    }
+
+    @Test
+    public void testIndexWhereStopsAllTasksOnceLeftmostMatchIsKnown() {
+        // Arrange
+        final List<Integer> list = integers(new ArrayList<Integer>(), 1000000);
+        final AtomicInteger evaluations = new AtomicInteger();
+        final Predicate<Integer> predicate = new AbstractPredicate<Integer>() {
+
+            public boolean eval(Integer candidate) {
+                evaluations.incrementAndGet();
+                return candidate == 10;
+            }
+        };
+
+        // Act
+        final int result = Predicates.parallel(POOL, 0).indexWhere(list, predicate);
+
+        // Assert
+        assertEquals(10, result);
+        assertTrue("evaluations: " + evaluations, evaluations.get() < list.size() / 2);
+    }
+
+    /**
+     * Test of partition method, of class ParallelPredicates.
+     */
+    @Test
+    public void testPartitionPreservesOrder() {
+        // Arrange
+        final List<Integer> list = integers(new ArrayList<Integer>(), 100003);
+
+        // Act
+        final Pair<List<Integer>> result = Predicates.parallel(POOL, 0).partition(list, MULTIPLE_OF_3);
+
+        // Assert
+        final Pair<List<Integer>> expected = Predicates.partition(list, MULTIPLE_OF_3);
+        assertEquals(expected._1(), result._1());
+        assertEquals(expected._2(), result._2());
+    }
+
+    /**
+     * Test of partitionN method, of class ParallelPredicates.
+     */
+    @Test
+    public void testPartitionNPreservesOrder() {
+        // Arrange
+        final List<Integer> list = integers(new ArrayList<Integer>(), 100003);
+
+        // Act
+        final List<List<Integer>> result = Predicates.parallel(POOL, 0).partitionN(list, MULTIPLE_OF_3, greaterThan(50000));
+
+        // Assert
+        assertEquals(Predicates.partitionN(list, MULTIPLE_OF_3, greaterThan(50000)), result);
+    }
+
+    @Test
+    public void testSequentialCollectionsAndSmallListsAreSupported() {
+        // Arrange
+        final List<Integer> linkedList = integers(new LinkedList<Integer>(), 100003);
+        final List<Integer> smallList = integers(new ArrayList<Integer>(), 10);
+        final ParallelPredicates parallel = Predicates.parallel(POOL, 1000);
+
+        // Act
+        final List<Integer> linkedListResult = parallel.filter(linkedList, MULTIPLE_OF_3);
+        final List<Integer> smallListResult = parallel.filter(smallList, MULTIPLE_OF_3);
+
+        // Assert
+        assertEquals(Predicates.filter(linkedList, MULTIPLE_OF_3), linkedListResult);
+        assertEquals(Predicates.filter(smallList, MULTIPLE_OF_3), smallListResult);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeThresholdIsRejected() {
+        Predicates.parallel(POOL, -1);
+    }
+
+    private static Predicate<Integer> greaterThan(final int value) {
+        return new AbstractPredicate<Integer>() {
+
+            public boolean eval(Integer candidate) {
+                return candidate > value;
+            }
+        };
+    }
+
+    private static List<Integer> integers(List<Integer> list, int size) {
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yann D'Isanto
+ */
+public class PredicateCompilerTest {
+
+    @Test
+    public void testCompiledPredicateIsEquivalent() {
+        // Arrange
+        final Random random = new Random(42);
+        for (int tree = 0; tree < 200; tree++) {
+            final Predicate<Integer> predicate = randomTree(random, 4);
+
+            // Act
+            final Predicate<Integer> compiled = Predicates.compile(predicate);
+
+            // Assert
+            for (int candidate = 0; candidate < 64; candidate++) {
+                assertEquals(predicate.eval(candidate), compiled.eval(candidate));
+            }
+        }
+    }
+
+    @Test
+    public void testCompiledPredicateKeepsShortCircuitingBehavior() {
+        // Arrange
+        final List<String> evaluated = new ArrayList<String>();
+        final Predicate<Object> p1 = recording("p1", true, evaluated);
+        final Predicate<Object> p2 = recording("p2", false, evaluated);
+        final Predicate<Object> p3 = recording("p3", true, evaluated);
+        final Predicate<Object> p4 = recording("p4", true, evaluated);
+        final Predicate<Object> predicate = p1.and(p2.or(p3), p4.not()).or(p2);
+
+        // Act
+        final boolean result = Predicates.compile(predicate).eval("a candidate");
+
+        // Assert
+        assertEquals(predicate.eval("a candidate"), result);
+        assertEquals(Arrays.asList("p1", "p2", "p3", "p4", "p2"), evaluated.subList(0, 5));
+        assertEquals(evaluated.subList(0, 5), evaluated.subList(5, 10));
+    }
+
+    @Test
+    public void testCompiledPredicateIsNotTheTree() {
+        // Arrange
+        final Predicate<Object> predicate = TestUtils.createPredicate().and(TestUtils.createPredicate());
+
+        // Act
+        final Predicate<Object> compiled = Predicates.compile(predicate);
+
+        // Assert
+        assertNotSame(predicate, compiled);
+        assertTrue(compiled instanceof AbstractPredicate);
+        assertTrue(compiled.not().eval("a candidate") == !compiled.eval("a candidate"));
+    }
+
+    @Test
+    public void testOpaquePredicateIsReturnedAsIs() {
+        // Arrange
+        final Predicate<Object> predicate = TestUtils.createPredicate();
+
+        // Act
+        final Predicate<Object> compiled = Predicates.compile(predicate);
+
+        // Assert
+        assertSame(predicate, compiled);
+    }
+
+    @Test
+    public void testLargeTreeIsCompiled() {
+        // Arrange
+        final Predicate<Integer>[] leaves = leaves(1000);
+        final Predicate<Integer> predicate = new OrPredicate<Integer>(leaves[0], leaves[1],
+            Arrays.copyOfRange(leaves, 2, leaves.length));
+
+        // Act
+        final Predicate<Integer> compiled = Predicates.compile(predicate);
+
+        // Assert
+        assertNotSame(predicate, compiled);
+        for (int candidate = 0; candidate < 1200; candidate++) {
+            assertEquals(predicate.eval(candidate), compiled.eval(candidate));
+        }
+    }
+
+    @Test
+    public void testDeepMixedTreeIsCompiled() {
+        // Arrange
+        final Predicate<Integer>[] leaves = leaves(120);
+        Predicate<Integer> predicate = leaves[0];
+        for (int i = 1; i + 1 < leaves.length; i += 2) {
+            predicate = i % 4 == 1
+                ? leaves[i].or(predicate.not(), leaves[i + 1])
+                : leaves[i].not().and(predicate, leaves[i + 1].not());
+        }
+
+        // Act
+        final Predicate<Integer> compiled = Predicates.compile(predicate);
+
+        // Assert
+        assertNotSame(predicate, compiled);
+        for (int candidate = 0; candidate < 130; candidate++) {
+            assertEquals(predicate.eval(candidate), compiled.eval(candidate));
+        }
+    }
+
+    @Test
+    public void testTooLargeTreeFallsBackToTheTree() {
+        // Arrange
+        final Predicate<Integer>[] leaves = leaves(PredicateCompiler.MAX_LEAVES + 1);
+        final Predicate<Integer> predicate = new OrPredicate<Integer>(leaves[0], leaves[1],
+            Arrays.copyOfRange(leaves, 2, leaves.length));
+
+        // Act
+        final Predicate<Integer> compiled = Predicates.compile(predicate);
+
+        // Assert
+        assertSame(predicate, compiled);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Predicate<Integer>[] leaves(int count) {
+        final Predicate<Integer>[] result = new Predicate[count];
+        for (int i = 0; i < count; i++) {
+            final int value = i;
+            result[i] = new AbstractPredicate<Integer>() {
+
+                public boolean eval(Integer candidate) {
+                    return candidate == value;
+                }
+            };
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Predicate<Integer> randomTree(Random random, int depth) {
+        final int kind = depth == 0 ? 5 + random.nextInt(2) : random.nextInt(7);
+        switch (kind) {
+            case 0:
+            case 1:
+                return randomTree(random, depth - 1).and(randomTree(random, depth - 1), randomTree(random, depth - 1));
+            case 2:
+            case 3:
+                return randomTree(random, depth - 1).or(randomTree(random, depth - 1));
+            case 4:
+                return randomTree(random, depth - 1).not();
+            case 5:
+                final int divisor = 1 + random.nextInt(5);
+                return new AbstractPredicate<Integer>() {
+
+                    public boolean eval(Integer candidate) {
+                        return candidate % divisor == 0;
+                    }
+                };
+            default:
+                return random.nextBoolean() ? TruePredicate.<Integer>get() : FalsePredicate.<Integer>get();
+        }
+    }
+
+    private static Predicate<Object> recording(final String name, final boolean result, final List<String> evaluated) {
+        return new AbstractPredicate<Object>() {
+
+            public boolean eval(Object candidate) {
+                evaluated.add(name);
+                return result;
+            }
+        };
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import java.util.List;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yann D'Isanto
+ */
+public class PredicateInstrumentationTest {
+
+    private static final Predicate<Integer> EVEN = new AbstractPredicate<Integer>() {
+
+        public boolean eval(Integer candidate) {
+            return candidate % 2 == 0;
+        }
+    };
+
+    private static final Predicate<Integer> POSITIVE = new AbstractPredicate<Integer>() {
+
+        public boolean eval(Integer candidate) {
+            return candidate > 0;
+        }
+    };
+
+    /**
+     * Test of snapshot method, of class PredicateInstrumentation.
+     */
+    @Test
+    public void testSnapshot() {
+        // Arrange
+        final PredicateInstrumentation<Integer> instrumentation = Predicates.instrument("test",
+            new AndPredicate<Integer>(EVEN, new NotPredicate<Integer>(POSITIVE)), 1);
+        final Predicate<Integer> predicate = instrumentation.predicate();
+
+        // Act
+        for (int i = -5; i < 5; i++) {
+            assertEquals(i % 2 == 0 && i <= 0, predicate.eval(i));
+        }
+        final List<PredicateMetrics> snapshot = instrumentation.snapshot();
+
+        // Assert
+        assertEquals(4, snapshot.size());
+        assertMetrics(snapshot.get(0), "root", AndPredicate.class, 10, 3, 0);
+        assertMetrics(snapshot.get(1), "root/0", EVEN.getClass(), 10, 5, 0);
+        assertMetrics(snapshot.get(2), "root/1", NotPredicate.class, 5, 3, 5);
+        assertMetrics(snapshot.get(3), "root/1/0", POSITIVE.getClass(), 5, 2, 0);
+        for (PredicateMetrics metrics : snapshot) {
+            assertEquals(metrics.getEvaluationCount(), metrics.getSampledEvaluationCount());
+        }
+    }
+
+    private static void assertMetrics(PredicateMetrics metrics, String path, Class<?> type,
+        long evaluations, long trues, long skips) {
+        assertEquals(path, metrics.getPath());
+        assertEquals(type.getName(), metrics.getType());
+        assertEquals(evaluations, metrics.getEvaluationCount());
+        assertEquals(trues, metrics.getTrueCount());
+        assertEquals(skips, metrics.getSkipCount());
+    }
+
+    /**
+     * Test of setEnabled method, of class PredicateInstrumentation.
+     */
+    @Test
+    public void testDisabledInstrumentationRecordsNothing() {
+        // Arrange
+        final PredicateInstrumentation<Integer> instrumentation = Predicates.instrument("test",
+            new OrPredicate<Integer>(EVEN, POSITIVE));
+        instrumentation.setEnabled(false);
+
+        // Act
+        final boolean result = instrumentation.predicate().eval(3);
+
+        // Assert
+        assertTrue(result);
+        assertFalse(instrumentation.isEnabled());
+        for (PredicateMetrics metrics : instrumentation.snapshot()) {
+            assertEquals(0, metrics.getEvaluationCount());
+        }
+    }
+
+    /**
+     * Test of reset method, of class PredicateInstrumentation.
+     */
+    @Test
+    public void testReset() {
+        // Arrange
+        final PredicateInstrumentation<Integer> instrumentation = Predicates.instrument("test", EVEN);
+        instrumentation.predicate().eval(2);
+
+        // Act
+        instrumentation.reset();
+
+        // Assert
+        assertEquals(0, instrumentation.snapshot().get(0).getEvaluationCount());
+        assertEquals(0, instrumentation.snapshot().get(0).getTrueCount());
+    }
+
+    /**
+     * Test of registerMBeans method, of class PredicateInstrumentation.
+     */
+    @Test
+    public void testRegisterMBeans() throws Exception {
+        // Arrange
+        final MBeanServer server = MBeanServerFactory.newMBeanServer();
+        final PredicateInstrumentation<Integer> instrumentation = Predicates.instrument("my tree",
+            new AndPredicate<Integer>(EVEN, POSITIVE));
+        final ObjectName name = instrumentation.objectName("root/1");
+
+        // Act
+        instrumentation.registerMBeans(server);
+        instrumentation.predicate().eval(2);
+        instrumentation.predicate().eval(3);
+        final Object evaluations = server.getAttribute(name, "EvaluationCount");
+        final Object skips = server.getAttribute(name, "SkipCount");
+        instrumentation.unregisterMBeans(server);
+
+        // Assert
+        assertEquals(1L, evaluations);
+        assertEquals(1L, skips);
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveSamplingPeriodFailsInstrumentation() {
+        Predicates.instrument("test", EVEN, 0);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yann D'Isanto
+ */
+public class PredicateInternerTest {
+
+    /**
+     * Test of intern method, of class PredicateInterner.
+     */
+    @Test
+    public void testEqualSubtreesAreShared() {
+        // Arrange
+        final PredicateInterner interner = new PredicateInterner();
+        final Predicate<Object> p1 = TestUtils.createPredicate();
+        final Predicate<Object> p2 = TestUtils.createPredicate();
+        final Predicate<Object> p3 = TestUtils.createPredicate();
+        final Predicate<Object> first = new OrPredicate<Object>(new AndPredicate<Object>(p1, p2), p3);
+        final Predicate<Object> second = new OrPredicate<Object>(new NotPredicate<Object>(p3),
+            new AndPredicate<Object>(p1, p2));
+
+        // Act
+        final Predicate<Object> internedFirst = interner.intern(first);
+        final Predicate<Object> internedSecond = interner.intern(second);
+
+        // Assert
+        assertSame(first, internedFirst);
+        final Predicate<?> sharedSubtree = ((PredicateComposite<?>) internedFirst).predicateArray[0];
+        assertSame(sharedSubtree, ((PredicateComposite<?>) internedSecond).predicateArray[1]);
+        assertEquals(second, internedSecond);
+        assertSame(internedFirst, interner.intern(new OrPredicate<Object>(new AndPredicate<Object>(p1, p2), p3)));
+    }
+
+    /**
+     * Test of size method, of class PredicateInterner.
+     */
+    @Test
+    public void testSize() {
+        // Arrange
+        final PredicateInterner interner = new PredicateInterner();
+        final Predicate<Object> p1 = TestUtils.createPredicate();
+        final Predicate<Object> p2 = TestUtils.createPredicate();
+
+        // Act
+        interner.intern(new AndPredicate<Object>(p1, new NotPredicate<Object>(p2)));
+        interner.intern(new OrPredicate<Object>(p1, new NotPredicate<Object>(p2)));
+
+        // Assert
+        assertEquals(5, interner.size());
+        interner.clear();
+        assertEquals(0, interner.size());
+    }
+}
@@ -17,8 +17,18 @@
 package com.mytdev.predicates;
 
 import com.mytdev.predicates.Predicates.Pair;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -28,6 +38,104 @@ import static org.junit.Assert.*;
  */
 public class PredicatesTest {
    
+    /**
+     * Test of filterAsync method, of class Predicates.
+     */
+    @Test
+    public void testFilterAsyncBoundsEvaluationsInFlight() throws Exception {
+        // Arrange
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final Predicate<Integer> slowEven = new AbstractPredicate<Integer>() {
+
+            public boolean eval(Integer candidate) {
+                final int current = running.incrementAndGet();
+                int max = maxRunning.get();
+                while (current > max && !maxRunning.compareAndSet(max, current)) {
+                    max = maxRunning.get();
+                }
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return candidate % 2 == 0;
+            }
+        };
+        final List<Integer> list = range(100);
+
+        // Act
+        final List<Integer> result;
+        try {
+            result = Predicates.filterAsync(list, Predicates.async(slowEven, executor), 3).get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        assertEquals(Predicates.filter(list, multipleOf(2)), result);
+        assertTrue(maxRunning.get() + " evaluations in flight", maxRunning.get() <= 3);
+    }
+
+    @Test
+    public void testFilterAsyncWithSynchronousPredicate() throws Exception {
+        // Arrange
+        final List<Integer> list = range(100000);
+        final AsyncPredicate<Integer> predicate = new AsyncPredicate<Integer>() {
+
+            public CompletableFuture<Boolean> evalAsync(Integer candidate) {
+                return CompletableFuture.completedFuture(candidate % 3 == 0);
+            }
+        };
+
+        // Act
+        final List<Integer> result = Predicates.filterAsync(list, predicate, 1).get();
+
+        // Assert
+        assertEquals(Predicates.filter(list, multipleOf(3)), result);
+    }
+
+    @Test
+    public void testFilterAsyncFailsOnNullResult() throws Exception {
+        // Arrange
+        final AsyncPredicate<Integer> predicate = new AsyncPredicate<Integer>() {
+
+            public CompletableFuture<Boolean> evalAsync(Integer candidate) {
+                return CompletableFuture.completedFuture(candidate == 2 ? null : Boolean.TRUE);
+            }
+        };
+
+        // Act
+        try {
+            Predicates.filterAsync(range(5), predicate, 2).get(10, TimeUnit.SECONDS);
+            fail("failure expected");
+        } catch (ExecutionException ex) {
+            // Assert
+            assertTrue(ex.getCause() instanceof NullPointerException);
+        }
+    }
+
+    /**
+     * Test of classify method, of class Predicates.
+     */
+    @Test
+    public void testClassify() {
+        // Arrange
+        final List<Integer> list = Arrays.asList(1, 2, 3, 4, 5, 6);
+
+        // Act
+        final List<BitSet> result = Predicates.classify(list, multipleOf(2), multipleOf(3));
+
+        // Assert
+        assertEquals(6, result.size());
+        assertEquals(new BitSet(), result.get(0));
+        assertEquals(BitSet.valueOf(new long[] {1}), result.get(1));
+        assertEquals(BitSet.valueOf(new long[] {2}), result.get(2));
+        assertEquals(BitSet.valueOf(new long[] {3}), result.get(5));
+    }
+
     /**
      * Test of count method, of class Predicates.
      */
@@ -70,6 +178,66 @@ public class PredicatesTest {
         assertEquals(Arrays.asList("d", "e"), result);
     }
 
+    /**
+     * Test of dropWhileView method, of class Predicates.
+     */
+    @Test
+    public void testDropWhileView() {
+        // Arrange
+        final List<String> list = new ArrayList<String>(Arrays.asList("a", "b", "c", "d", "e"));
+        final Predicate<String> predicate = new AbstractPredicate<String>() {
+
+            public boolean eval(String candidate) {
+                return "c".compareTo(candidate) >= 0;
+            }
+        };
+
+        // Act
+        final List<String> result = Predicates.dropWhileView(list, predicate);
+        result.set(0, "D");
+
+        // Assert
+        assertEquals(Arrays.asList("D", "e"), result);
+        assertEquals("D", list.get(3));
+    }
+
+    /**
+     * Test of evalBatch method, of class Predicates.
+     */
+    @Test
+    public void testEvalBatch() {
+        // Arrange
+        final Integer[] candidates = new Integer[100];
+        for (int i = 0; i < candidates.length; i++) {
+            candidates[i] = i;
+        }
+        final Predicate<Integer> predicate = multipleOf(2)
+            .and(multipleOf(3).or(multipleOf(5).not(), multipleOf(7)))
+            .or(multipleOf(11).and(TruePredicate.<Integer>get()), FalsePredicate.<Integer>get());
+        final BitSet selection = new BitSet();
+        selection.set(0, 100);
+        selection.clear(50);
+
+        // Act
+        Predicates.evalBatch(predicate, candidates, 10, 90, selection);
+
+        // Assert
+        for (int i = 0; i < candidates.length; i++) {
+            final boolean expected = i < 10 || i >= 90 || (i != 50 && predicate.eval(i));
+            assertEquals("candidate " + i, expected, selection.get(i));
+        }
+        assertEquals(Predicates.count(Arrays.asList(candidates), predicate),
+            Predicates.evalBatch(predicate, candidates).cardinality());
+    }
+
+    /**
+     * Test of evalBatch method, of class Predicates.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testEvalBatchInvalidRange() {
+        Predicates.evalBatch(multipleOf(2), new Integer[3], 1, 4, new BitSet());
+    }
+
     /**
      * Test of exists method, of class Predicates.
      */
@@ -213,6 +381,204 @@ public class PredicatesTest {
         assertEquals(4, result);
     }
 
+    /**
+     * Test of lazyDropWhile method, of class Predicates.
+     */
+    @Test
+    public void testLazyDropWhile() {
+        // Arrange
+        final List<String> list = Arrays.asList("a", "b", "c", "d", "a");
+        final Predicate<String> predicate = new AbstractPredicate<String>() {
+
+            public boolean eval(String candidate) {
+                return "c".compareTo(candidate) >= 0;
+            }
+        };
+
+        // Act
+        final Iterable<String> result = Predicates.lazyDropWhile(list, predicate);
+
+        // Assert
+        assertEquals(Arrays.asList("d", "a"), toList(result));
+        assertEquals(Arrays.asList("d", "a"), toList(result));
+    }
+
+    /**
+     * Test of lazyFilter method, of class Predicates.
+     */
+    @Test
+    public void testLazyFilterOnUnboundedSource() {
+        // Arrange
+        final Predicate<Integer> even = new AbstractPredicate<Integer>() {
+
+            public boolean eval(Integer candidate) {
+                return candidate % 2 == 0;
+            }
+        };
+
+        // Act
+        final Iterator<Integer> result = Predicates.lazyFilter(naturals(), even).iterator();
+
+        // Assert
+        assertEquals(Integer.valueOf(0), result.next());
+        assertEquals(Integer.valueOf(2), result.next());
+        assertEquals(Integer.valueOf(4), result.next());
+    }
+
+    /**
+     * Test of lazyTakeWhile method, of class Predicates.
+     */
+    @Test
+    public void testLazyTakeWhileOnUnboundedSource() {
+        // Arrange
+        final Predicate<Integer> lowerThan3 = new AbstractPredicate<Integer>() {
+
+            public boolean eval(Integer candidate) {
+                return candidate < 3;
+            }
+        };
+
+        // Act
+        final Iterable<Integer> result = Predicates.lazyTakeWhile(naturals(), lowerThan3);
+
+        // Assert
+        assertEquals(Arrays.asList(0, 1, 2), toList(result));
+    }
+
+    /**
+     * Test of optimize method, of class Predicates.
+     */
+    @Test
+    public void testOptimizeFoldsConstants() {
+        // Arrange
+        final Predicate<String> p = TestUtils.createPredicate();
+        final Predicate<String> q = TestUtils.createPredicate();
+
+        // Act
+        final Predicate<String> and = Predicates.optimize(p.and(q, FalsePredicate.get()));
+        final Predicate<String> or = Predicates.optimize(p.or(TruePredicate.<String>get(), q));
+        final Predicate<String> notTrue = Predicates.optimize(TruePredicate.<String>get().not());
+        final Predicate<String> notFalse = Predicates.optimize(FalsePredicate.<String>get().not());
+
+        // Assert
+        assertSame(FalsePredicate.get(), and);
+        assertSame(TruePredicate.get(), or);
+        assertSame(FalsePredicate.get(), notTrue);
+        assertSame(TruePredicate.get(), notFalse);
+    }
+
+    /**
+     * Test of optimize method, of class Predicates.
+     */
+    @Test
+    public void testOptimizeAbsorbsIdentities() {
+        // Arrange
+        final Predicate<String> p = TestUtils.createPredicate();
+        final Predicate<String> q = TestUtils.createPredicate();
+
+        // Act
+        final Predicate<String> and = Predicates.optimize(p.and(TruePredicate.<String>get(), q));
+        final Predicate<String> or = Predicates.optimize(p.or(FalsePredicate.<String>get()));
+        final Predicate<String> empty = Predicates.optimize(
+            new AndPredicate<String>(TruePredicate.<String>get(), TruePredicate.<String>get()));
+
+        // Assert
+        assertEquals(Arrays.asList(p, q), ((AndPredicate<String>) and).predicates);
+        assertSame(p, or);
+        assertSame(TruePredicate.get(), empty);
+    }
+
+    /**
+     * Test of optimize method, of class Predicates.
+     */
+    @Test
+    public void testOptimizeCancelsDoubleNegation() {
+        // Arrange
+        final Predicate<String> p = TestUtils.createPredicate();
+        final Predicate<String> q = TestUtils.createPredicate();
+        final Predicate<String> r = TestUtils.createPredicate();
+
+        // Act
+        final Predicate<String> doubleNegation = Predicates.optimize(p.not().not());
+        final Predicate<String> tripleNegation = Predicates.optimize(p.not().not().not());
+        final Predicate<String> nested = Predicates.optimize(p.and(q.and(r).not().not()));
+
+        // Assert
+        assertSame(p, doubleNegation);
+        assertTrue(tripleNegation instanceof NotPredicate);
+        assertSame(p, ((NotPredicate<String>) tripleNegation).decoratedPredicate);
+        assertEquals(Arrays.asList(p, q, r), ((AndPredicate<String>) nested).predicates);
+    }
+
+    /**
+     * Test of optimize method, of class Predicates.
+     */
+    @Test
+    public void testOptimizeRemovesRepeatedOperands() {
+        // Arrange
+        final Predicate<String> p = TestUtils.createPredicate();
+        final Predicate<String> q = TestUtils.createPredicate();
+
+        // Act
+        final Predicate<String> and = Predicates.optimize(p.and(q, p, q));
+        final Predicate<String> or = Predicates.optimize(p.or(p.not().not()));
+
+        // Assert
+        assertEquals(Arrays.asList(p, q), ((AndPredicate<String>) and).predicates);
+        assertSame(p, or);
+    }
+
+    /**
+     * Test of optimize method, of class Predicates.
+     */
+    @Test
+    public void testOptimizeReusesUnchangedPredicates() {
+        // Arrange
+        final Predicate<String> p = TestUtils.createPredicate();
+        final Predicate<String> q = TestUtils.createPredicate();
+        final Predicate<String> r = TestUtils.createPredicate();
+        final Predicate<String> predicate = p.and(q.or(r).not());
+
+        // Act
+        final Predicate<String> result = Predicates.optimize(predicate);
+
+        // Assert
+        assertSame(predicate, result);
+    }
+
+    /**
+     * Test of countAll method, of class Predicates.
+     */
+    @Test
+    public void testCountAll() {
+        // Arrange
+        final List<Integer> list = Arrays.asList(1, 2, 3, 4, 5, 6);
+
+        // Act
+        final int[] result = Predicates.countAll(list, multipleOf(2), multipleOf(3), multipleOf(7));
+
+        // Assert
+        assertArrayEquals(new int[] {3, 2, 0}, result);
+    }
+
+    /**
+     * Test of partitionN method, of class Predicates.
+     */
+    @Test
+    public void testPartitionN() {
+        // Arrange
+        final List<Integer> list = Arrays.asList(1, 2, 3, 4, 5, 6);
+
+        // Act
+        final List<List<Integer>> result = Predicates.partitionN(list, multipleOf(2), multipleOf(3));
+
+        // Assert
+        assertEquals(Arrays.asList(
+            Arrays.asList(2, 4, 6),
+            Arrays.asList(3),
+            Arrays.asList(1, 5)), result);
+    }
+
     /**
      * Test of partition method, of class Predicates.
      */
@@ -243,6 +609,93 @@ public class PredicatesTest {
     public void testPrefixLength() {
     }
 
+    /**
+     * Test of shareSubexpressions method, of class Predicates.
+     */
+    @Test
+    public void testShareSubexpressions() {
+        // Arrange
+        final int[] evaluations = {0};
+        final Predicate<Integer> expensive = new AbstractPredicate<Integer>() {
+
+            public boolean eval(Integer candidate) {
+                evaluations[0]++;
+                return candidate % 3 == 0;
+            }
+        };
+        final Predicate<Integer> predicate = new OrPredicate<Integer>(
+            new AndPredicate<Integer>(multipleOf(2), new OrPredicate<Integer>(expensive, multipleOf(5))),
+            new AndPredicate<Integer>(multipleOf(7), new OrPredicate<Integer>(expensive, multipleOf(5))));
+
+        // Act
+        final Predicate<Integer> result = Predicates.shareSubexpressions(predicate);
+
+        // Assert
+        for (int i = 0; i < 100; i++) {
+            assertEquals(predicate.eval(i), result.eval(i));
+        }
+        evaluations[0] = 0;
+        assertFalse(result.eval(14));
+        assertEquals(1, evaluations[0]);
+    }
+
+    @Test
+    public void testShareSubexpressionsReturnsTreeWithoutSharedSubtreeAsIs() {
+        // Arrange
+        final Predicate<Integer> predicate = new AndPredicate<Integer>(multipleOf(2), multipleOf(3));
+
+        // Act
+        final Predicate<Integer> result = Predicates.shareSubexpressions(predicate);
+
+        // Assert
+        assertSame(predicate, result);
+    }
+
+    /**
+     * Test of sortByCost method, of class Predicates.
+     */
+    @Test
+    public void testSortByCost() {
+        // Arrange
+        final Predicate<String> cheapLikelyTrue = TestUtils.createPredicate(1, 0.9);
+        final Predicate<String> cheapLikelyFalse = TestUtils.createPredicate(1, 0.1);
+        final Predicate<String> expensive = TestUtils.createPredicate(100, 0.1);
+        final Predicate<String> p1 = TestUtils.createPredicate();
+        final Predicate<String> p2 = TestUtils.createPredicate();
+        final Predicate<String> predicate = new AndPredicate<String>(expensive, cheapLikelyTrue, cheapLikelyFalse,
+            new OrPredicate<String>(expensive, cheapLikelyFalse, cheapLikelyTrue), p1.or(p2));
+
+        // Act
+        final Predicate<String> result = Predicates.sortByCost(predicate);
+
+        // Assert
+        final List<Predicate<? super String>> operands = new ArrayList<Predicate<? super String>>(
+            ((AndPredicate<String>) result).predicates);
+        assertSame(cheapLikelyFalse, operands.get(0));
+        assertSame(p1, ((OrPredicate<String>) operands.get(1)).predicateArray[0]);
+        assertSame(p2, ((OrPredicate<String>) operands.get(1)).predicateArray[1]);
+        assertSame(cheapLikelyTrue, operands.get(2));
+        assertSame(expensive, operands.get(3));
+        assertEquals(Arrays.asList(cheapLikelyTrue, cheapLikelyFalse, expensive),
+            ((OrPredicate<String>) operands.get(4)).predicates);
+    }
+
+    /**
+     * Test of sortByCost method, of class Predicates.
+     */
+    @Test
+    public void testSortByCostReusesUnchangedPredicates() {
+        // Arrange
+        final Predicate<String> predicate = TestUtils.<String>createPredicate().and(
+            TestUtils.<String>createPredicate(), TestUtils.<String>createPredicate().not());
+
+        // Act
+        final Predicate<String> result = Predicates.sortByCost(predicate);
+
+        // Assert
+        assertSame(predicate, result);
+    }
+
     /**
      * Test of span method, of class Predicates.
      */
@@ -265,6 +718,30 @@ public class PredicatesTest {
         assertEquals(Arrays.asList("d", "e"), result._2());
     }
 
+    /**
+     * Test of spanView method, of class Predicates.
+     */
+    @Test
+    public void testSpanView() {
+        // Arrange
+        final List<String> list = Arrays.asList("a", "b", "c", "d", "e");
+        final Predicate<String> predicate = new AbstractPredicate<String>() {
+
+            public boolean eval(String candidate) {
+                return "c".compareTo(candidate) >= 0;
+            }
+        };
+
+        // Act
+        final Pair<List<String>> result = Predicates.spanView(list, predicate);
+        result._1().set(0, "A");
+
+        // Assert
+        assertEquals(Arrays.asList("A", "b", "c"), result._1());
+        assertEquals(Arrays.asList("d", "e"), result._2());
+        assertEquals("A", list.get(0));
+    }
+
     /**
      * Test of takeWhile method, of class Predicates.
      */
@@ -285,5 +762,121 @@ public class PredicatesTest {
         // Assert
         assertEquals(Arrays.asList("a", "b", "c"), result);
     }
+
+    /**
+     * Test of takeWhileView method, of class Predicates.
+     */
+    @Test
+    public void testTakeWhileView() {
+        // Arrange
+        final List<String> list = Arrays.asList("a", "b", "c", "d", "e");
+        final Predicate<String> predicate = new AbstractPredicate<String>() {
+
+            public boolean eval(String candidate) {
+                return "c".compareTo(candidate) >= 0;
+            }
+        };
+
+        // Act
+        final List<String> result = Predicates.takeWhileView(list, predicate);
+        result.set(2, "C");
+
+        // Assert
+        assertEquals(Arrays.asList("a", "b", "C"), result);
+        assertEquals("C", list.get(2));
+    }
+
+    @Test
+    public void testSequentialListsAreIterated() {
+        // Arrange
+        final List<Integer> list = sequentialList(1, 2, 3, 4, 5, 6);
+        final Predicate<Integer> lowerThan4 = new AbstractPredicate<Integer>() {
+
+            public boolean eval(Integer candidate) {
+                return candidate < 4;
+            }
+        };
+
+        // Act
+        final int index = Predicates.indexWhere(list, multipleOf(2));
+        final int lastIndex = Predicates.lastIndexWhere(list, multipleOf(2));
+        final int noIndex = Predicates.lastIndexWhere(list, multipleOf(7));
+        final Pair<List<Integer>> span = Predicates.span(list, lowerThan4);
+        final List<Integer> takeWhile = Predicates.takeWhile(list, lowerThan4);
+        final List<Integer> dropWhile = Predicates.dropWhile(list, lowerThan4);
+
+        // Assert
+        assertEquals(1, index);
+        assertEquals(5, lastIndex);
+        assertEquals(-1, noIndex);
+        assertEquals(Arrays.asList(1, 2, 3), span._1());
+        assertEquals(Arrays.asList(4, 5, 6), span._2());
+        assertEquals(Arrays.asList(1, 2, 3), takeWhile);
+        assertEquals(Arrays.asList(4, 5, 6), dropWhile);
+    }
+
+    /**
+     * Creates a sequential list failing on indexed access.
+     */
+    private static List<Integer> sequentialList(Integer... elements) {
+        final List<Integer> result = new LinkedList<Integer>() {
+
+            @Override
+            public Integer get(int index) {
+                throw new UnsupportedOperationException("indexed access");
+            }
+        };
+        result.addAll(Arrays.asList(elements));
+        return result;
+    }
+
+    private static List<Integer> range(int size) {
+        final List<Integer> list = new ArrayList<Integer>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    private static Predicate<Integer> multipleOf(final int divisor) {
+        return new AbstractPredicate<Integer>() {
+
+            public boolean eval(Integer candidate) {
+                return candidate % divisor == 0;
+            }
+        };
+    }
+
+    private static Iterable<Integer> naturals() {
+        return new Iterable<Integer>() {
+
+            public Iterator<Integer> iterator() {
+                return new Iterator<Integer>() {
+
+                    private int next;
+
+                    public boolean hasNext() {
+                        return true;
+                    }
+
+                    public Integer next() {
+                        return next++;
+                    }
+
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
+    private static <T> List<T> toList(Iterable<T> iterable) {
+        final List<T> result = new ArrayList<T>();
+        for (T item : iterable) {
+            result.add(item);
+        }
+        return result;
+    }
     
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import com.mytdev.predicates.primitive.AbstractDoublePredicate;
+import com.mytdev.predicates.primitive.AbstractIntPredicate;
+import com.mytdev.predicates.primitive.AbstractLongPredicate;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yann D'Isanto
+ */
+public class RecordPredicatesTest {
+
+    /**
+     * Test of intField method, of class RecordPredicates.
+     */
+    @Test
+    public void testIntFieldIsReadFromRecordPosition() {
+        // Arrange
+        final ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putInt(4, 7).putInt(12, 42);
+        buffer.position(8);
+        final Predicate<ByteBuffer> predicate = RecordPredicates.intField(4, equalTo(42));
+
+        // Act
+        final boolean result = predicate.eval(buffer);
+
+        // Assert
+        assertTrue(result);
+        assertEquals(8, buffer.position());
+    }
+
+    @Test
+    public void testIntFieldUsesBufferByteOrder() {
+        // Arrange
+        final ByteBuffer buffer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0, 42);
+        final Predicate<ByteBuffer> predicate = RecordPredicates.intField(0, equalTo(42));
+
+        // Act
+        final boolean littleEndian = predicate.eval(buffer);
+        final boolean bigEndian = predicate.eval(buffer.order(ByteOrder.BIG_ENDIAN));
+
+        // Assert
+        assertTrue(littleEndian);
+        assertFalse(bigEndian);
+    }
+
+    /**
+     * Test of longField method, of class RecordPredicates.
+     */
+    @Test
+    public void testLongField() {
+        // Arrange
+        final ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putLong(8, 1L << 40);
+        final Predicate<ByteBuffer> predicate = RecordPredicates.longField(8, new AbstractLongPredicate() {
+
+            public boolean eval(long candidate) {
+                return candidate > Integer.MAX_VALUE;
+            }
+        });
+
+        // Act
+        final boolean result = predicate.eval(buffer);
+
+        // Assert
+        assertTrue(result);
+    }
+
+    /**
+     * Test of doubleField method, of class RecordPredicates.
+     */
+    @Test
+    public void testDoubleField() {
+        // Arrange
+        final ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.putDouble(0, 2.5);
+        final Predicate<ByteBuffer> predicate = RecordPredicates.doubleField(0, new AbstractDoublePredicate() {
+
+            public boolean eval(double candidate) {
+                return candidate < 2;
+            }
+        });
+
+        // Act
+        final boolean result = predicate.eval(buffer);
+
+        // Assert
+        assertFalse(result);
+    }
+
+    /**
+     * Test of bytesField method, of class RecordPredicates.
+     */
+    @Test
+    public void testBytesField() {
+        // Arrange
+        final ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.position(2);
+        buffer.put("EUR".getBytes(StandardCharsets.US_ASCII));
+        buffer.position(0);
+        final byte[] eur = "EUR".getBytes(StandardCharsets.US_ASCII);
+        final Predicate<ByteBuffer> predicate = RecordPredicates.bytesField(2, eur);
+        eur[0] = 'X';
+
+        // Act
+        final boolean result = predicate.eval(buffer);
+        final boolean usd = RecordPredicates.bytesField(2, "USD".getBytes(StandardCharsets.US_ASCII)).eval(buffer);
+
+        // Assert
+        assertTrue(result);
+        assertFalse(usd);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testBytesFieldPastLimit() {
+        // Arrange
+        final ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.limit(4);
+        final Predicate<ByteBuffer> predicate = RecordPredicates.bytesField(2, new byte[]{1, 2, 3});
+
+        // Act
+        predicate.eval(buffer);
+    }
+
+    @Test
+    public void testFieldPredicatesCompose() {
+        // Arrange
+        final ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.putInt(0, 1).putInt(4, 2);
+        final Predicate<ByteBuffer> predicate = RecordPredicates.intField(0, equalTo(1))
+            .and(RecordPredicates.intField(4, equalTo(3)).not());
+
+        // Act
+        final boolean result = predicate.eval(buffer);
+
+        // Assert
+        assertTrue(result);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeOffset() {
+        // Act
+        RecordPredicates.intField(-1, equalTo(0));
+    }
+
+    private static AbstractIntPredicate equalTo(final int value) {
+        return new AbstractIntPredicate() {
+
+            public boolean eval(int candidate) {
+                return candidate == value;
+            }
+        };
+    }
+}
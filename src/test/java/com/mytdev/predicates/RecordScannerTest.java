@@ -0,0 +1,151 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import com.mytdev.predicates.primitive.AbstractIntPredicate;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yann D'Isanto
+ */
+public class RecordScannerTest {
+
+    private static final int RECORD_SIZE = 12;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Test of scan method, of class RecordScanner.
+     */
+    @Test
+    public void testScanFile() throws IOException {
+        // Arrange
+        final int records = 50000;
+        final ByteBuffer content = records(records, ByteOrder.BIG_ENDIAN);
+        final File file = folder.newFile();
+        Files.write(file.toPath(), content.array());
+        final ForkJoinPool pool = new ForkJoinPool(4);
+
+        // Act
+        final long[] result;
+        try {
+            result = Predicates.recordScanner(RECORD_SIZE, ByteOrder.BIG_ENDIAN, pool)
+                .scan(file.toPath(), idMultipleOf(7));
+        } finally {
+            pool.shutdown();
+        }
+
+        // Assert
+        assertEquals((records + 6) / 7, result.length);
+        for (int i = 0; i < result.length; i++) {
+            assertEquals(7L * i * RECORD_SIZE, result[i]);
+        }
+    }
+
+    @Test
+    public void testTrailingIncompleteRecordIsIgnored() throws IOException {
+        // Arrange
+        final ByteBuffer content = records(3, ByteOrder.BIG_ENDIAN);
+        final File file = folder.newFile();
+        Files.write(file.toPath(), content.array());
+        Files.write(file.toPath(), new byte[RECORD_SIZE - 1], StandardOpenOption.APPEND);
+
+        // Act
+        final long[] result = Predicates.recordScanner(RECORD_SIZE).scan(file.toPath(), idMultipleOf(1));
+
+        // Assert
+        assertArrayEquals(new long[]{0, RECORD_SIZE, 2 * RECORD_SIZE}, result);
+    }
+
+    @Test
+    public void testScanEmptyFile() throws IOException {
+        // Arrange
+        final File file = folder.newFile();
+
+        // Act
+        final long[] result = Predicates.recordScanner(RECORD_SIZE).scan(file.toPath(), idMultipleOf(1));
+
+        // Assert
+        assertEquals(0, result.length);
+    }
+
+    @Test
+    public void testScanBufferFromPosition() {
+        // Arrange
+        final ByteBuffer buffer = records(10, ByteOrder.LITTLE_ENDIAN);
+        buffer.position(4 * RECORD_SIZE);
+
+        // Act
+        final long[] result = Predicates.recordScanner(RECORD_SIZE, ByteOrder.LITTLE_ENDIAN, ForkJoinPool.commonPool())
+            .scan(buffer, idMultipleOf(3));
+
+        // Assert
+        assertArrayEquals(new long[]{2 * RECORD_SIZE, 5 * RECORD_SIZE}, result);
+        assertEquals(4 * RECORD_SIZE, buffer.position());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testFieldPastRecordEnd() {
+        // Arrange
+        final ByteBuffer buffer = records(2, ByteOrder.BIG_ENDIAN);
+
+        // Act
+        Predicates.recordScanner(RECORD_SIZE).scan(buffer, RecordPredicates.intField(RECORD_SIZE - 2, multipleOf(1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveRecordSize() {
+        // Act
+        Predicates.recordScanner(0);
+    }
+
+    /**
+     * Creates records made of an int id, then a long holding the id squared.
+     */
+    private static ByteBuffer records(int count, ByteOrder order) {
+        final ByteBuffer buffer = ByteBuffer.allocate(count * RECORD_SIZE).order(order);
+        for (int i = 0; i < count; i++) {
+            buffer.putInt(i).putLong((long) i * i);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static Predicate<ByteBuffer> idMultipleOf(int divisor) {
+        return RecordPredicates.intField(0, multipleOf(divisor));
+    }
+
+    private static AbstractIntPredicate multipleOf(final int divisor) {
+        return new AbstractIntPredicate() {
+
+            public boolean eval(int candidate) {
+                return candidate % divisor == 0;
+            }
+        };
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import java.util.BitSet;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yann D'Isanto
+ */
+public class RuleSetTest {
+
+    private static final Predicate<Integer>[] ATOMS = new Predicate[] {
+        multipleOf(2), multipleOf(3), multipleOf(5), multipleOf(7), TruePredicate.get(), FalsePredicate.get()
+    };
+
+    /**
+     * Test of match method, of class RuleSet.
+     */
+    @Test
+    public void testMatch() {
+        // Arrange
+        final Random random = new Random(42);
+        final RuleSet<Integer> ruleSet = new RuleSet<Integer>();
+        final Predicate<Integer>[] rules = new Predicate[200];
+        for (int i = 0; i < rules.length; i++) {
+            rules[i] = randomRule(random);
+            assertEquals(i, ruleSet.add(rules[i]));
+        }
+
+        for (int candidate = 0; candidate < 100; candidate++) {
+            // Act
+            final BitSet result = ruleSet.match(candidate);
+
+            // Assert
+            for (int i = 0; i < rules.length; i++) {
+                assertEquals(rules[i].eval(candidate), result.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testAtomsAreEvaluatedOncePerCandidate() {
+        // Arrange
+        final int[] evaluations = {0};
+        final Predicate<Integer> atom = new AbstractPredicate<Integer>() {
+
+            public boolean eval(Integer candidate) {
+                evaluations[0]++;
+                return candidate % 2 == 0;
+            }
+        };
+        final RuleSet<Integer> ruleSet = new RuleSet<Integer>();
+        ruleSet.add(atom.and(multipleOf(3)));
+        ruleSet.add(multipleOf(5).or(atom));
+        ruleSet.add(atom.not());
+
+        // Act
+        final BitSet result = ruleSet.match(6);
+
+        // Assert
+        assertEquals(1, evaluations[0]);
+        assertEquals(bits(0, 1), result);
+    }
+
+    @Test
+    public void testEqualSubtreesAreShared() {
+        // Arrange
+        final Predicate<Integer> m2 = multipleOf(2);
+        final Predicate<Integer> m3 = multipleOf(3);
+        final RuleSet<Integer> ruleSet = new RuleSet<Integer>();
+
+        // Act
+        ruleSet.add(m2.and(m3));
+        ruleSet.add(m2.and(m3).not());
+
+        // Assert
+        assertEquals(2, ruleSet.atomCount());
+        assertEquals(4, ruleSet.nodeCount());
+    }
+
+    /**
+     * Test of remove method, of class RuleSet.
+     */
+    @Test
+    public void testRemove() {
+        // Arrange
+        final Predicate<Integer> m2 = multipleOf(2);
+        final Predicate<Integer> m3 = multipleOf(3);
+        final RuleSet<Integer> ruleSet = new RuleSet<Integer>();
+        final int first = ruleSet.add(m2.and(m3));
+        final int second = ruleSet.add(m2);
+
+        // Act
+        final boolean removed = ruleSet.remove(first);
+
+        // Assert
+        assertTrue(removed);
+        assertFalse(ruleSet.remove(first));
+        assertNull(ruleSet.get(first));
+        assertSame(m2, ruleSet.get(second));
+        assertEquals(1, ruleSet.size());
+        assertEquals(1, ruleSet.nodeCount());
+        assertEquals(bits(second), ruleSet.match(4));
+        assertEquals(first, ruleSet.add(m3));
+        assertEquals(bits(first), ruleSet.match(3));
+    }
+
+    private static BitSet bits(int... indexes) {
+        final BitSet result = new BitSet();
+        for (int index : indexes) {
+            result.set(index);
+        }
+        return result;
+    }
+
+    private static Predicate<Integer> multipleOf(final int divisor) {
+        return new AbstractPredicate<Integer>() {
+
+            public boolean eval(Integer candidate) {
+                return candidate % divisor == 0;
+            }
+        };
+    }
+
+    private static Predicate<Integer> randomRule(Random random) {
+        final Predicate<Integer> atom = ATOMS[random.nextInt(ATOMS.length)];
+        switch (random.nextInt(4)) {
+            case 0:
+                return atom.and(randomRule(random));
+            case 1:
+                return atom.or(randomRule(random));
+            case 2:
+                return atom.not();
+            default:
+                return atom;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates;
+
+import com.mytdev.predicates.Predicates.Pair;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yann D'Isanto
+ */
+public class SortedPredicatesTest {
+
+    private final SortedPredicates sorted = Predicates.sorted();
+
+    /**
+     * Test of prefixLength method, of class SortedPredicates.
+     */
+    @Test
+    public void testPrefixLength() {
+        for (int size = 0; size < 70; size++) {
+            // Arrange
+            final List<Integer> list = integers(new ArrayList<Integer>(), size);
+            for (int threshold = -1; threshold <= size + 1; threshold++) {
+                final Predicate<Integer> predicate = lowerThan(threshold);
+
+                // Act
+                final int result = sorted.prefixLength(list, predicate);
+
+                // Assert
+                assertEquals(Predicates.prefixLength(list, predicate), result);
+            }
+        }
+    }
+
+    /**
+     * Test of indexWhere method, of class SortedPredicates.
+     */
+    @Test
+    public void testIndexWhere() {
+        for (int size = 0; size < 70; size++) {
+            // Arrange
+            final List<Integer> list = integers(new ArrayList<Integer>(), size);
+            for (int threshold = -1; threshold <= size + 1; threshold++) {
+                final Predicate<Integer> predicate = lowerThan(threshold).not();
+
+                // Act
+                final int result = sorted.indexWhere(list, predicate);
+
+                // Assert
+                assertEquals(Predicates.indexWhere(list, predicate), result);
+            }
+        }
+    }
+
+    @Test
+    public void testEvaluationsAreLogarithmic() {
+        // Arrange
+        final List<Integer> list = integers(new ArrayList<Integer>(), 1 << 20);
+        final int[] evaluations = {0};
+        final Predicate<Integer> predicate = new AbstractPredicate<Integer>() {
+
+            public boolean eval(Integer candidate) {
+                evaluations[0]++;
+                return candidate < 654321;
+            }
+        };
+
+        // Act
+        final int result = sorted.prefixLength(list, predicate);
+
+        // Assert
+        assertEquals(654321, result);
+        assertTrue(evaluations[0] + " evaluations", evaluations[0] <= 2 * 21);
+    }
+
+    @Test
+    public void testPrefixOperations() {
+        // Arrange
+        final List<Integer> list = integers(new ArrayList<Integer>(), 10);
+        final Predicate<Integer> predicate = lowerThan(4);
+
+        // Act
+        final Pair<List<Integer>> span = sorted.span(list, predicate);
+
+        // Assert
+        assertEquals(list.subList(0, 4), span._1());
+        assertEquals(list.subList(4, 10), span._2());
+        assertEquals(list.subList(0, 4), sorted.takeWhile(list, predicate));
+        assertEquals(list.subList(0, 4), sorted.takeWhileView(list, predicate));
+        assertEquals(list.subList(4, 10), sorted.dropWhile(list, predicate));
+        assertEquals(list.subList(4, 10), sorted.dropWhileView(list, predicate));
+        assertEquals(3, sorted.lastIndexWhere(list, predicate));
+        assertEquals(-1, sorted.lastIndexWhere(Collections.<Integer>emptyList(), predicate));
+    }
+
+    @Test
+    public void testSequentialListsAreScanned() {
+        // Arrange
+        final List<Integer> list = integers(new LinkedList<Integer>(), 100);
+
+        // Act
+        final int prefixLength = sorted.prefixLength(list, lowerThan(42));
+        final int index = sorted.indexWhere(list, lowerThan(42).not());
+
+        // Assert
+        assertEquals(42, prefixLength);
+        assertEquals(42, index);
+    }
+
+    private static Predicate<Integer> lowerThan(final int value) {
+        return new AbstractPredicate<Integer>() {
+
+            public boolean eval(Integer candidate) {
+                return candidate < value;
+            }
+        };
+    }
+
+    private static List<Integer> integers(List<Integer> list, int size) {
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+}
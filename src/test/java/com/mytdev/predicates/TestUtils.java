@@ -15,6 +15,8 @@
  */
 package com.mytdev.predicates;
 
+import java.lang.management.ManagementFactory;
+
 /**
  *
  * @author Yann D'Isanto
@@ -36,7 +38,59 @@ final class TestUtils {
         };
     }
 
+    /**
+     * Creates a new predicate declaring the specified cost hint.
+     *
+     * @param <T> the predicate to create data type.
+     * @param cost the declared cost.
+     * @param probability the declared probability.
+     * @return a new Predicate instance.
+     */
+    public static <T> Predicate<T> createPredicate(final double cost, final double probability) {
+        return new HintedPredicate<T>(cost, probability);
+    }
+
+    /**
+     * Measures the number of bytes allocated by the current thread while
+     * running the specified task.
+     *
+     * @param task the task to run.
+     * @return the number of allocated bytes.
+     */
+    public static long allocatedBytes(Runnable task) {
+        final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+        final long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        task.run();
+        return threadMXBean.getThreadAllocatedBytes(threadId) - before;
+    }
+
     private TestUtils() {
     }
 
+    private static final class HintedPredicate<T> extends AbstractPredicate<T> implements CostHint {
+
+        private final double cost;
+
+        private final double probability;
+
+        HintedPredicate(double cost, double probability) {
+            this.cost = cost;
+            this.probability = probability;
+        }
+
+        public boolean eval(T candidate) {
+            return true;
+        }
+
+        public double cost() {
+            return cost;
+        }
+
+        public double probability() {
+            return probability;
+        }
+    }
+
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates.primitive;
+
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yann D'Isanto
+ */
+public class ColumnBatchTest {
+
+    /**
+     * Test of put method, of class ColumnBatch.
+     */
+    @Test
+    public void testColumnsAreNotCopied() {
+        // Arrange
+        final int[] ids = {1, 2, 3};
+        final double[] prices = {1.5, 2.5, 3.5};
+
+        // Act
+        final ColumnBatch batch = new ColumnBatch(3).put("id", ids).put("price", prices);
+
+        // Assert
+        assertSame(ids, batch.intColumn("id"));
+        assertSame(prices, batch.doubleColumn("price"));
+        assertEquals(Arrays.asList("id", "price"), batch.names());
+        assertEquals(3, batch.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testColumnOfWrongSize() {
+        // Act
+        new ColumnBatch(3).put("id", new long[2]);
+    }
+
+    /**
+     * Test of intColumn method, of class ColumnBatch.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testColumnOfWrongType() {
+        // Arrange
+        final ColumnBatch batch = new ColumnBatch(1).put("id", new long[1]);
+
+        // Act
+        batch.intColumn("id");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingColumn() {
+        // Act
+        new ColumnBatch(1).doubleColumn("price");
+    }
+
+    /**
+     * Test of gather method, of class ColumnBatch.
+     */
+    @Test
+    public void testGather() {
+        // Arrange
+        final int size = 200;
+        final int[] ids = new int[size];
+        final long[] times = new long[size];
+        final double[] prices = new double[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = i;
+            times[i] = 1000L * i;
+            prices[i] = i / 2.0;
+        }
+        final ColumnBatch batch = new ColumnBatch(size).put("id", ids).put("time", times).put("price", prices);
+        final long[] selection = {1L << 3, 0, 0, 1L << 7};
+
+        // Act
+        final ColumnBatch result = batch.gather(selection, 2);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertArrayEquals(new int[]{3, 199}, result.intColumn("id"));
+        assertArrayEquals(new long[]{3000, 199000}, result.longColumn("time"));
+        assertTrue(Arrays.equals(new double[]{1.5, 99.5}, result.doubleColumn("price")));
+    }
+}
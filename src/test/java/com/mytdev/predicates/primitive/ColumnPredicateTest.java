@@ -0,0 +1,137 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates.primitive;
+
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yann D'Isanto
+ */
+public class ColumnPredicateTest {
+
+    private static final int SIZE = 3000;
+
+    /**
+     * Test of and, or and not methods, of class ColumnPredicate.
+     */
+    @Test
+    public void testCompositionIsTheRowByRowOne() {
+        // Arrange
+        final Random random = new Random(42);
+        final int[] quantities = new int[SIZE];
+        final long[] times = new long[SIZE];
+        final double[] prices = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            quantities[i] = random.nextInt(100);
+            times[i] = random.nextLong();
+            prices[i] = random.nextDouble() * 10;
+        }
+        final ColumnBatch batch = new ColumnBatch(SIZE)
+            .put("quantity", quantities).put("time", times).put("price", prices);
+        final IntRangePredicate smallQuantity = new IntRangePredicate(0, 9);
+        final LongPredicate evenTime = new AbstractLongPredicate() {
+
+            public boolean eval(long candidate) {
+                return candidate % 2 == 0;
+            }
+        };
+        final DoubleRangePredicate cheap = new DoubleRangePredicate(0, 2);
+        final ColumnPredicate predicate = ColumnPredicate.intColumn("quantity", smallQuantity)
+            .or(ColumnPredicate.doubleColumn("price", cheap).and(ColumnPredicate.longColumn("time", evenTime).not()));
+
+        // Act
+        final long[] result = predicate.select(batch);
+
+        // Assert
+        for (int i = 0; i < SIZE; i++) {
+            final boolean expected = smallQuantity.eval(quantities[i])
+                || cheap.eval(prices[i]) && !evenTime.eval(times[i]);
+            assertEquals("row " + i, expected, (result[i >>> 6] & (1L << i)) != 0);
+        }
+        assertEquals(0, result[result.length - 1] >>> (SIZE & 63));
+    }
+
+    @Test
+    public void testAndOnlyEvaluatesSelectedRows() {
+        // Arrange
+        final int[] quantities = new int[SIZE];
+        quantities[5] = 1;
+        quantities[2500] = 1;
+        final int[] evaluations = new int[1];
+        final IntPredicate counting = new AbstractIntPredicate() {
+
+            public boolean eval(int candidate) {
+                evaluations[0]++;
+                return true;
+            }
+        };
+        final ColumnBatch batch = new ColumnBatch(SIZE).put("quantity", quantities);
+        final ColumnPredicate predicate = ColumnPredicate.intColumn("quantity", counting)
+            .and(ColumnPredicate.intColumn("quantity", new IntRangePredicate(1, 1)));
+
+        // Act
+        final long[] result = predicate.select(batch);
+
+        // Assert
+        assertEquals(2, PrimitiveMasks.bitCount(result));
+        assertEquals(SIZE, evaluations[0]);
+        evaluations[0] = 0;
+        ColumnPredicate.intColumn("quantity", new IntRangePredicate(1, 1))
+            .and(ColumnPredicate.intColumn("quantity", counting)).select(batch);
+        assertEquals(2, evaluations[0]);
+    }
+
+    @Test
+    public void testOrOnlyEvaluatesSelectedRowsNotMatchedYet() {
+        // Arrange
+        final int[] quantities = new int[SIZE];
+        quantities[5] = 1;
+        quantities[2500] = 2;
+        final int[] evaluations = new int[1];
+        final IntPredicate counting = new AbstractIntPredicate() {
+
+            public boolean eval(int candidate) {
+                evaluations[0]++;
+                return candidate == 2;
+            }
+        };
+        final ColumnBatch batch = new ColumnBatch(SIZE).put("quantity", quantities);
+        final ColumnPredicate predicate = ColumnPredicate.intColumn("quantity", new IntRangePredicate(1, 2))
+            .and(ColumnPredicate.intColumn("quantity", new IntRangePredicate(1, 1).or(counting)));
+
+        // Act
+        final long[] result = predicate.select(batch);
+
+        // Assert
+        assertEquals(2, PrimitiveMasks.bitCount(result));
+        assertEquals(1, evaluations[0]);
+    }
+
+    @Test
+    public void testEmptyBatch() {
+        // Arrange
+        final ColumnBatch batch = new ColumnBatch(0).put("quantity", new int[0]);
+
+        // Act
+        final long[] result = ColumnPredicate.intColumn("quantity", IntTruePredicate.get()).not().select(batch);
+
+        // Assert
+        assertEquals(0, result.length);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates.primitive;
+
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yann D'Isanto
+ */
+public class IntOrPredicateTest {
+
+    private static final IntPredicate TRUE = IntTruePredicate.get();
+
+    private static final IntPredicate FALSE = IntFalsePredicate.get();
+
+    @Test
+    public void testLogicalOROperatorApplication() {
+        // Arrange
+        final IntPredicate[] table = {
+            new IntOrPredicate(FALSE, FALSE),
+            new IntOrPredicate(FALSE, TRUE),
+            new IntOrPredicate(TRUE, FALSE),
+            new IntOrPredicate(TRUE, TRUE)
+        };
+        final boolean[] expected = {false, true, true, true};
+
+        // Act
+        // Assert
+        for (int i = 0; i < table.length; i++) {
+            assertEquals(expected[i], table[i].eval(42));
+        }
+    }
+
+    @Test
+    public void testChainedOrIsFlattened() {
+        // Arrange
+        final IntPredicate p1 = new IntNotPredicate(TRUE);
+        final IntPredicate p2 = new IntNotPredicate(TRUE);
+        final IntPredicate p3 = new IntNotPredicate(TRUE);
+
+        // Act
+        final IntPredicate predicate = p1.or(p2).or(p3);
+
+        // Assert
+        assertEquals(Arrays.asList(p1, p2, p3), ((IntOrPredicate) predicate).predicates());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullPredicateFailsConstruction() {
+        new IntOrPredicate(TRUE, null);
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates.primitive;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yann D'Isanto
+ */
+public class PrimitiveMasksTest {
+
+    private static final IntPredicate EVEN = new AbstractIntPredicate() {
+
+        public boolean eval(int candidate) {
+            return candidate % 2 == 0;
+        }
+    };
+
+    private static final LongPredicate ODD = new AbstractLongPredicate() {
+
+        public boolean eval(long candidate) {
+            return candidate % 2 != 0;
+        }
+    };
+
+    private static final DoublePredicate NAN = new AbstractDoublePredicate() {
+
+        public boolean eval(double candidate) {
+            return Double.isNaN(candidate);
+        }
+    };
+
+    /**
+     * Test of mask method, of class PrimitiveMasks.
+     */
+    @Test
+    public void testMask() {
+        // Arrange
+        final int[] array = new int[130];
+        array[0] = 5;
+        array[64] = 5;
+        array[129] = 5;
+
+        // Act
+        final long[] result = PrimitiveMasks.mask(array, new IntRangePredicate(5, 5));
+
+        // Assert
+        assertArrayEquals(new long[]{1L, 1L, 2L}, result);
+    }
+
+    @Test
+    public void testIntRangesAtTheBounds() {
+        // Arrange
+        final int[] array = {Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE};
+
+        // Act
+        final long[] all = PrimitiveMasks.mask(array, new IntRangePredicate(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        final long[] negative = PrimitiveMasks.mask(array, new IntRangePredicate(Integer.MIN_VALUE, -1));
+        final long[] positive = PrimitiveMasks.mask(array, new IntRangePredicate(1, Integer.MAX_VALUE));
+
+        // Assert
+        assertArrayEquals(new long[]{0x1F}, all);
+        assertArrayEquals(new long[]{0x03}, negative);
+        assertArrayEquals(new long[]{0x18}, positive);
+    }
+
+    @Test
+    public void testLongRangesAtTheBounds() {
+        // Arrange
+        final long[] array = {Long.MIN_VALUE, -1, 0, 1, Long.MAX_VALUE};
+
+        // Act
+        final long[] all = PrimitiveMasks.mask(array, new LongRangePredicate(Long.MIN_VALUE, Long.MAX_VALUE));
+        final long[] negative = PrimitiveMasks.mask(array, new LongRangePredicate(Long.MIN_VALUE, -1));
+        final long[] around = PrimitiveMasks.mask(array, new LongRangePredicate(-1, 1));
+
+        // Assert
+        assertArrayEquals(new long[]{0x1F}, all);
+        assertArrayEquals(new long[]{0x03}, negative);
+        assertArrayEquals(new long[]{0x0E}, around);
+    }
+
+    @Test
+    public void testDoubleRangeExcludesNaN() {
+        // Arrange
+        final double[] array = {Double.NEGATIVE_INFINITY, Double.NaN, 0, Double.POSITIVE_INFINITY};
+
+        // Act
+        final long[] result = PrimitiveMasks.mask(array,
+            new DoubleRangePredicate(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY));
+
+        // Assert
+        assertArrayEquals(new long[]{0x0D}, result);
+    }
+
+    /**
+     * Test of count method, of class PrimitiveMasks.
+     */
+    @Test
+    public void testCountIsTheScalarOne() {
+        // Arrange
+        final Random random = new Random(42);
+        final int[] ints = new int[5000];
+        final long[] longs = new long[5000];
+        final double[] doubles = new double[5000];
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = random.nextInt(1000) - 500;
+            longs[i] = random.nextLong() >> random.nextInt(64);
+            doubles[i] = i % 100 == 0 ? Double.NaN : random.nextGaussian();
+        }
+        final IntPredicate intPredicate = new IntRangePredicate(-100, 100)
+            .and(new IntRangePredicate(0, 0).not(), EVEN)
+            .or(new IntRangePredicate(400, Integer.MAX_VALUE), IntFalsePredicate.get());
+        final LongPredicate longPredicate = new LongRangePredicate(Long.MIN_VALUE, -1000)
+            .or(new LongRangePredicate(1L << 40, Long.MAX_VALUE).and(ODD))
+            .not();
+        final DoublePredicate doublePredicate = new DoubleRangePredicate(-1, 1)
+            .and(DoubleTruePredicate.get(), new DoubleRangePredicate(-0.5, 0.5).not())
+            .or(NAN);
+
+        // Act & Assert
+        assertEquals(PrimitivePredicates.count(ints, intPredicate), PrimitiveMasks.count(ints, intPredicate));
+        assertEquals(PrimitivePredicates.count(longs, longPredicate), PrimitiveMasks.count(longs, longPredicate));
+        assertEquals(PrimitivePredicates.count(doubles, doublePredicate),
+            PrimitiveMasks.count(doubles, doublePredicate));
+    }
+
+    /**
+     * Test of filter method, of class PrimitiveMasks.
+     */
+    @Test
+    public void testFilterIsTheScalarOne() {
+        // Arrange
+        final Random random = new Random(7);
+        final int[] ints = new int[3001];
+        final long[] longs = new long[3001];
+        final double[] doubles = new double[3001];
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = random.nextInt();
+            longs[i] = random.nextInt(100);
+            doubles[i] = random.nextDouble();
+        }
+        final IntPredicate intPredicate = new IntRangePredicate(0, Integer.MAX_VALUE).and(EVEN);
+        final LongPredicate longPredicate = new LongRangePredicate(10, 20).or(new LongRangePredicate(90, 99));
+        final DoublePredicate doublePredicate = new DoubleRangePredicate(0.25, Math.nextDown(0.75));
+
+        // Act & Assert
+        assertArrayEquals(PrimitivePredicates.filter(ints, intPredicate), PrimitiveMasks.filter(ints, intPredicate));
+        assertArrayEquals(PrimitivePredicates.filter(longs, longPredicate),
+            PrimitiveMasks.filter(longs, longPredicate));
+        assertTrue(Arrays.equals(PrimitivePredicates.filter(doubles, doublePredicate),
+            PrimitiveMasks.filter(doubles, doublePredicate)));
+    }
+
+    /**
+     * Test of indexWhere method, of class PrimitiveMasks.
+     */
+    @Test
+    public void testIndexWhere() {
+        // Arrange
+        final int[] ints = new int[2500];
+        ints[2100] = 3;
+        final long[] longs = new long[70];
+        final double[] doubles = new double[0];
+
+        // Act & Assert
+        assertEquals(2100, PrimitiveMasks.indexWhere(ints, new IntRangePredicate(1, 5)));
+        assertEquals(-1, PrimitiveMasks.indexWhere(ints, new IntRangePredicate(4, 5)));
+        assertEquals(0, PrimitiveMasks.indexWhere(longs, LongTruePredicate.get()));
+        assertEquals(-1, PrimitiveMasks.indexWhere(longs, LongFalsePredicate.get()));
+        assertEquals(-1, PrimitiveMasks.indexWhere(doubles, DoubleTruePredicate.get()));
+    }
+
+    @Test
+    public void testNotOfPartialWord() {
+        // Arrange
+        final int[] array = new int[70];
+
+        // Act
+        final long[] result = PrimitiveMasks.mask(array, new IntRangePredicate(1, 1).not());
+
+        // Assert
+        assertArrayEquals(new long[]{-1L, 0x3F}, result);
+        assertEquals(70, PrimitiveMasks.count(array, IntFalsePredicate.get().not()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyRange() {
+        // Act
+        new IntRangePredicate(1, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNaNBound() {
+        // Act
+        new DoubleRangePredicate(Double.NaN, 0);
+    }
+}
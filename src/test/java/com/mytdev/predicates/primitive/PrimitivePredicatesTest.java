@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014 Yann D'Isanto.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mytdev.predicates.primitive;
+
+import com.mytdev.predicates.Predicates.Pair;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Yann D'Isanto
+ */
+public class PrimitivePredicatesTest {
+
+    private static final IntPredicate EVEN = new AbstractIntPredicate() {
+
+        public boolean eval(int candidate) {
+            return candidate % 2 == 0;
+        }
+    };
+
+    private static final LongPredicate NEGATIVE = new AbstractLongPredicate() {
+
+        public boolean eval(long candidate) {
+            return candidate < 0;
+        }
+    };
+
+    private static final DoublePredicate NAN = new AbstractDoublePredicate() {
+
+        public boolean eval(double candidate) {
+            return Double.isNaN(candidate);
+        }
+    };
+
+    /**
+     * Test of count method, of class PrimitivePredicates.
+     */
+    @Test
+    public void testCount() {
+        assertEquals(3, PrimitivePredicates.count(new int[] {1, 2, 3, 4, 6}, EVEN));
+        assertEquals(2, PrimitivePredicates.count(new long[] {-1, 2, -3}, NEGATIVE));
+        assertEquals(1, PrimitivePredicates.count(new double[] {1, Double.NaN}, NAN));
+    }
+
+    /**
+     * Test of filter method, of class PrimitivePredicates.
+     */
+    @Test
+    public void testFilter() {
+        assertArrayEquals(new int[] {2, 4, 6}, PrimitivePredicates.filter(new int[] {1, 2, 3, 4, 6}, EVEN));
+        assertArrayEquals(new long[] {-1, -3}, PrimitivePredicates.filter(new long[] {-1, 2, -3}, NEGATIVE));
+        assertEquals(0, PrimitivePredicates.filter(new double[] {1, 2}, NAN).length);
+    }
+
+    /**
+     * Test of indexWhere method, of class PrimitivePredicates.
+     */
+    @Test
+    public void testIndexWhere() {
+        assertEquals(1, PrimitivePredicates.indexWhere(new int[] {1, 2, 3, 4, 6}, EVEN));
+        assertEquals(-1, PrimitivePredicates.indexWhere(new long[] {1, 2}, NEGATIVE));
+        assertEquals(2, PrimitivePredicates.indexWhere(new double[] {1, 2, Double.NaN}, NAN));
+    }
+
+    /**
+     * Test of partition method, of class PrimitivePredicates.
+     */
+    @Test
+    public void testPartition() {
+        // Arrange
+        final int[] array = {1, 2, 3, 4, 5, 6};
+
+        // Act
+        final Pair<int[]> result = PrimitivePredicates.partition(array, EVEN);
+        final Pair<long[]> longResult = PrimitivePredicates.partition(new long[] {-1, 2, -3, 4}, NEGATIVE);
+
+        // Assert
+        assertArrayEquals(new int[] {2, 4, 6}, result._1());
+        assertArrayEquals(new int[] {1, 3, 5}, result._2());
+        assertArrayEquals(new long[] {-1, -3}, longResult._1());
+        assertArrayEquals(new long[] {2, 4}, longResult._2());
+    }
+
+    /**
+     * Test of count, filter, indexes and partition methods over batches, of
+     * class PrimitivePredicates.
+     */
+    @Test
+    public void testBatchOperations() {
+        // Arrange
+        final ColumnBatch batch = new ColumnBatch(5)
+            .put("id", new int[] {1, 2, 3, 4, 6})
+            .put("time", new long[] {-1, 2, -3, 4, 5})
+            .put("price", new double[] {1, Double.NaN, 3, 4, 5});
+        final ColumnPredicate predicate = ColumnPredicate.intColumn("id", EVEN)
+            .or(ColumnPredicate.longColumn("time", NEGATIVE))
+            .and(ColumnPredicate.doubleColumn("price", NAN).not());
+
+        // Act
+        final int count = PrimitivePredicates.count(batch, predicate);
+        final ColumnBatch filtered = PrimitivePredicates.filter(batch, predicate);
+        final int[] indexes = PrimitivePredicates.indexes(batch, predicate);
+        final Pair<ColumnBatch> partition = PrimitivePredicates.partition(batch, predicate);
+
+        // Assert
+        assertEquals(4, count);
+        assertArrayEquals(new int[] {1, 3, 4, 6}, filtered.intColumn("id"));
+        assertArrayEquals(new int[] {0, 2, 3, 4}, indexes);
+        assertArrayEquals(new long[] {-1, -3, 4, 5}, partition._1().longColumn("time"));
+        assertArrayEquals(new int[] {2}, partition._2().intColumn("id"));
+    }
+}